@@ -0,0 +1,85 @@
+package com.swiftlogistics.wms.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.swiftlogistics.wms.config.JacksonConfig;
+import com.swiftlogistics.wms.dto.OrderDto;
+import com.swiftlogistics.wms.dto.PackageStatusDto;
+import com.swiftlogistics.wms.dto.WarehouseEventDto;
+import com.swiftlogistics.wms.dto.WmsTcpMessage;
+import com.swiftlogistics.wms.model.EventType;
+import com.swiftlogistics.wms.model.PackageStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Representative payloads shared by the benchmarks.
+ */
+final class BenchmarkFixtures {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 9, 4, 12, 0);
+
+    private BenchmarkFixtures() {
+    }
+
+    static OrderDto order() {
+        return OrderDto.builder()
+                .orderId("ORD-000123456")
+                .trackingId("TRK-000123456")
+                .customerId("CUST-00042")
+                .origin("WAREHOUSE-A")
+                .destination("221B Baker Street, London NW1 6XE")
+                .weight(2.5)
+                .dimensions("30x20x15")
+                .priority("EXPRESS")
+                .serviceType("NEXT_DAY")
+                .expectedDeliveryDate(NOW.plusDays(1))
+                .specialInstructions("Leave with the concierge if nobody answers")
+                .createdAt(NOW)
+                .metadata("{\"channel\":\"web\",\"campaign\":\"autumn-sale\"}")
+                .build();
+    }
+
+    static WarehouseEventDto warehouseEvent() {
+        return WarehouseEventDto.builder()
+                .eventId("5f1c0c3e-8a59-4a0e-9a53-3c8f6f7d2b11")
+                .eventType(EventType.PACKAGE_STATUS_CHANGED)
+                .trackingId("TRK-000123456")
+                .orderId("ORD-000123456")
+                .location("WAREHOUSE-A")
+                .description("Package status updated to PICKED")
+                .timestamp(NOW)
+                .source("WMS-ADAPTER")
+                .build();
+    }
+
+    static PackageStatusDto packageStatus() {
+        return PackageStatusDto.builder()
+                .trackingId("TRK-000123456")
+                .orderId("ORD-000123456")
+                .status(PackageStatus.PICKED)
+                .previousStatus(PackageStatus.PROCESSING)
+                .location("WAREHOUSE-A")
+                .estimatedDelivery(NOW.plusDays(1))
+                .timestamp(NOW)
+                .notes("Status pushed by WMS")
+                .source("WMS-ADAPTER")
+                .build();
+    }
+
+    static WmsTcpMessage orderCreateMessage() {
+        try {
+            return WmsTcpMessage.builder()
+                    .messageType("ORDER")
+                    .sequenceNumber("123456")
+                    .trackingId("TRK-000123456")
+                    .orderId("ORD-000123456")
+                    .operation("CREATE")
+                    .location("WAREHOUSE-A")
+                    .data(JacksonConfig.objectMapper(false).writeValueAsString(order()))
+                    .timestamp(NOW.toString())
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.swiftlogistics.wms.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiftlogistics.wms.WmsApplication;
+import com.swiftlogistics.wms.model.EventType;
+import com.swiftlogistics.wms.model.Package;
+import com.swiftlogistics.wms.model.PackageStatus;
+import com.swiftlogistics.wms.model.WarehouseEvent;
+import com.swiftlogistics.wms.repository.PackageRepository;
+import com.swiftlogistics.wms.repository.WarehouseEventRepository;
+import com.swiftlogistics.wms.service.PackageTrackingService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the package query endpoints' data path against H2: loading and serializing full
+ * entities versus selecting and serializing only the fields a status widget reads.
+ * Serialized sizes of each variant are reported as the payloadBytes counter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FieldSelectionBenchmark {
+
+    private static final int WORKING_SET = 200;
+    private static final int EVENTS_PER_PACKAGE = 10;
+    private static final List<String> PACKAGE_FIELDS = List.of("status", "currentLocation");
+    private static final List<String> HISTORY_FIELDS = List.of("newStatus", "location", "eventTimestamp");
+
+    private ConfigurableApplicationContext context;
+    private PackageTrackingService packageTrackingService;
+    private PackageRepository packageRepository;
+    private ObjectMapper objectMapper;
+    private final List<String> trackingIds = new ArrayList<>();
+    private long invocation;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        context = new SpringApplicationBuilder(WmsApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration",
+                        "wms.mock.enabled=false",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.com.swiftlogistics.wms=WARN",
+                        "logging.level.org.hibernate.SQL=WARN")
+                .run();
+
+        packageTrackingService = context.getBean(PackageTrackingService.class);
+        packageRepository = context.getBean(PackageRepository.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        WarehouseEventRepository eventRepository = context.getBean(WarehouseEventRepository.class);
+        String notes = BenchmarkFixtures.order().getSpecialInstructions().repeat(8);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < WORKING_SET; i++) {
+            Package packageEntity = packageRepository.save(Package.builder()
+                    .trackingId("TRK-FIELDS-" + i)
+                    .orderId("ORD-FIELDS-" + i)
+                    .status(PackageStatus.PACKED)
+                    .origin("WAREHOUSE-A")
+                    .destination(BenchmarkFixtures.order().getDestination())
+                    .currentLocation("WAREHOUSE-A")
+                    .customerId("CUST-00042")
+                    .notes(notes)
+                    .build());
+            List<WarehouseEvent> events = new ArrayList<>();
+            for (int e = 0; e < EVENTS_PER_PACKAGE; e++) {
+                events.add(WarehouseEvent.builder()
+                        .eventType(EventType.PACKAGE_STATUS_CHANGED)
+                        .trackingId(packageEntity.getTrackingId())
+                        .orderId(packageEntity.getOrderId())
+                        .previousStatus(PackageStatus.PROCESSING)
+                        .newStatus(PackageStatus.PACKED)
+                        .location("WAREHOUSE-A")
+                        .description("Package status updated to PACKED")
+                        .metadata(BenchmarkFixtures.order().getMetadata())
+                        .source("WMS-ADAPTER")
+                        .eventTimestamp(now.plusSeconds(e))
+                        .build());
+            }
+            eventRepository.saveAll(events);
+            trackingIds.add(packageEntity.getTrackingId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] packageEntity(PayloadSize size) throws Exception {
+        return size.record(objectMapper.writeValueAsBytes(packageRepository.findByTrackingId(nextTrackingId()).orElseThrow()));
+    }
+
+    @Benchmark
+    public byte[] packageFields(PayloadSize size) throws Exception {
+        return size.record(objectMapper.writeValueAsBytes(packageTrackingService.getPackageFields(nextTrackingId(), PACKAGE_FIELDS)));
+    }
+
+    @Benchmark
+    public byte[] historyEntities(PayloadSize size) throws Exception {
+        return size.record(objectMapper.writeValueAsBytes(packageTrackingService.getPackageHistory(nextTrackingId())));
+    }
+
+    @Benchmark
+    public byte[] historyFields(PayloadSize size) throws Exception {
+        return size.record(objectMapper.writeValueAsBytes(packageTrackingService.getPackageHistoryFields(nextTrackingId(), HISTORY_FIELDS)));
+    }
+
+    private String nextTrackingId() {
+        return trackingIds.get((int) (invocation++ % WORKING_SET));
+    }
+
+    /**
+     * Reports the serialized size of the last response; every package in the working set is the same size.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class PayloadSize {
+        public long payloadBytes;
+
+        byte[] record(byte[] payload) {
+            payloadBytes = payload.length;
+            return payload;
+        }
+    }
+}
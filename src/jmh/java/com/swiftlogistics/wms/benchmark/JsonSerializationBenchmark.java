@@ -0,0 +1,101 @@
+package com.swiftlogistics.wms.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.swiftlogistics.wms.config.JacksonConfig;
+import com.swiftlogistics.wms.dto.DtoJsonCodecs;
+import com.swiftlogistics.wms.dto.OrderDto;
+import com.swiftlogistics.wms.dto.PackageStatusDto;
+import com.swiftlogistics.wms.dto.WarehouseEventDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for Jackson serialization of the Kafka and TCP payload DTOs,
+ * using the application's ObjectMapper configuration with and without Blackbird.
+ * The mapper variant looks up the (de)serializer per call as
+ * {@code writeValueAsBytes}/{@code readValue} do; the codecs variant uses the pre-built
+ * readers and writers of {@link DtoJsonCodecs}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JsonSerializationBenchmark {
+
+    @Param({"false", "true"})
+    private boolean blackbird;
+
+    @Param({"mapper", "codecs"})
+    private String access;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter orderWriter;
+    private ObjectReader orderReader;
+    private ObjectWriter warehouseEventWriter;
+    private ObjectReader warehouseEventReader;
+    private ObjectWriter packageStatusWriter;
+    private ObjectReader packageStatusReader;
+    private OrderDto order;
+    private WarehouseEventDto warehouseEvent;
+    private PackageStatusDto packageStatus;
+    private byte[] orderJson;
+    private byte[] warehouseEventJson;
+    private byte[] packageStatusJson;
+
+    @Setup
+    public void setup() throws Exception {
+        objectMapper = JacksonConfig.objectMapper(blackbird);
+        if (access.equals("codecs")) {
+            DtoJsonCodecs codecs = new DtoJsonCodecs(objectMapper);
+            orderWriter = codecs.writer(OrderDto.class);
+            orderReader = codecs.reader(OrderDto.class);
+            warehouseEventWriter = codecs.writer(WarehouseEventDto.class);
+            warehouseEventReader = codecs.reader(WarehouseEventDto.class);
+            packageStatusWriter = codecs.writer(PackageStatusDto.class);
+            packageStatusReader = codecs.reader(PackageStatusDto.class);
+        } else {
+            // Untyped writer and per-call reader, as ObjectMapper.writeValueAsBytes and readValue use
+            orderWriter = warehouseEventWriter = packageStatusWriter = objectMapper.writer();
+        }
+        order = BenchmarkFixtures.order();
+        warehouseEvent = BenchmarkFixtures.warehouseEvent();
+        packageStatus = BenchmarkFixtures.packageStatus();
+        orderJson = objectMapper.writeValueAsBytes(order);
+        warehouseEventJson = objectMapper.writeValueAsBytes(warehouseEvent);
+        packageStatusJson = objectMapper.writeValueAsBytes(packageStatus);
+    }
+
+    @Benchmark
+    public byte[] serializeOrder() throws Exception {
+        return orderWriter.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public OrderDto deserializeOrder() throws Exception {
+        return orderReader != null ? orderReader.readValue(orderJson) : objectMapper.readValue(orderJson, OrderDto.class);
+    }
+
+    @Benchmark
+    public byte[] serializeWarehouseEvent() throws Exception {
+        return warehouseEventWriter.writeValueAsBytes(warehouseEvent);
+    }
+
+    @Benchmark
+    public WarehouseEventDto deserializeWarehouseEvent() throws Exception {
+        return warehouseEventReader != null ? warehouseEventReader.readValue(warehouseEventJson)
+                : objectMapper.readValue(warehouseEventJson, WarehouseEventDto.class);
+    }
+
+    @Benchmark
+    public byte[] serializePackageStatus() throws Exception {
+        return packageStatusWriter.writeValueAsBytes(packageStatus);
+    }
+
+    @Benchmark
+    public PackageStatusDto deserializePackageStatus() throws Exception {
+        return packageStatusReader != null ? packageStatusReader.readValue(packageStatusJson)
+                : objectMapper.readValue(packageStatusJson, PackageStatusDto.class);
+    }
+}
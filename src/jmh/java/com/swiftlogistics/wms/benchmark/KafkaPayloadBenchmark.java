@@ -0,0 +1,97 @@
+package com.swiftlogistics.wms.benchmark;
+
+import com.swiftlogistics.wms.config.JacksonConfig;
+import com.swiftlogistics.wms.config.WmsProperties;
+import com.swiftlogistics.wms.dto.DtoJsonCodecs;
+import com.swiftlogistics.wms.kafka.AvroPayloadCodec;
+import com.swiftlogistics.wms.kafka.AvroPayloadDeserializer;
+import com.swiftlogistics.wms.kafka.AvroPayloadSerializer;
+import com.swiftlogistics.wms.kafka.JsonPayloadDeserializer;
+import com.swiftlogistics.wms.kafka.JsonPayloadSerializer;
+import com.swiftlogistics.wms.kafka.LocalSchemaRegistry;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the Kafka value serde of the payload DTOs, per payload format, through the same
+ * serializer and deserializer instances the producer and consumer factories use. The bytes a
+ * record occupies, value plus headers, are reported as the recordBytes counter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class KafkaPayloadBenchmark {
+
+    private static final String TOPIC = "benchmark";
+
+    @Param({"JSON", "AVRO"})
+    private WmsProperties.Kafka.PayloadFormat format;
+
+    @Param({"order", "warehouseEvent", "packageStatus"})
+    private String payloadType;
+
+    private Serializer<Object> serializer;
+    private Deserializer<Object> deserializer;
+    private Object payload;
+    private RecordHeaders headers;
+    private byte[] value;
+
+    @Setup
+    public void setup() {
+        DtoJsonCodecs jsonCodecs = new DtoJsonCodecs(JacksonConfig.objectMapper(false));
+        if (format == WmsProperties.Kafka.PayloadFormat.AVRO) {
+            AvroPayloadCodec codec = new AvroPayloadCodec(LocalSchemaRegistry.bundled());
+            serializer = new AvroPayloadSerializer(codec, jsonCodecs);
+            deserializer = new AvroPayloadDeserializer(codec, jsonCodecs);
+        } else {
+            serializer = new JsonPayloadSerializer(jsonCodecs);
+            deserializer = new JsonPayloadDeserializer(jsonCodecs);
+        }
+        serializer.configure(Map.of(), false);
+        deserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "*"), false);
+
+        payload = switch (payloadType) {
+            case "order" -> BenchmarkFixtures.order();
+            case "warehouseEvent" -> BenchmarkFixtures.warehouseEvent();
+            default -> BenchmarkFixtures.packageStatus();
+        };
+        headers = new RecordHeaders();
+        value = serializer.serialize(TOPIC, headers, payload);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(TOPIC, new RecordHeaders(), payload);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return deserializer.deserialize(TOPIC, headers, value);
+    }
+
+    @Benchmark
+    public void recordSize(RecordSize size) {
+        long bytes = value.length;
+        for (Header header : headers) {
+            bytes += header.key().getBytes(StandardCharsets.UTF_8).length + header.value().length;
+        }
+        size.recordBytes = bytes;
+    }
+
+    /**
+     * Reports the bytes of the fixture record's value and headers.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class RecordSize {
+        public long recordBytes;
+    }
+}
@@ -0,0 +1,82 @@
+package com.swiftlogistics.wms.benchmark;
+
+import com.swiftlogistics.wms.WmsApplication;
+import com.swiftlogistics.wms.model.Package;
+import com.swiftlogistics.wms.model.PackageStatus;
+import com.swiftlogistics.wms.repository.PackageRepository;
+import com.swiftlogistics.wms.service.PackageTrackingService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Orders per second through the database writes of a full order lifecycle against H2, once per
+ * warehouse event write mode: each invocation creates a package and moves it from PROCESSING to
+ * DELIVERED, writing five status transitions and their events. Kafka publishing goes to an
+ * embedded broker.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+public class OrderLifecycleBenchmark {
+
+    private static final PackageStatus[] LIFECYCLE = { PackageStatus.PROCESSING, PackageStatus.PICKED,
+            PackageStatus.PACKED, PackageStatus.SHIPPED, PackageStatus.DELIVERED };
+
+    @Param({"SYNC", "ASYNC", "GROUP_COMMIT"})
+    private String eventWriteMode;
+
+    private EmbeddedKafkaKraftBroker kafkaBroker;
+    private ConfigurableApplicationContext context;
+    private PackageTrackingService packageTrackingService;
+    private PackageRepository packageRepository;
+    private final AtomicLong orders = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        kafkaBroker = new EmbeddedKafkaKraftBroker(1, 1, "test-package-status", "test-warehouse-events");
+        kafkaBroker.afterPropertiesSet();
+
+        context = new SpringApplicationBuilder(WmsApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                // Arguments, unlike default properties, win over the test profile's settings
+                .run("--spring.kafka.bootstrap-servers=" + kafkaBroker.getBrokersAsString(),
+                        "--wms.mock.enabled=false",
+                        "--wms.event-writes.mode=" + eventWriteMode,
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.com.swiftlogistics.wms=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.apache.kafka=WARN");
+
+        packageTrackingService = context.getBean(PackageTrackingService.class);
+        packageRepository = context.getBean(PackageRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        kafkaBroker.destroy();
+    }
+
+    @Benchmark
+    public void orderLifecycle() throws Exception {
+        long order = orders.incrementAndGet();
+        String trackingId = packageRepository.save(Package.builder()
+                .trackingId("TRK-LIFECYCLE-" + order)
+                .orderId("ORD-LIFECYCLE-" + order)
+                .status(PackageStatus.RECEIVED)
+                .origin("WAREHOUSE-A")
+                .currentLocation("WAREHOUSE-A")
+                .build()).getTrackingId();
+        for (PackageStatus status : LIFECYCLE) {
+            packageTrackingService.updatePackageStatus(trackingId, status, "WAREHOUSE-A", null);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.swiftlogistics.wms.benchmark;
+
+import com.swiftlogistics.wms.config.JacksonConfig;
+import com.swiftlogistics.wms.dto.DtoJsonCodecs;
+import com.swiftlogistics.wms.dto.OrderDto;
+import com.swiftlogistics.wms.protocol.CompactOrderCodec;
+import com.swiftlogistics.wms.protocol.PayloadEncoding;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the order payload carried in ORDER/CREATE messages, per payload encoding.
+ * The encoded size of the fixture order is reported as the payloadBytes counter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrderPayloadBenchmark {
+
+    @Param({"JSON", "COMPACT"})
+    private PayloadEncoding encoding;
+
+    private DtoJsonCodecs jsonCodecs;
+    private OrderDto order;
+    private String payload;
+
+    @Setup
+    public void setup() throws Exception {
+        jsonCodecs = new DtoJsonCodecs(JacksonConfig.objectMapper(false));
+        order = BenchmarkFixtures.order();
+        payload = encode();
+    }
+
+    @Benchmark
+    public String encode() throws Exception {
+        return encoding == PayloadEncoding.COMPACT
+                ? CompactOrderCodec.encode(order)
+                : jsonCodecs.orderWriter().writeValueAsString(order);
+    }
+
+    @Benchmark
+    public OrderDto decode() throws Exception {
+        return encoding == PayloadEncoding.COMPACT
+                ? CompactOrderCodec.decode(payload)
+                : jsonCodecs.orderReader().readValue(payload);
+    }
+
+    @Benchmark
+    public void payloadSize(PayloadSize size) {
+        size.payloadBytes = payload.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Reports the bytes the fixture order occupies on the wire in the data field.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class PayloadSize {
+        public long payloadBytes;
+    }
+}
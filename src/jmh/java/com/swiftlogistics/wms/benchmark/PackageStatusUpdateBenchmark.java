@@ -0,0 +1,81 @@
+package com.swiftlogistics.wms.benchmark;
+
+import com.swiftlogistics.wms.WmsApplication;
+import com.swiftlogistics.wms.model.Package;
+import com.swiftlogistics.wms.model.PackageStatus;
+import com.swiftlogistics.wms.repository.PackageRepository;
+import com.swiftlogistics.wms.service.PackageTrackingService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for PackageTrackingService.updatePackageStatus against H2, with Kafka
+ * publishing going to an embedded broker. Each invocation records the next package of a
+ * fixed working set as picked at alternating locations; the first pass moves them from
+ * PROCESSING, later passes are the PICKED to PICKED location updates the transition table allows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PackageStatusUpdateBenchmark {
+
+    private static final int WORKING_SET = 1000;
+    private static final String[] LOCATIONS = { "WAREHOUSE-A", "DOCK-1" };
+
+    private EmbeddedKafkaKraftBroker kafkaBroker;
+    private ConfigurableApplicationContext context;
+    private PackageTrackingService packageTrackingService;
+    private final List<String> trackingIds = new ArrayList<>();
+    private long invocation;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        kafkaBroker = new EmbeddedKafkaKraftBroker(1, 1, "test-package-status", "test-warehouse-events");
+        kafkaBroker.afterPropertiesSet();
+
+        context = new SpringApplicationBuilder(WmsApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.kafka.bootstrap-servers=" + kafkaBroker.getBrokersAsString(),
+                        "wms.mock.enabled=false",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.com.swiftlogistics.wms=WARN",
+                        "logging.level.org.hibernate.SQL=WARN")
+                .run();
+
+        packageTrackingService = context.getBean(PackageTrackingService.class);
+        PackageRepository packageRepository = context.getBean(PackageRepository.class);
+        for (int i = 0; i < WORKING_SET; i++) {
+            Package packageEntity = packageRepository.save(Package.builder()
+                    .trackingId("TRK-BENCH-" + i)
+                    .orderId("ORD-BENCH-" + i)
+                    .status(PackageStatus.PROCESSING)
+                    .origin("WAREHOUSE-A")
+                    .currentLocation("WAREHOUSE-A")
+                    .build());
+            trackingIds.add(packageEntity.getTrackingId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        kafkaBroker.destroy();
+    }
+
+    @Benchmark
+    public void updatePackageStatus() throws Exception {
+        long step = invocation++;
+        String trackingId = trackingIds.get((int) (step % WORKING_SET));
+        String location = LOCATIONS[(int) ((step / WORKING_SET) % LOCATIONS.length)];
+        packageTrackingService.updatePackageStatus(trackingId, PackageStatus.PICKED, location, null);
+    }
+}
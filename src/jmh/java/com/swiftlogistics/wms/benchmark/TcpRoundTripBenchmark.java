@@ -0,0 +1,90 @@
+package com.swiftlogistics.wms.benchmark;
+
+import com.swiftlogistics.wms.config.WmsProperties;
+import com.swiftlogistics.wms.dto.WmsTcpMessage;
+import com.swiftlogistics.wms.mock.MockWmsServer;
+import com.swiftlogistics.wms.protocol.WmsFraming;
+import com.swiftlogistics.wms.service.WmsTcpClientService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for full request/response round trips through WmsTcpClientService
+ * against an in-process MockWmsServer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TcpRoundTripBenchmark {
+
+    private static final int MOCK_WMS_PORT = 9999;
+    private static final String TRACKING_ID = "TRK-BENCH-0001";
+
+    @Param({"TEXT", "BINARY"})
+    private WmsFraming framing;
+
+    private MockWmsServer mockWmsServer;
+    private WmsTcpClientService tcpClientService;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        mockWmsServer = new MockWmsServer();
+        mockWmsServer.startServer();
+
+        WmsProperties properties = new WmsProperties();
+        properties.getLegacy().setHost("localhost");
+        properties.getLegacy().setPort(MOCK_WMS_PORT);
+        properties.getLegacy().setFraming(framing);
+        tcpClientService = new WmsTcpClientService(properties);
+        tcpClientService.start();
+
+        tcpClientService.sendOrderCreation(TRACKING_ID, "ORD-BENCH-0001", "WAREHOUSE-A",
+                BenchmarkFixtures.orderCreateMessage().getData());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        tcpClientService.stop();
+        mockWmsServer.stopServer();
+    }
+
+    @Benchmark
+    public WmsTcpMessage ping() throws Exception {
+        return tcpClientService.sendMessage(WmsTcpMessage.builder()
+                .messageType("PING")
+                .operation("TEST")
+                .build());
+    }
+
+    @Benchmark
+    public WmsTcpMessage queryPackageStatus() throws Exception {
+        return tcpClientService.queryPackageStatus(TRACKING_ID);
+    }
+
+    @Benchmark
+    public WmsTcpMessage queryPackageStatusAsync() {
+        return tcpClientService.queryPackageStatusAsync(TRACKING_ID).join();
+    }
+
+    /**
+     * Eight status queries in flight at once from a single caller thread.
+     */
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public void queryPackageStatusAsyncBatch() {
+        CompletableFuture<?>[] queries = new CompletableFuture<?>[8];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = tcpClientService.queryPackageStatusAsync(TRACKING_ID);
+        }
+        CompletableFuture.allOf(queries).join();
+    }
+
+    @Benchmark
+    public WmsTcpMessage sendOrderCreation() throws Exception {
+        WmsTcpMessage message = BenchmarkFixtures.orderCreateMessage();
+        return tcpClientService.sendOrderCreation(message.getTrackingId(), message.getOrderId(),
+                message.getLocation(), message.getData());
+    }
+}
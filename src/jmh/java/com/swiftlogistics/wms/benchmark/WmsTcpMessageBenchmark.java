@@ -0,0 +1,64 @@
+package com.swiftlogistics.wms.benchmark;
+
+import com.swiftlogistics.wms.dto.WmsTcpMessage;
+import com.swiftlogistics.wms.protocol.WmsFraming;
+import com.swiftlogistics.wms.protocol.WmsMessageCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for encoding and parsing WMS TCP messages in the pipe-delimited text
+ * protocol and in binary frames.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WmsTcpMessageBenchmark {
+
+    private WmsTcpMessage orderMessage;
+    private String orderLine;
+    private byte[] orderFrame;
+    private WmsMessageCodec binaryCodec;
+
+    @Setup
+    public void setup() {
+        orderMessage = BenchmarkFixtures.orderCreateMessage();
+        orderLine = orderMessage.toTcpString();
+
+        binaryCodec = WmsMessageCodec.forFraming(WmsFraming.BINARY);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            binaryCodec.write(out, orderMessage);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        orderFrame = out.toByteArray();
+    }
+
+    @Benchmark
+    public String toTcpString() {
+        return orderMessage.toTcpString();
+    }
+
+    @Benchmark
+    public WmsTcpMessage fromTcpString() {
+        return WmsTcpMessage.fromTcpString(orderLine);
+    }
+
+    @Benchmark
+    public byte[] toBinaryFrame() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(orderFrame.length);
+        binaryCodec.write(out, orderMessage);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public WmsTcpMessage fromBinaryFrame() throws IOException {
+        return binaryCodec.read(new ByteArrayInputStream(orderFrame));
+    }
+}
@@ -1,45 +1,43 @@
 package com.swiftlogistics.wms.config;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Configuration for asynchronous processing in the WMS adapter.
  */
+@Slf4j
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
     /**
      * Thread pool executor for handling TCP communications asynchronously.
+     * Applies WMS responses to the database once non-blocking round trips complete.
+     * Tasks are submitted by the transport threads, which must never run database work, so the
+     * queue holds one task for every order the orders listener lets in at once
+     * ({@code wms.ingestion.max-in-flight-orders}) and is never full in normal operation.
      */
     @Bean(name = "tcpTaskExecutor")
-    public Executor tcpTaskExecutor() {
+    public Executor tcpTaskExecutor(WmsProperties wmsProperties) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(5);
         executor.setMaxPoolSize(20);
-        executor.setQueueCapacity(100);
+        executor.setQueueCapacity(Math.max(100, wmsProperties.getIngestion().getMaxInFlightOrders()));
         executor.setThreadNamePrefix("WMS-TCP-");
-        executor.setWaitForTasksToCompleteOnShutdown(true);
-        executor.setAwaitTerminationSeconds(30);
-        executor.initialize();
-        return executor;
-    }
-
-    /**
-     * Thread pool executor for handling Kafka message processing asynchronously.
-     */
-    @Bean(name = "kafkaTaskExecutor")
-    public Executor kafkaTaskExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(3);
-        executor.setMaxPoolSize(10);
-        executor.setQueueCapacity(50);
-        executor.setThreadNamePrefix("WMS-Kafka-");
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            if (!pool.isShutdown()) {
+                throw new RejectedExecutionException("WMS response executor is full");
+            }
+            // The order was never acknowledged, so Kafka redelivers it after the restart
+            log.warn("Dropping WMS response handling submitted during shutdown");
+        });
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(30);
         executor.initialize();
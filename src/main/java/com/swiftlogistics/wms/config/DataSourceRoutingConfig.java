@@ -0,0 +1,65 @@
+package com.swiftlogistics.wms.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+
+/**
+ * Separate connection pools for writes and reads.
+ * Read-only transactions, including the Spring Data finders outside a write transaction, are
+ * served by the read pool, optionally pointed at a replica; everything else uses the write pool.
+ * A slow query therefore cannot take the connections order ingestion needs. The physical
+ * connection is only fetched on first use, once the transaction has marked it read-only.
+ * Both pools report Hikari metrics under their own pool name.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "wms.datasource.routing-enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    public HikariDataSource writeDataSource(DataSourceProperties properties, WmsProperties wmsProperties) {
+        return createPool(properties, wmsProperties.getDatasource().getWrite(), "wms-write", false);
+    }
+
+    @Bean
+    public HikariDataSource readDataSource(DataSourceProperties properties, WmsProperties wmsProperties) {
+        WmsProperties.Datasource.Pool read = wmsProperties.getDatasource().getRead();
+        log.info("Routing read-only transactions to {}",
+                StringUtils.hasText(read.getUrl()) ? read.getUrl() : "a separate pool on the primary");
+        return createPool(properties, read, "wms-read", true);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource writeDataSource, HikariDataSource readDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(writeDataSource);
+        dataSource.setReadOnlyDataSource(readDataSource);
+        return dataSource;
+    }
+
+    private HikariDataSource createPool(DataSourceProperties properties, WmsProperties.Datasource.Pool pool,
+                                        String poolName, boolean readOnly) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        if (StringUtils.hasText(pool.getUrl())) {
+            dataSource.setJdbcUrl(pool.getUrl());
+        }
+        if (StringUtils.hasText(pool.getUsername())) {
+            dataSource.setUsername(pool.getUsername());
+            dataSource.setPassword(pool.getPassword());
+        }
+        dataSource.setPoolName(poolName);
+        dataSource.setMaximumPoolSize(pool.getMaximumPoolSize());
+        dataSource.setMinimumIdle(pool.getMinimumIdle());
+        dataSource.setReadOnly(readOnly);
+        return dataSource;
+    }
+}
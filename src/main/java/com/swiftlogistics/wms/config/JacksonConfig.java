@@ -2,6 +2,8 @@ package com.swiftlogistics.wms.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.swiftlogistics.wms.dto.DtoJsonCodecs;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -12,9 +14,28 @@ import org.springframework.context.annotation.Configuration;
 public class JacksonConfig {
 
     @Bean
-    public ObjectMapper objectMapper() {
+    public ObjectMapper objectMapper(WmsProperties wmsProperties) {
+        return objectMapper(wmsProperties.getJson().isBlackbirdEnabled());
+    }
+
+    /**
+     * Readers and writers for the payload DTOs, shared by the Kafka serdes and the TCP client.
+     */
+    @Bean
+    public DtoJsonCodecs dtoJsonCodecs(ObjectMapper objectMapper) {
+        return new DtoJsonCodecs(objectMapper);
+    }
+
+    /**
+     * The application's mapper; with Blackbird, bean property access goes through generated
+     * lambdas instead of reflection.
+     */
+    public static ObjectMapper objectMapper(boolean blackbird) {
         ObjectMapper mapper = new ObjectMapper();
         mapper.registerModule(new JavaTimeModule());
+        if (blackbird) {
+            mapper.registerModule(new BlackbirdModule());
+        }
         return mapper;
     }
 }
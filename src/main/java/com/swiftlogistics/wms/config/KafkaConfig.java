@@ -1,7 +1,16 @@
 package com.swiftlogistics.wms.config;
 
+import com.swiftlogistics.wms.dto.DtoJsonCodecs;
+import com.swiftlogistics.wms.kafka.AvroPayloadCodec;
+import com.swiftlogistics.wms.kafka.AvroPayloadDeserializer;
+import com.swiftlogistics.wms.kafka.AvroPayloadSerializer;
+import com.swiftlogistics.wms.kafka.JsonPayloadDeserializer;
+import com.swiftlogistics.wms.kafka.JsonPayloadSerializer;
+import com.swiftlogistics.wms.kafka.LocalSchemaRegistry;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,7 +20,6 @@ import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
 import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -28,57 +36,98 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
 
+    /**
+     * In-process registry of the Avro schemas of Kafka payloads.
+     */
+    @Bean
+    public LocalSchemaRegistry kafkaSchemaRegistry() {
+        return LocalSchemaRegistry.bundled();
+    }
+
+    @Bean
+    public AvroPayloadCodec avroPayloadCodec(LocalSchemaRegistry kafkaSchemaRegistry) {
+        return new AvroPayloadCodec(kafkaSchemaRegistry);
+    }
+
     /**
      * Producer configuration for sending messages to Kafka topics.
+     * Transactional when Kafka transactions are enabled, so the records of one operation commit together.
+     * With the Avro payload format the payload DTOs are written as Avro, everything else as JSON
+     * with the application's ObjectMapper.
      */
     @Bean
-    public ProducerFactory<String, Object> producerFactory() {
+    public ProducerFactory<String, Object> producerFactory(WmsProperties wmsProperties, AvroPayloadCodec avroPayloadCodec,
+                                                           DtoJsonCodecs dtoJsonCodecs) {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
         configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
         configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
         configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 1);
+        // Sends run on the publishing thread; do not hold it for a minute when the cluster is unreachable
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, 5000);
         
-        return new DefaultKafkaProducerFactory<>(configProps);
+        Serializer<Object> valueSerializer =
+                wmsProperties.getKafka().getPayloadFormat() == WmsProperties.Kafka.PayloadFormat.AVRO
+                        ? new AvroPayloadSerializer(avroPayloadCodec, dtoJsonCodecs)
+                        : new JsonPayloadSerializer(dtoJsonCodecs);
+        DefaultKafkaProducerFactory<String, Object> factory =
+                new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), valueSerializer);
+        WmsProperties.Kafka.Transactions transactions = wmsProperties.getKafka().getTransactions();
+        if (transactions.isEnabled()) {
+            factory.setTransactionIdPrefix(transactions.getTransactionIdPrefix());
+        }
+        return factory;
     }
 
     /**
      * Kafka template for sending messages.
+     * Single sends outside a transaction stay allowed with a transactional producer.
      */
     @Bean
-    public KafkaTemplate<String, Object> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public KafkaTemplate<String, Object> kafkaTemplate(ProducerFactory<String, Object> producerFactory) {
+        KafkaTemplate<String, Object> template = new KafkaTemplate<>(producerFactory);
+        template.setAllowNonTransactional(true);
+        return template;
     }
 
     /**
      * Consumer factory configuration for receiving messages from Kafka topics.
+     * With the Avro payload format, Avro records are read into the payload DTOs and JSON still accepted.
      */
     @Bean
-    public ConsumerFactory<String, Object> consumerFactory() {
+    public ConsumerFactory<String, Object> consumerFactory(WmsProperties wmsProperties, AvroPayloadCodec avroPayloadCodec,
+                                                           DtoJsonCodecs dtoJsonCodecs) {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
         props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
         props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 10);
+        if (wmsProperties.getKafka().getTransactions().isEnabled()) {
+            // The read model must not see records of aborted publishes
+            props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        }
         
-        return new DefaultKafkaConsumerFactory<>(props);
+        Deserializer<Object> valueDeserializer =
+                wmsProperties.getKafka().getPayloadFormat() == WmsProperties.Kafka.PayloadFormat.AVRO
+                        ? new AvroPayloadDeserializer(avroPayloadCodec, dtoJsonCodecs)
+                        : new JsonPayloadDeserializer(dtoJsonCodecs);
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), valueDeserializer);
     }
 
     /**
      * Kafka listener container factory for handling message consumption.
      */
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory(
+            ConsumerFactory<String, Object> consumerFactory) {
         ConcurrentKafkaListenerContainerFactory<String, Object> factory = 
             new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(consumerFactory());
+        factory.setConsumerFactory(consumerFactory);
         factory.setConcurrency(3);
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
         return factory;
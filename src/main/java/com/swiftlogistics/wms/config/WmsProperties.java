@@ -1,9 +1,14 @@
 package com.swiftlogistics.wms.config;
 
+import com.swiftlogistics.wms.protocol.PayloadEncoding;
+import com.swiftlogistics.wms.protocol.WmsFraming;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Configuration properties for WMS adapter settings.
  */
@@ -22,6 +27,66 @@ public class WmsProperties {
      */
     private Kafka kafka = new Kafka();
 
+    /**
+     * Background reconciliation with the legacy WMS
+     */
+    private Reconciliation reconciliation = new Reconciliation();
+
+    /**
+     * Live package and event counters
+     */
+    private Stats stats = new Stats();
+
+    /**
+     * Event-sourced package state settings
+     */
+    private EventSourcing eventSourcing = new EventSourcing();
+
+    /**
+     * Read model serving the package query endpoints
+     */
+    private Projection projection = new Projection();
+
+    /**
+     * HTTP caching of package resources
+     */
+    private HttpCache httpCache = new HttpCache();
+
+    /**
+     * Read/write connection pool routing
+     */
+    private Datasource datasource = new Datasource();
+
+    /**
+     * How warehouse events are written to the database
+     */
+    private EventWrites eventWrites = new EventWrites();
+
+    /**
+     * In-memory state of active packages
+     */
+    private StateStore stateStore = new StateStore();
+
+    /**
+     * Order ingestion settings
+     */
+    private Ingestion ingestion = new Ingestion();
+
+    /**
+     * Bulk import of historical orders and events
+     */
+    private Imports imports = new Imports();
+
+    /**
+     * Archival of old warehouse events to compressed files
+     */
+    private Archive archive = new Archive();
+
+    /**
+     * JSON (de)serialization settings
+     */
+    private Json json = new Json();
+
     @Data
     public static class Legacy {
         private String host = "localhost";
@@ -30,17 +95,323 @@ public class WmsProperties {
         private int readTimeout = 10000;
         private int maxRetries = 3;
         private long retryDelay = 1000;
+
+        /**
+         * Preferred wire framing; BINARY is negotiated with the WMS and falls back to TEXT
+         */
+        private WmsFraming framing = WmsFraming.TEXT;
+
+        /**
+         * Preferred order payload encoding; COMPACT is negotiated with the WMS and falls back to JSON
+         */
+        private PayloadEncoding payloadEncoding = PayloadEncoding.JSON;
+
+        /**
+         * WMS nodes to balance across; when empty the single host and port above are used
+         */
+        private List<Endpoint> endpoints = new ArrayList<>();
+
+        /**
+         * Endpoint selection and outlier ejection settings
+         */
+        private LoadBalancing loadBalancing = new LoadBalancing();
+
+        /**
+         * Unsolicited STATUS push subscription settings
+         */
+        private Push push = new Push();
+
+        @Data
+        public static class Endpoint {
+            private String host;
+            private int port;
+
+            /**
+             * Warehouses (package origins) owned by this node; empty for a shared node
+             */
+            private List<String> warehouses = new ArrayList<>();
+        }
+
+        @Data
+        public static class LoadBalancing {
+            private int ejectAfterFailures = 5;
+            private long ejectionTime = 30000;
+        }
+
+        @Data
+        public static class Push {
+            private boolean enabled = false;
+            private int batchSize = 100;
+            private long flushInterval = 500;
+            private long reconnectDelay = 5000;
+            private int queueCapacity = 10000;
+        }
+    }
+
+    @Data
+    public static class Reconciliation {
+        private boolean enabled = false;
+        private long interval = 300000;
+        private long initialDelay = 60000;
+        private int pageSize = 200;
+        private int parallelism = 4;
+        private double maxRequestsPerSecond = 50;
+    }
+
+    @Data
+    public static class Stats {
+        private long correctionInterval = 600000;
+
+        /**
+         * Locations with their own gauge; packages at any further location are counted under OTHER
+         */
+        private int maxLocationTags = 200;
+    }
+
+    @Data
+    public static class EventSourcing {
+        private boolean enabled = false;
+        private long snapshotInterval = 60000;
+        private int snapshotPageSize = 500;
+    }
+
+    @Data
+    public static class Projection {
+        private boolean enabled = false;
+
+        /**
+         * Consumer group of this instance's projection; must differ between instances
+         */
+        private String groupId = "wms-projection";
+
+        /**
+         * How long an order may stay in the projection without ever becoming a package
+         */
+        private long orphanTtl = 3600000;
+
+        /**
+         * How long a delivered, failed or returned package stays in the projection after its last status
+         */
+        private long terminalTtl = 3600000;
+
+        /**
+         * How often orphaned and terminal packages are evicted from the projection
+         */
+        private long evictionInterval = 60000;
+    }
+
+    @Data
+    public static class HttpCache {
+        /**
+         * Max age (ms) of packages still moving through the warehouse; 0 means revalidate on every use
+         */
+        private long activeMaxAge = 0;
+
+        /**
+         * Max age (ms) of delivered, failed and returned packages
+         */
+        private long terminalMaxAge = 86400000;
+    }
+
+    @Data
+    public static class Datasource {
+        private boolean routingEnabled = false;
+        private Pool write = new Pool();
+        private Pool read = new Pool();
+
+        @Data
+        public static class Pool {
+            private int maximumPoolSize = 10;
+            private int minimumIdle = 2;
+
+            /**
+             * JDBC URL of a replica to serve this pool from; the primary when unset
+             */
+            private String url;
+            private String username;
+            private String password;
+        }
+    }
+
+    @Data
+    public static class EventWrites {
+        private Mode mode = Mode.SYNC;
+
+        /**
+         * Events that may wait in the write-behind buffer before callers block
+         */
+        private int bufferCapacity = 65536;
+
+        /**
+         * Events written per database transaction
+         */
+        private int batchSize = 500;
+
+        /**
+         * Longest time (ms) an ASYNC batch waits to fill
+         */
+        private long flushInterval = 20;
+
+        /**
+         * How long (ms) a GROUP_COMMIT caller waits for its event to be written
+         */
+        private long groupCommitTimeout = 5000;
+
+        /**
+         * Connections of the writer's own pool
+         */
+        private int poolSize = 2;
+
+        public enum Mode {
+            /** Written in the caller's transaction */
+            SYNC,
+            /** Written behind after commit; the caller does not wait */
+            ASYNC,
+            /** Written behind after commit; the caller waits for the batch commit */
+            GROUP_COMMIT
+        }
+    }
+
+    @Data
+    public static class StateStore {
+        private boolean enabled = false;
+
+        /**
+         * Number of lock-striped shards, rounded up to a power of two
+         */
+        private int shards = 64;
+
+        /**
+         * Delay (ms) between write-behind passes
+         */
+        private long flushInterval = 100;
+
+        /**
+         * Transitions written per database transaction
+         */
+        private int batchSize = 500;
+
+        /**
+         * Transitions that may wait to be written before the store stops taking more
+         */
+        private int maxPendingWrites = 10000;
+
+        /**
+         * How long (ms) a transition waits for room in a full write queue, or for another transaction on its package
+         */
+        private long waitTimeout = 5000;
+    }
+
+    @Data
+    public static class Ingestion {
+        private Dedup dedup = new Dedup();
+
+        /**
+         * Orders being created or waiting for the WMS at once; the orders listener waits for a slot beyond this
+         */
+        private int maxInFlightOrders = 100;
+
+        @Data
+        public static class Dedup {
+            private boolean enabled = true;
+
+            /**
+             * Keys the in-memory filter holds before it is reset; sizes the filter together with the rate below
+             */
+            private int expectedOrders = 1000000;
+            private double falsePositiveRate = 0.001;
+
+            /**
+             * Claim orders in Redis so redeliveries are caught across adapter instances
+             */
+            private boolean redisEnabled = false;
+            private long redisTtl = 604800000;
+        }
+    }
+
+    @Data
+    public static class Imports {
+        /**
+         * Lines loaded and checkpointed per transaction
+         */
+        private int chunkSize = 5000;
+    }
+
+    @Data
+    public static class Archive {
+        private boolean enabled = false;
+
+        /**
+         * Age (ms) after which events of terminal packages are archived; 90 days by default
+         */
+        private long retention = 7776000000L;
+
+        private long interval = 3600000;
+
+        /**
+         * Events written to one archive file and deleted in one transaction
+         */
+        private int batchSize = 1000;
+
+        private String directory = "archive/warehouse-events";
+    }
+
+    @Data
+    public static class Json {
+        /**
+         * Register the Blackbird module, replacing reflective property access with generated lambdas
+         */
+        private boolean blackbirdEnabled = false;
     }
 
     @Data
     public static class Kafka {
         private Topics topics = new Topics();
 
+        /**
+         * Encoding of the order, warehouse event and package status payloads
+         */
+        private PayloadFormat payloadFormat = PayloadFormat.JSON;
+
+        /**
+         * Per-package coalescing of status updates before publishing
+         */
+        private StatusCoalescing statusCoalescing = new StatusCoalescing();
+
+        /**
+         * Kafka transactions around the records published for one operation
+         */
+        private Transactions transactions = new Transactions();
+
         @Data
         public static class Topics {
             private String warehouseEvents = "warehouse-events";
             private String packageStatus = "package-status";
             private String dispatchEvents = "dispatch-events";
         }
+
+        @Data
+        public static class StatusCoalescing {
+            private boolean enabled = false;
+            private long window = 2000;
+            private long flushInterval = 200;
+        }
+
+        public enum PayloadFormat {
+            /** JSON with type headers */
+            JSON,
+            /** Avro single-object encoding; consumers still accept JSON */
+            AVRO
+        }
+
+        @Data
+        public static class Transactions {
+            private boolean enabled = false;
+
+            /**
+             * Prefix of the producer transactional IDs; must be unique per instance
+             */
+            private String transactionIdPrefix = "wms-tx-";
+        }
     }
 }
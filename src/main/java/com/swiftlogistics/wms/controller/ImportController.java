@@ -0,0 +1,68 @@
+package com.swiftlogistics.wms.controller;
+
+import com.swiftlogistics.wms.dto.ImportProgress;
+import com.swiftlogistics.wms.service.BulkImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * REST controller for bulk imports of historical orders and events.
+ * Bodies are NDJSON and are streamed, so files larger than memory can be posted.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/wms/imports")
+@RequiredArgsConstructor
+public class ImportController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final BulkImportService bulkImportService;
+
+    /**
+     * Import orders, one OrderDto per line. Posting the same job again resumes after its checkpoint.
+     */
+    @PostMapping(value = "/{jobId}/orders", consumes = NDJSON)
+    public ResponseEntity<List<ImportProgress>> importOrders(@PathVariable String jobId, InputStream body) {
+        return runImport(jobId, BulkImportService.ORDERS, body);
+    }
+
+    /**
+     * Import warehouse events, one WarehouseEventDto per line, in chronological order per package.
+     */
+    @PostMapping(value = "/{jobId}/events", consumes = NDJSON)
+    public ResponseEntity<List<ImportProgress>> importEvents(@PathVariable String jobId, InputStream body) {
+        return runImport(jobId, BulkImportService.EVENTS, body);
+    }
+
+    /**
+     * Get the progress of a job's imports.
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<List<ImportProgress>> getProgress(@PathVariable String jobId) {
+        List<ImportProgress> progress = bulkImportService.getProgress(jobId);
+        return progress.isEmpty() ? ResponseEntity.notFound().build() : ResponseEntity.ok(progress);
+    }
+
+    private ResponseEntity<List<ImportProgress>> runImport(String jobId, String kind, InputStream body) {
+        try {
+            ImportProgress progress = BulkImportService.ORDERS.equals(kind)
+                    ? bulkImportService.importOrders(jobId, body)
+                    : bulkImportService.importEvents(jobId, body);
+            return ResponseEntity.ok(List.of(progress));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(bulkImportService.getProgress(jobId));
+        } catch (Exception e) {
+            log.error("Error importing {} for job {}", kind, jobId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(bulkImportService.getProgress(jobId));
+        }
+    }
+}
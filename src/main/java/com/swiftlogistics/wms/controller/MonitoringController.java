@@ -2,6 +2,7 @@ package com.swiftlogistics.wms.controller;
 
 import com.swiftlogistics.wms.mock.MockWmsServer;
 import com.swiftlogistics.wms.service.KafkaProducerService;
+import com.swiftlogistics.wms.service.PackageStatisticsService;
 import com.swiftlogistics.wms.service.WmsTcpClientService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,6 +27,7 @@ public class MonitoringController {
 
     private final WmsTcpClientService tcpClientService;
     private final KafkaProducerService kafkaProducerService;
+    private final PackageStatisticsService statisticsService;
     
     @Autowired(required = false)
     private MockWmsServer mockWmsServer;
@@ -82,10 +84,28 @@ public class MonitoringController {
         }
         
         status.put("components", components);
+        status.put("wms_endpoints", tcpClientService.getEndpoints().stream()
+                .map(endpoint -> Map.of(
+                        "address", endpoint.toString(),
+                        "warehouses", endpoint.getWarehouses(),
+                        "outstanding", endpoint.getOutstanding(),
+                        "ejected", endpoint.isEjected()))
+                .toList());
 
         return ResponseEntity.ok(status);
     }
 
+    /**
+     * Get live package and event counters.
+     * Served from in-memory counters, so it is cheap enough for dashboards to poll.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStatistics() {
+        Map<String, Object> stats = new HashMap<>(statisticsService.getSnapshot());
+        stats.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(stats);
+    }
+
     /**
      * Test WMS TCP connection.
      */
@@ -1,17 +1,30 @@
 package com.swiftlogistics.wms.controller;
 
+import com.swiftlogistics.wms.config.WmsProperties;
+import com.swiftlogistics.wms.dto.PackageRevision;
+import com.swiftlogistics.wms.exception.IllegalStatusTransitionException;
 import com.swiftlogistics.wms.exception.PackageNotFoundException;
 import com.swiftlogistics.wms.model.Package;
 import com.swiftlogistics.wms.model.PackageStatus;
 import com.swiftlogistics.wms.model.WarehouseEvent;
+import com.swiftlogistics.wms.service.FieldSelectionService;
+import com.swiftlogistics.wms.service.PackageProjectionService;
 import com.swiftlogistics.wms.service.PackageTrackingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * REST controller for package tracking and management operations.
@@ -24,15 +37,60 @@ import java.util.List;
 public class PackageController {
 
     private final PackageTrackingService packageTrackingService;
+    private final FieldSelectionService fieldSelectionService;
+    private final WmsProperties wmsProperties;
+
+    @Autowired(required = false)
+    private PackageProjectionService projectionService;
+
+    /**
+     * List packages by status, customer or carrier.
+     * Active statuses are listed from the read model once it has caught up; everything else from the database.
+     */
+    @GetMapping
+    public ResponseEntity<List<Package>> listPackages(
+            @RequestParam(required = false) PackageStatus status,
+            @RequestParam(required = false) String customerId,
+            @RequestParam(required = false) String carrierId) {
+        if (status == null && customerId == null && carrierId == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            Optional<List<Package>> projected = projectionService != null && status != null
+                    ? projectionService.findByStatus(status) : Optional.empty();
+            if (projected.isPresent()) {
+                return ResponseEntity.ok(projected.get());
+            }
+            return ResponseEntity.ok(packageTrackingService.listPackages(status, customerId, carrierId));
+        } catch (Exception e) {
+            log.error("Error listing packages", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 
     /**
      * Get package details by tracking ID.
+     * Served from the read model when it is enabled and has caught up with the package. Otherwise
+     * the WMS is queried first, and the validator is taken after the query so it describes the
+     * package as returned.
      */
     @GetMapping("/{trackingId}")
-    public ResponseEntity<Package> getPackage(@PathVariable String trackingId) {
+    public ResponseEntity<Package> getPackage(@PathVariable String trackingId, WebRequest request) {
         try {
-            Package packageEntity = packageTrackingService.queryPackageStatus(trackingId);
-            return ResponseEntity.ok(packageEntity);
+            Optional<Package> projected = projectionService != null
+                    ? projectionService.findPackage(trackingId) : Optional.empty();
+            Package packageEntity = projected.isPresent()
+                    ? projected.get() : packageTrackingService.queryPackageStatus(trackingId);
+
+            Optional<PackageRevision> revision = revisionOf(trackingId);
+            if (revision.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            CacheControl cacheControl = cacheControlFor(revision.get());
+            if (request.checkNotModified(revision.get().getTag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+            }
+            return ResponseEntity.ok().eTag(revision.get().getTag()).cacheControl(cacheControl).body(packageEntity);
         } catch (PackageNotFoundException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -41,14 +99,61 @@ public class PackageController {
         }
     }
 
+    /**
+     * Get selected package fields by tracking ID, e.g. {@code ?fields=status,currentLocation}.
+     * Reads only those columns and returns the stored state without querying the WMS.
+     */
+    @GetMapping(value = "/{trackingId}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getPackageFields(
+            @PathVariable String trackingId,
+            @RequestParam List<String> fields,
+            WebRequest request) {
+        try {
+            Optional<PackageRevision> revision = revisionOf(trackingId);
+            if (revision.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            CacheControl cacheControl = cacheControlFor(revision.get());
+            if (request.checkNotModified(revision.get().getTag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+            }
+
+            Optional<Package> projected = projectionService != null
+                    ? projectionService.findPackage(trackingId) : Optional.empty();
+            Map<String, Object> values = projected.isPresent()
+                    ? fieldSelectionService.pick(projected.get(), fields)
+                    : packageTrackingService.getPackageFields(trackingId, fields);
+            return ResponseEntity.ok().eTag(revision.get().getTag()).cacheControl(cacheControl).body(values);
+        } catch (PackageNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error retrieving package fields: {}", trackingId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * Get package tracking history.
      */
     @GetMapping("/{trackingId}/history")
-    public ResponseEntity<List<WarehouseEvent>> getPackageHistory(@PathVariable String trackingId) {
+    public ResponseEntity<List<WarehouseEvent>> getPackageHistory(@PathVariable String trackingId, WebRequest request) {
         try {
-            List<WarehouseEvent> history = packageTrackingService.getPackageHistory(trackingId);
-            return ResponseEntity.ok(history);
+            Optional<PackageRevision> revision = revisionOf(trackingId);
+            if (revision.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            CacheControl cacheControl = cacheControlFor(revision.get());
+            if (request.checkNotModified(revision.get().getTag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+            }
+
+            Optional<List<WarehouseEvent>> projected = projectionService != null
+                    ? projectionService.findHistory(trackingId) : Optional.empty();
+            List<WarehouseEvent> history = projected.isPresent()
+                    ? projected.get() : packageTrackingService.getPackageHistory(trackingId);
+            return ResponseEntity.ok().eTag(revision.get().getTag()).cacheControl(cacheControl).body(history);
         } catch (PackageNotFoundException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -57,6 +162,57 @@ public class PackageController {
         }
     }
 
+    /**
+     * Get selected fields of each event in the package history, e.g. {@code ?fields=newStatus,eventTimestamp}.
+     */
+    @GetMapping(value = "/{trackingId}/history", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getPackageHistoryFields(
+            @PathVariable String trackingId,
+            @RequestParam List<String> fields,
+            WebRequest request) {
+        try {
+            Optional<PackageRevision> revision = revisionOf(trackingId);
+            if (revision.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            CacheControl cacheControl = cacheControlFor(revision.get());
+            if (request.checkNotModified(revision.get().getTag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+            }
+
+            Optional<List<WarehouseEvent>> projected = projectionService != null
+                    ? projectionService.findHistory(trackingId) : Optional.empty();
+            List<Map<String, Object>> values = projected.isPresent()
+                    ? projected.get().stream().map(event -> fieldSelectionService.pick(event, fields)).toList()
+                    : packageTrackingService.getPackageHistoryFields(trackingId, fields);
+            return ResponseEntity.ok().eTag(revision.get().getTag()).cacheControl(cacheControl).body(values);
+        } catch (PackageNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error retrieving package history fields: {}", trackingId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Get package state as it was at a point in time, rebuilt from its event history.
+     */
+    @GetMapping("/{trackingId}/state")
+    public ResponseEntity<Package> getPackageStateAt(
+            @PathVariable String trackingId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        try {
+            return ResponseEntity.ok(packageTrackingService.getPackageStateAt(trackingId, at));
+        } catch (PackageNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("Error rebuilding package state: {}", trackingId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * Manually update package status.
      */
@@ -72,6 +228,8 @@ public class PackageController {
             return ResponseEntity.ok("Package status updated successfully");
         } catch (PackageNotFoundException e) {
             return ResponseEntity.notFound().build();
+        } catch (IllegalStatusTransitionException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             log.error("Error updating package status: {}", trackingId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -92,12 +250,34 @@ public class PackageController {
             return ResponseEntity.ok("Order cancelled successfully");
         } catch (PackageNotFoundException e) {
             return ResponseEntity.notFound().build();
-        } catch (IllegalStateException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStatusTransitionException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             log.error("Error cancelling order: {}", trackingId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Failed to cancel order: " + e.getMessage());
         }
     }
+
+    /**
+     * Revision of the package as the endpoints would serve it: from the read model when it has the package.
+     */
+    private Optional<PackageRevision> revisionOf(String trackingId) {
+        if (projectionService != null) {
+            Optional<PackageRevision> projected = projectionService.findRevision(trackingId);
+            if (projected.isPresent()) {
+                return projected;
+            }
+        }
+        return packageTrackingService.getPackageRevision(trackingId);
+    }
+
+    private CacheControl cacheControlFor(PackageRevision revision) {
+        WmsProperties.HttpCache config = wmsProperties.getHttpCache();
+        long maxAge = revision.getStatus() != null && revision.getStatus().isTerminal()
+                ? config.getTerminalMaxAge() : config.getActiveMaxAge();
+        return maxAge > 0
+                ? CacheControl.maxAge(Duration.ofMillis(maxAge)).cachePrivate()
+                : CacheControl.noCache().cachePrivate();
+    }
 }
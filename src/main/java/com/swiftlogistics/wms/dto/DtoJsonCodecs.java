@@ -0,0 +1,57 @@
+package com.swiftlogistics.wms.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.util.Map;
+
+/**
+ * Type-specific Jackson readers and writers for the payload DTOs, built once from the application's
+ * ObjectMapper. A typed reader or writer has its (de)serializer resolved up front instead of looking
+ * it up on every call, and both are immutable, so one instance serves all threads.
+ */
+public class DtoJsonCodecs {
+
+    private final ObjectMapper objectMapper;
+    private final Map<Class<?>, ObjectReader> readers;
+    private final Map<Class<?>, ObjectWriter> writers;
+
+    public DtoJsonCodecs(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        readers = Map.of(
+                OrderDto.class, objectMapper.readerFor(OrderDto.class),
+                WarehouseEventDto.class, objectMapper.readerFor(WarehouseEventDto.class),
+                PackageStatusDto.class, objectMapper.readerFor(PackageStatusDto.class));
+        writers = Map.of(
+                OrderDto.class, objectMapper.writerFor(OrderDto.class),
+                WarehouseEventDto.class, objectMapper.writerFor(WarehouseEventDto.class),
+                PackageStatusDto.class, objectMapper.writerFor(PackageStatusDto.class));
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    /**
+     * Pre-built reader for a payload DTO type, or null if the type has none.
+     */
+    public ObjectReader reader(Class<?> type) {
+        return readers.get(type);
+    }
+
+    /**
+     * Pre-built writer for a payload DTO type, or null if the type has none.
+     */
+    public ObjectWriter writer(Class<?> type) {
+        return writers.get(type);
+    }
+
+    public ObjectReader orderReader() {
+        return readers.get(OrderDto.class);
+    }
+
+    public ObjectWriter orderWriter() {
+        return writers.get(OrderDto.class);
+    }
+}
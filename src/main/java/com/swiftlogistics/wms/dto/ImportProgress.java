@@ -0,0 +1,44 @@
+package com.swiftlogistics.wms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a bulk import of orders or events.
+ * Line counts are positions in the posted file; {@code checkpoint} is the last line committed,
+ * after which the import resumes when the same job is posted again.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportProgress {
+
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    private String jobId;
+
+    private String kind;
+
+    private Status status;
+
+    private long resumedFrom;
+
+    private long linesRead;
+
+    private long checkpoint;
+
+    private long imported;
+
+    private long skipped;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    private String error;
+}
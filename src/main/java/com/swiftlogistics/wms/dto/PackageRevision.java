@@ -0,0 +1,23 @@
+package com.swiftlogistics.wms.dto;
+
+import com.swiftlogistics.wms.model.PackageStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Validator for conditional GETs of a package and its history.
+ * The tag changes whenever the package row or its event log does, and is cheap to compute
+ * without loading either.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PackageRevision {
+
+    private String tag;
+
+    private PackageStatus status;
+}
@@ -2,6 +2,7 @@ package com.swiftlogistics.wms.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.swiftlogistics.wms.model.EventType;
+import com.swiftlogistics.wms.model.PackageStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -31,6 +32,12 @@ public class WarehouseEventDto {
     @JsonProperty("order_id")
     private String orderId;
 
+    @JsonProperty("previous_status")
+    private PackageStatus previousStatus;
+
+    @JsonProperty("new_status")
+    private PackageStatus newStatus;
+
     @JsonProperty("location")
     private String location;
 
@@ -0,0 +1,32 @@
+package com.swiftlogistics.wms.exception;
+
+import com.swiftlogistics.wms.model.PackageStatus;
+
+/**
+ * Exception thrown when a package is asked to move to a status it cannot reach from its current one.
+ */
+public class IllegalStatusTransitionException extends WmsAdapterException {
+
+    private final String trackingId;
+    private final PackageStatus from;
+    private final PackageStatus to;
+
+    public IllegalStatusTransitionException(String trackingId, PackageStatus from, PackageStatus to) {
+        super("Package " + trackingId + " cannot move from " + from + " to " + to);
+        this.trackingId = trackingId;
+        this.from = from;
+        this.to = to;
+    }
+
+    public String getTrackingId() {
+        return trackingId;
+    }
+
+    public PackageStatus getFrom() {
+        return from;
+    }
+
+    public PackageStatus getTo() {
+        return to;
+    }
+}
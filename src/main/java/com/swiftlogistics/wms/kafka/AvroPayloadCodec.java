@@ -0,0 +1,251 @@
+package com.swiftlogistics.wms.kafka;
+
+import com.swiftlogistics.wms.dto.OrderDto;
+import com.swiftlogistics.wms.dto.PackageStatusDto;
+import com.swiftlogistics.wms.dto.WarehouseEventDto;
+import com.swiftlogistics.wms.model.EventType;
+import com.swiftlogistics.wms.model.PackageStatus;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.message.BinaryMessageDecoder;
+import org.apache.avro.message.BinaryMessageEncoder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+/**
+ * Avro encoding of the Kafka payload DTOs, in Avro's single-object format:
+ *
+ * <pre>
+ * record := C3 01, schema fingerprint (8 bytes, little-endian), Avro binary datum
+ * </pre>
+ *
+ * Field names and type hints are never sent; the fingerprint identifies the writer schema in the
+ * {@link LocalSchemaRegistry}, and records written with an older or newer compatible version are
+ * resolved to the current one. Field names match the JSON property names, enums travel as their
+ * names and timestamps as microseconds since the epoch, so sub-microsecond precision is dropped.
+ */
+public class AvroPayloadCodec {
+
+    private static final String ORDER = "com.swiftlogistics.wms.avro.Order";
+    private static final String WAREHOUSE_EVENT = "com.swiftlogistics.wms.avro.WarehouseEvent";
+    private static final String PACKAGE_STATUS = "com.swiftlogistics.wms.avro.PackageStatus";
+    private static final int HEADER_LENGTH = 10;
+
+    private final LocalSchemaRegistry registry;
+    private final Schema orderSchema;
+    private final Schema warehouseEventSchema;
+    private final Schema packageStatusSchema;
+    private final BinaryMessageEncoder<GenericRecord> orderEncoder;
+    private final BinaryMessageEncoder<GenericRecord> warehouseEventEncoder;
+    private final BinaryMessageEncoder<GenericRecord> packageStatusEncoder;
+    private final Map<String, BinaryMessageDecoder<GenericRecord>> decoders;
+
+    public AvroPayloadCodec(LocalSchemaRegistry registry) {
+        this.registry = registry;
+        orderSchema = required(ORDER);
+        warehouseEventSchema = required(WAREHOUSE_EVENT);
+        packageStatusSchema = required(PACKAGE_STATUS);
+        orderEncoder = new BinaryMessageEncoder<>(GenericData.get(), orderSchema);
+        warehouseEventEncoder = new BinaryMessageEncoder<>(GenericData.get(), warehouseEventSchema);
+        packageStatusEncoder = new BinaryMessageEncoder<>(GenericData.get(), packageStatusSchema);
+        decoders = Map.of(
+                ORDER, new BinaryMessageDecoder<>(GenericData.get(), orderSchema, registry),
+                WAREHOUSE_EVENT, new BinaryMessageDecoder<>(GenericData.get(), warehouseEventSchema, registry),
+                PACKAGE_STATUS, new BinaryMessageDecoder<>(GenericData.get(), packageStatusSchema, registry));
+    }
+
+    /**
+     * Whether the value is a payload type with an Avro schema.
+     */
+    public boolean supports(Object value) {
+        return value instanceof OrderDto || value instanceof WarehouseEventDto || value instanceof PackageStatusDto;
+    }
+
+    /**
+     * Whether the bytes start with the single-object header, which JSON never does.
+     */
+    public static boolean isAvro(byte[] data) {
+        return data != null && data.length >= HEADER_LENGTH && data[0] == (byte) 0xC3 && data[1] == (byte) 0x01;
+    }
+
+    public byte[] encode(Object value) throws IOException {
+        ByteBuffer encoded;
+        if (value instanceof OrderDto order) {
+            encoded = orderEncoder.encode(toRecord(order));
+        } else if (value instanceof WarehouseEventDto event) {
+            encoded = warehouseEventEncoder.encode(toRecord(event));
+        } else if (value instanceof PackageStatusDto status) {
+            encoded = packageStatusEncoder.encode(toRecord(status));
+        } else {
+            throw new IllegalArgumentException("No Avro schema for " + value.getClass().getName());
+        }
+        byte[] bytes = new byte[encoded.remaining()];
+        encoded.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Decode a single-object encoded payload into its DTO.
+     *
+     * @throws IOException if the payload is malformed or written with an unregistered schema
+     */
+    public Object decode(byte[] data) throws IOException {
+        if (!isAvro(data)) {
+            throw new IOException("Not a single-object encoded Avro record");
+        }
+        long fingerprint = ByteBuffer.wrap(data, 2, 8).order(ByteOrder.LITTLE_ENDIAN).getLong();
+        Schema writer = registry.findByFingerprint(fingerprint);
+        if (writer == null) {
+            throw new IOException("Unknown Avro schema fingerprint " + fingerprint);
+        }
+        BinaryMessageDecoder<GenericRecord> decoder = decoders.get(writer.getFullName());
+        if (decoder == null) {
+            throw new IOException("No payload type for Avro record " + writer.getFullName());
+        }
+        GenericRecord record = decoder.decode(data);
+        return switch (writer.getFullName()) {
+            case ORDER -> toOrder(record);
+            case WAREHOUSE_EVENT -> toWarehouseEvent(record);
+            default -> toPackageStatus(record);
+        };
+    }
+
+    private GenericRecord toRecord(OrderDto order) {
+        GenericRecord record = new GenericData.Record(orderSchema);
+        record.put("order_id", order.getOrderId());
+        record.put("tracking_id", order.getTrackingId());
+        record.put("customer_id", order.getCustomerId());
+        record.put("origin", order.getOrigin());
+        record.put("destination", order.getDestination());
+        record.put("weight", order.getWeight());
+        record.put("dimensions", order.getDimensions());
+        record.put("priority", order.getPriority());
+        record.put("service_type", order.getServiceType());
+        record.put("expected_delivery_date", micros(order.getExpectedDeliveryDate()));
+        record.put("special_instructions", order.getSpecialInstructions());
+        record.put("created_at", micros(order.getCreatedAt()));
+        record.put("metadata", order.getMetadata());
+        return record;
+    }
+
+    private OrderDto toOrder(GenericRecord record) {
+        return OrderDto.builder()
+                .orderId(string(record, "order_id"))
+                .trackingId(string(record, "tracking_id"))
+                .customerId(string(record, "customer_id"))
+                .origin(string(record, "origin"))
+                .destination(string(record, "destination"))
+                .weight((Double) record.get("weight"))
+                .dimensions(string(record, "dimensions"))
+                .priority(string(record, "priority"))
+                .serviceType(string(record, "service_type"))
+                .expectedDeliveryDate(timestamp(record, "expected_delivery_date"))
+                .specialInstructions(string(record, "special_instructions"))
+                .createdAt(timestamp(record, "created_at"))
+                .metadata(string(record, "metadata"))
+                .build();
+    }
+
+    private GenericRecord toRecord(WarehouseEventDto event) {
+        GenericRecord record = new GenericData.Record(warehouseEventSchema);
+        record.put("event_id", event.getEventId());
+        record.put("event_type", name(event.getEventType()));
+        record.put("tracking_id", event.getTrackingId());
+        record.put("order_id", event.getOrderId());
+        record.put("previous_status", name(event.getPreviousStatus()));
+        record.put("new_status", name(event.getNewStatus()));
+        record.put("location", event.getLocation());
+        record.put("description", event.getDescription());
+        record.put("timestamp", micros(event.getTimestamp()));
+        record.put("source", event.getSource());
+        record.put("metadata", event.getMetadata());
+        return record;
+    }
+
+    private WarehouseEventDto toWarehouseEvent(GenericRecord record) {
+        String eventType = string(record, "event_type");
+        return WarehouseEventDto.builder()
+                .eventId(string(record, "event_id"))
+                .eventType(eventType != null ? EventType.valueOf(eventType) : null)
+                .trackingId(string(record, "tracking_id"))
+                .orderId(string(record, "order_id"))
+                .previousStatus(status(record, "previous_status"))
+                .newStatus(status(record, "new_status"))
+                .location(string(record, "location"))
+                .description(string(record, "description"))
+                .timestamp(timestamp(record, "timestamp"))
+                .source(string(record, "source"))
+                .metadata(string(record, "metadata"))
+                .build();
+    }
+
+    private GenericRecord toRecord(PackageStatusDto status) {
+        GenericRecord record = new GenericData.Record(packageStatusSchema);
+        record.put("tracking_id", status.getTrackingId());
+        record.put("order_id", status.getOrderId());
+        record.put("status", name(status.getStatus()));
+        record.put("previous_status", name(status.getPreviousStatus()));
+        record.put("location", status.getLocation());
+        record.put("carrier_id", status.getCarrierId());
+        record.put("estimated_delivery", micros(status.getEstimatedDelivery()));
+        record.put("actual_delivery", micros(status.getActualDelivery()));
+        record.put("timestamp", micros(status.getTimestamp()));
+        record.put("notes", status.getNotes());
+        record.put("source", status.getSource());
+        return record;
+    }
+
+    private PackageStatusDto toPackageStatus(GenericRecord record) {
+        return PackageStatusDto.builder()
+                .trackingId(string(record, "tracking_id"))
+                .orderId(string(record, "order_id"))
+                .status(status(record, "status"))
+                .previousStatus(status(record, "previous_status"))
+                .location(string(record, "location"))
+                .carrierId(string(record, "carrier_id"))
+                .estimatedDelivery(timestamp(record, "estimated_delivery"))
+                .actualDelivery(timestamp(record, "actual_delivery"))
+                .timestamp(timestamp(record, "timestamp"))
+                .notes(string(record, "notes"))
+                .source(string(record, "source"))
+                .build();
+    }
+
+    private Schema required(String fullName) {
+        Schema schema = registry.getCurrent(fullName);
+        if (schema == null) {
+            throw new IllegalStateException("Missing Avro schema " + fullName);
+        }
+        return schema;
+    }
+
+    private static String string(GenericRecord record, String field) {
+        Object value = record.get(field);
+        return value != null ? value.toString() : null;
+    }
+
+    private static PackageStatus status(GenericRecord record, String field) {
+        String value = string(record, field);
+        return value != null ? PackageStatus.valueOf(value) : null;
+    }
+
+    private static String name(Enum<?> value) {
+        return value != null ? value.name() : null;
+    }
+
+    private static Long micros(LocalDateTime time) {
+        return time != null ? time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000 : null;
+    }
+
+    private static LocalDateTime timestamp(GenericRecord record, String field) {
+        Long micros = (Long) record.get(field);
+        return micros != null ? LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC) : null;
+    }
+}
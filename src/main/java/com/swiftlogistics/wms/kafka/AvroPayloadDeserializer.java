@@ -0,0 +1,52 @@
+package com.swiftlogistics.wms.kafka;
+
+import com.swiftlogistics.wms.dto.DtoJsonCodecs;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Kafka value deserializer reading Avro single-object records into the payload DTOs and falling
+ * back to JSON for everything else, so topics can move to Avro one producer at a time.
+ */
+public class AvroPayloadDeserializer implements Deserializer<Object> {
+
+    private final AvroPayloadCodec codec;
+    private final JsonPayloadDeserializer jsonDeserializer;
+
+    public AvroPayloadDeserializer(AvroPayloadCodec codec, DtoJsonCodecs jsonCodecs) {
+        this.codec = codec;
+        this.jsonDeserializer = new JsonPayloadDeserializer(jsonCodecs);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonDeserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (!AvroPayloadCodec.isAvro(data)) {
+            return headers != null ? jsonDeserializer.deserialize(topic, headers, data)
+                    : jsonDeserializer.deserialize(topic, data);
+        }
+        try {
+            return codec.decode(data);
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Failed to read Avro record from " + topic, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+}
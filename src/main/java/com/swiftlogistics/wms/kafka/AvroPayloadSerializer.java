@@ -0,0 +1,51 @@
+package com.swiftlogistics.wms.kafka;
+
+import com.swiftlogistics.wms.dto.DtoJsonCodecs;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Kafka value serializer writing the payload DTOs as Avro and anything else as JSON.
+ * Avro records carry no type headers; their schema fingerprint identifies them.
+ */
+public class AvroPayloadSerializer implements Serializer<Object> {
+
+    private final AvroPayloadCodec codec;
+    private final JsonPayloadSerializer jsonSerializer;
+
+    public AvroPayloadSerializer(AvroPayloadCodec codec, DtoJsonCodecs jsonCodecs) {
+        this.codec = codec;
+        this.jsonSerializer = new JsonPayloadSerializer(jsonCodecs);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonSerializer.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return serialize(topic, null, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (data == null || !codec.supports(data)) {
+            return headers != null ? jsonSerializer.serialize(topic, headers, data) : jsonSerializer.serialize(topic, data);
+        }
+        try {
+            return codec.encode(data);
+        } catch (IOException e) {
+            throw new SerializationException("Failed to write " + data.getClass().getSimpleName() + " as Avro", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        jsonSerializer.close();
+    }
+}
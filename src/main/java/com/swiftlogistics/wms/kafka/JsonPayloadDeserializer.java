@@ -0,0 +1,43 @@
+package com.swiftlogistics.wms.kafka;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.swiftlogistics.wms.dto.DtoJsonCodecs;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Kafka value deserializer reading records whose type header names a payload DTO with its
+ * pre-built reader, and anything else through the application's ObjectMapper as
+ * {@link JsonDeserializer} does. Type headers are removed once read.
+ */
+public class JsonPayloadDeserializer extends JsonDeserializer<Object> {
+
+    private final DtoJsonCodecs codecs;
+
+    public JsonPayloadDeserializer(DtoJsonCodecs codecs) {
+        super(codecs.getObjectMapper());
+        this.codecs = codecs;
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null || headers == null) {
+            return super.deserialize(topic, data);
+        }
+        JavaType type = typeMapper.toJavaType(headers);
+        ObjectReader reader = type != null ? codecs.reader(type.getRawClass()) : null;
+        if (reader == null) {
+            return super.deserialize(topic, headers, data);
+        }
+        typeMapper.removeHeaders(headers);
+        try {
+            return reader.readValue(data);
+        } catch (IOException e) {
+            throw new SerializationException("Can't deserialize data from topic [" + topic + "]", e);
+        }
+    }
+}
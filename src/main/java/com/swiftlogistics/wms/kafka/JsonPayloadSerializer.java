@@ -0,0 +1,49 @@
+package com.swiftlogistics.wms.kafka;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.swiftlogistics.wms.dto.DtoJsonCodecs;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.io.IOException;
+
+/**
+ * Kafka value serializer writing the payload DTOs with their pre-built writers and anything else
+ * through the application's ObjectMapper. Type headers are added as by {@link JsonSerializer}.
+ */
+public class JsonPayloadSerializer extends JsonSerializer<Object> {
+
+    private final DtoJsonCodecs codecs;
+
+    public JsonPayloadSerializer(DtoJsonCodecs codecs) {
+        super(codecs.getObjectMapper());
+        this.codecs = codecs;
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        ObjectWriter writer = data != null ? codecs.writer(data.getClass()) : null;
+        return writer != null ? write(topic, writer, data) : super.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        ObjectWriter writer = data != null ? codecs.writer(data.getClass()) : null;
+        if (writer == null) {
+            return super.serialize(topic, headers, data);
+        }
+        if (headers != null && addTypeInfo) {
+            typeMapper.fromJavaType(objectMapper.constructType(data.getClass()), headers);
+        }
+        return write(topic, writer, data);
+    }
+
+    private byte[] write(String topic, ObjectWriter writer, Object data) {
+        try {
+            return writer.writeValueAsBytes(data);
+        } catch (IOException e) {
+            throw new SerializationException("Can't serialize data [" + data + "] for topic [" + topic + "]", e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.swiftlogistics.wms.kafka;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaCompatibility;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.message.SchemaStore;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process stand-in for a schema registry, holding the Avro schemas of Kafka payloads by their
+ * 64-bit parsing fingerprint, the ID carried in every single-object encoded record.
+ * <p>
+ * Bundled schemas are loaded from {@code classpath*:avro/*.avsc} as the current version of each
+ * record, and from {@code classpath*:avro/history/*.avsc} as earlier versions still to be decoded.
+ * A writer version is accepted only if the current version of its record can read it, so producers
+ * may add or drop fields with defaults; new versions must reach consumers before producers.
+ */
+@Slf4j
+public class LocalSchemaRegistry implements SchemaStore {
+
+    private final SchemaStore.Cache schemas = new SchemaStore.Cache();
+    private final Map<String, Schema> current = new ConcurrentHashMap<>();
+
+    /**
+     * Registry holding the schemas bundled with the application.
+     */
+    public static LocalSchemaRegistry bundled() {
+        LocalSchemaRegistry registry = new LocalSchemaRegistry();
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        try {
+            for (Resource resource : resolver.getResources("classpath*:avro/*.avsc")) {
+                registry.registerCurrent(parse(resource));
+            }
+            for (Resource resource : resolver.getResources("classpath*:avro/history/*.avsc")) {
+                registry.register(parse(resource));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load bundled Avro schemas", e);
+        }
+        return registry;
+    }
+
+    /**
+     * Make a schema the version its record is written and read with.
+     */
+    public void registerCurrent(Schema schema) {
+        current.put(schema.getFullName(), schema);
+        schemas.addSchema(schema);
+        log.debug("Registered current schema {} ({})", schema.getFullName(), fingerprint(schema));
+    }
+
+    /**
+     * Register another writer version of a record.
+     *
+     * @throws IllegalArgumentException if the record is unknown or its current version cannot read this one
+     */
+    public void register(Schema schema) {
+        Schema reader = current.get(schema.getFullName());
+        if (reader == null) {
+            throw new IllegalArgumentException("No current schema for " + schema.getFullName());
+        }
+        SchemaCompatibility.SchemaPairCompatibility compatibility =
+                SchemaCompatibility.checkReaderWriterCompatibility(reader, schema);
+        if (compatibility.getType() != SchemaCompatibility.SchemaCompatibilityType.COMPATIBLE) {
+            throw new IllegalArgumentException("Schema " + schema.getFullName() + " (" + fingerprint(schema)
+                    + ") cannot be read by the current version: " + compatibility.getDescription());
+        }
+        schemas.addSchema(schema);
+        log.debug("Registered schema {} ({})", schema.getFullName(), fingerprint(schema));
+    }
+
+    /**
+     * Current version of a record, or null if it is unknown.
+     */
+    public Schema getCurrent(String fullName) {
+        return current.get(fullName);
+    }
+
+    @Override
+    public Schema findByFingerprint(long fingerprint) {
+        return schemas.findByFingerprint(fingerprint);
+    }
+
+    public static long fingerprint(Schema schema) {
+        return SchemaNormalization.parsingFingerprint64(schema);
+    }
+
+    private static Schema parse(Resource resource) throws IOException {
+        try (InputStream input = resource.getInputStream()) {
+            return new Schema.Parser().parse(input);
+        }
+    }
+}
@@ -1,21 +1,28 @@
 package com.swiftlogistics.wms.mock;
 
+import com.swiftlogistics.wms.dto.OrderDto;
 import com.swiftlogistics.wms.dto.WmsTcpMessage;
+import com.swiftlogistics.wms.protocol.CompactOrderCodec;
+import com.swiftlogistics.wms.protocol.PayloadEncoding;
+import com.swiftlogistics.wms.protocol.WmsConnection;
+import com.swiftlogistics.wms.protocol.WmsFraming;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
-import java.io.*;
+import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Mock WMS TCP Server that simulates warehouse management system behavior.
@@ -35,6 +42,10 @@ public class MockWmsServer {
     // Simulate package storage
     private final ConcurrentHashMap<String, MockPackage> packages = new ConcurrentHashMap<>();
 
+    // Connections that subscribed to unsolicited STATUS pushes
+    private final Set<WmsConnection> statusSubscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong pushSequence = new AtomicLong(1);
+
     @PostConstruct
     public void startServer() {
         try {
@@ -84,42 +95,58 @@ public class MockWmsServer {
     }
 
     private void handleClient(Socket clientSocket) {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
-             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(clientSocket.getOutputStream()))) {
+        boolean subscribed = false;
+        WmsConnection connection = null;
+        try {
+            connection = WmsConnection.accept(clientSocket);
+            log.debug("Client {} using {} framing", clientSocket.getRemoteSocketAddress(), connection.getFraming());
 
-            String request;
-            while ((request = reader.readLine()) != null) {
-                log.debug("Received TCP message: {}", request);
+            while (true) {
+                WmsTcpMessage requestMessage;
+                try {
+                    requestMessage = connection.receive();
+                } catch (IllegalArgumentException e) {
+                    log.error("Error parsing message: {}", e.getMessage());
+                    connection.send(createErrorResponse(new WmsTcpMessage(), "Invalid message format: " + e.getMessage()));
+                    continue;
+                }
+                if (requestMessage == null) {
+                    break;
+                }
+                log.debug("Received TCP message: {}", requestMessage);
                 
                 try {
-                    WmsTcpMessage requestMessage = WmsTcpMessage.fromTcpString(request);
-                    WmsTcpMessage response = processMessage(requestMessage);
-                    
-                    String responseString = response.toTcpString();
-                    log.debug("Sending TCP response: {}", responseString);
+                    WmsTcpMessage response;
+                    if ("SUBSCRIBE".equalsIgnoreCase(requestMessage.getMessageType())) {
+                        response = handleSubscribeMessage(requestMessage, connection);
+                        subscribed = true;
+                    } else {
+                        response = processMessage(requestMessage);
+                    }
                     
-                    writer.write(responseString);
-                    writer.newLine();
-                    writer.flush();
+                    log.debug("Sending TCP response: {}", response);
+                    connection.send(response);
                     
+                } catch (IOException e) {
+                    throw e;
                 } catch (Exception e) {
-                    log.error("Error processing message: {}", request, e);
-                    
-                    // Send error response
-                    WmsTcpMessage errorResponse = WmsTcpMessage.builder()
-                            .messageType("ERROR")
-                            .data("Invalid message format: " + e.getMessage())
-                            .timestamp(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
-                            .build();
-                    
-                    writer.write(errorResponse.toTcpString());
-                    writer.newLine();
-                    writer.flush();
+                    log.error("Error processing message: {}", requestMessage, e);
+                    connection.send(createErrorResponse(requestMessage, "Invalid message format: " + e.getMessage()));
                 }
             }
             
         } catch (IOException e) {
             log.debug("Client connection closed: {}", e.getMessage());
+        } finally {
+            if (subscribed) {
+                statusSubscribers.remove(connection);
+                log.info("Status push subscriber disconnected: {}", clientSocket.getRemoteSocketAddress());
+            }
+            try {
+                clientSocket.close();
+            } catch (IOException ignored) {
+                // already closed
+            }
         }
     }
 
@@ -136,6 +163,8 @@ public class MockWmsServer {
                 return handleQueryMessage(request);
             case "PING":
                 return handlePingMessage(request);
+            case "NEGOTIATE":
+                return handleNegotiateMessage(request);
             default:
                 return createErrorResponse(request, "Unknown message type: " + messageType);
         }
@@ -157,6 +186,15 @@ public class MockWmsServer {
     private WmsTcpMessage handleOrderCreation(WmsTcpMessage request) {
         String trackingId = request.getTrackingId();
         String orderId = request.getOrderId();
+
+        if (CompactOrderCodec.isCompact(request.getData())) {
+            try {
+                OrderDto order = CompactOrderCodec.decode(request.getData());
+                log.debug("Decoded compact order payload for {} to {}", order.getOrderId(), order.getDestination());
+            } catch (IllegalArgumentException e) {
+                return createErrorResponse(request, e.getMessage());
+            }
+        }
         
         // Simulate order processing
         MockPackage mockPackage = MockPackage.builder()
@@ -193,8 +231,10 @@ public class MockWmsServer {
             return createErrorResponse(request, "Package not found: " + trackingId);
         }
         
-        mockPackage.setStatus("CANCELLED");
+        // Cancelled packages end up FAILED, the same status the adapter records for a cancellation
+        mockPackage.setStatus("FAILED");
         log.info("Cancelled package: {}", trackingId);
+        pushStatus(mockPackage);
         
         return WmsTcpMessage.builder()
                 .messageType("ACK")
@@ -227,6 +267,54 @@ public class MockWmsServer {
                 .build();
     }
 
+    private WmsTcpMessage handleSubscribeMessage(WmsTcpMessage request, WmsConnection connection) {
+        if (!"STATUS".equalsIgnoreCase(request.getOperation())) {
+            return createErrorResponse(request, "Unknown subscription: " + request.getOperation());
+        }
+
+        statusSubscribers.add(connection);
+        log.info("Registered status push subscriber, {} active", statusSubscribers.size());
+
+        return WmsTcpMessage.builder()
+                .messageType("ACK")
+                .sequenceNumber(request.getSequenceNumber())
+                .operation("SUBSCRIBE")
+                .data("Subscribed to status pushes")
+                .timestamp(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                .build();
+    }
+
+    /**
+     * Accept any framing or payload encoding the server understands. The client switches framing
+     * on its next connection; framing is detected per connection and payloads are self-describing.
+     */
+    private WmsTcpMessage handleNegotiateMessage(WmsTcpMessage request) {
+        String option = String.valueOf(request.getOperation()).toUpperCase();
+        String requested = String.valueOf(request.getStatus()).toUpperCase();
+        try {
+            switch (option) {
+                case "FRAMING":
+                    requested = WmsFraming.valueOf(requested).name();
+                    break;
+                case "PAYLOAD":
+                    requested = PayloadEncoding.valueOf(requested).name();
+                    break;
+                default:
+                    return createErrorResponse(request, "Unknown negotiation option: " + request.getOperation());
+            }
+        } catch (IllegalArgumentException e) {
+            return createErrorResponse(request, "Unsupported " + option + ": " + request.getStatus());
+        }
+
+        return WmsTcpMessage.builder()
+                .messageType("ACK")
+                .sequenceNumber(request.getSequenceNumber())
+                .operation(option)
+                .status(requested)
+                .timestamp(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                .build();
+    }
+
     private WmsTcpMessage handlePingMessage(WmsTcpMessage request) {
         return WmsTcpMessage.builder()
                 .messageType("PONG")
@@ -260,18 +348,22 @@ public class MockWmsServer {
                 Thread.sleep(2000); // Initial processing
                 mockPackage.setStatus("PICKED");
                 log.info("Package {} status updated to PICKED", trackingId);
+                pushStatus(mockPackage);
                 
                 Thread.sleep(3000); // Packing
                 mockPackage.setStatus("PACKED");
                 log.info("Package {} status updated to PACKED", trackingId);
+                pushStatus(mockPackage);
                 
                 Thread.sleep(5000); // Shipping
                 mockPackage.setStatus("SHIPPED");
                 log.info("Package {} status updated to SHIPPED", trackingId);
+                pushStatus(mockPackage);
                 
                 Thread.sleep(10000); // Delivery
                 mockPackage.setStatus("DELIVERED");
                 log.info("Package {} status updated to DELIVERED", trackingId);
+                pushStatus(mockPackage);
                 
             } catch (InterruptedException e) {
                 log.debug("Package processing simulation interrupted for {}", trackingId);
@@ -280,6 +372,35 @@ public class MockWmsServer {
         });
     }
 
+    /**
+     * Push an unsolicited STATUS message for a package transition to every subscriber.
+     */
+    private void pushStatus(MockPackage mockPackage) {
+        if (statusSubscribers.isEmpty()) {
+            return;
+        }
+
+        WmsTcpMessage push = WmsTcpMessage.builder()
+                .messageType("STATUS")
+                .sequenceNumber(String.valueOf(pushSequence.getAndIncrement()))
+                .trackingId(mockPackage.getTrackingId())
+                .orderId(mockPackage.getOrderId())
+                .operation("PUSH")
+                .status(mockPackage.getStatus())
+                .location(mockPackage.getLocation())
+                .timestamp(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                .build();
+
+        for (WmsConnection subscriber : statusSubscribers) {
+            try {
+                subscriber.send(push);
+            } catch (IOException e) {
+                log.debug("Dropping status push subscriber: {}", e.getMessage());
+                statusSubscribers.remove(subscriber);
+            }
+        }
+    }
+
     public boolean isRunning() {
         return running.get() && serverSocket != null && !serverSocket.isClosed();
     }
@@ -0,0 +1,56 @@
+package com.swiftlogistics.wms.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA Entity indexing archived warehouse events: one row per package and archive file holding
+ * some of its events, so a history lookup only opens the files that contain the package.
+ */
+@Entity
+@Table(name = "archived_event_files",
+       indexes = @Index(name = "idx_archived_event_files_tracking_id", columnList = "tracking_id"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedEventFile {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Tracking ID of the package whose events are in the file
+     */
+    @Column(name = "tracking_id", nullable = false)
+    private String trackingId;
+
+    /**
+     * Name of the archive file, relative to the archive directory
+     */
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    /**
+     * Number of the package's events in the file
+     */
+    @Column(name = "event_count", nullable = false)
+    private Integer eventCount;
+
+    /**
+     * Timestamp when the events were archived
+     */
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        archivedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,69 @@
+package com.swiftlogistics.wms.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA Entity holding the state of a package folded from its warehouse events up to a given event.
+ * Snapshots are only ever inserted; current state is the latest snapshot plus the events after it.
+ */
+@Entity
+@Table(name = "package_snapshots",
+       indexes = @Index(name = "idx_package_snapshots_tracking_event", columnList = "tracking_id, last_event_id"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PackageSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Tracking ID of the package this snapshot describes
+     */
+    @Column(name = "tracking_id", nullable = false)
+    private String trackingId;
+
+    /**
+     * ID of the last warehouse event folded into this snapshot
+     */
+    @Column(name = "last_event_id", nullable = false)
+    private Long lastEventId;
+
+    /**
+     * Timestamp of the last warehouse event folded into this snapshot
+     */
+    @Column(name = "state_at", nullable = false)
+    private LocalDateTime stateAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private PackageStatus status;
+
+    @Column(name = "current_location")
+    private String currentLocation;
+
+    @Column(name = "actual_delivery_date")
+    private LocalDateTime actualDeliveryDate;
+
+    @Column(name = "notes", columnDefinition = "TEXT")
+    private String notes;
+
+    /**
+     * Timestamp when the snapshot was taken
+     */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -43,5 +43,41 @@ public enum PackageStatus {
     /**
      * Package has been returned to the warehouse
      */
-    RETURNED
+    RETURNED;
+
+    /**
+     * Bitmask of the statuses each status may move to, indexed by ordinal. Packages only move forward
+     * through the warehouse, possibly skipping steps; a status may repeat while the package is open so
+     * location and notes can be updated.
+     */
+    private static final int[] ALLOWED_TRANSITIONS = new int[values().length];
+
+    static {
+        allow(RECEIVED, RECEIVED, PROCESSING, PICKED, PACKED, SHIPPED, DELIVERED, FAILED);
+        allow(PROCESSING, PROCESSING, PICKED, PACKED, SHIPPED, DELIVERED, FAILED);
+        allow(PICKED, PICKED, PACKED, SHIPPED, DELIVERED, FAILED);
+        allow(PACKED, PACKED, SHIPPED, DELIVERED, FAILED);
+        allow(SHIPPED, SHIPPED, DELIVERED, RETURNED);
+        // DELIVERED, FAILED and RETURNED are final; see isTerminal()
+    }
+
+    private static void allow(PackageStatus from, PackageStatus... to) {
+        for (PackageStatus status : to) {
+            ALLOWED_TRANSITIONS[from.ordinal()] |= 1 << status.ordinal();
+        }
+    }
+
+    /**
+     * Whether a package in this status may move to the given one.
+     */
+    public boolean canTransitionTo(PackageStatus next) {
+        return (ALLOWED_TRANSITIONS[ordinal()] & (1 << next.ordinal())) != 0;
+    }
+
+    /**
+     * Whether the package has left the warehouse flow for good and its state no longer changes.
+     */
+    public boolean isTerminal() {
+        return this == DELIVERED || this == FAILED || this == RETURNED;
+    }
 }
@@ -0,0 +1,47 @@
+package com.swiftlogistics.wms.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA Entity recording how far a long-running background job has progressed,
+ * so that it can resume from the same position after a restart.
+ */
+@Entity
+@Table(name = "processing_checkpoints")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessingCheckpoint {
+
+    /**
+     * Name of the job owning this checkpoint
+     */
+    @Id
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    /**
+     * Last position processed by the job (e.g. the last package ID)
+     */
+    @Column(name = "last_position", nullable = false)
+    private Long position;
+
+    /**
+     * Timestamp when the checkpoint was last written
+     */
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        updatedAt = LocalDateTime.now();
+    }
+}
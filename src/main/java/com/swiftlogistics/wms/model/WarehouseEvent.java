@@ -13,7 +13,8 @@ import java.time.LocalDateTime;
  * This provides an audit trail of all package and order related activities.
  */
 @Entity
-@Table(name = "warehouse_events")
+@Table(name = "warehouse_events",
+       indexes = @Index(name = "idx_warehouse_events_tracking_id", columnList = "tracking_id, id"))
 @Data
 @Builder
 @NoArgsConstructor
@@ -0,0 +1,201 @@
+package com.swiftlogistics.wms.protocol;
+
+import com.swiftlogistics.wms.dto.WmsTcpMessage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousChannelGroup;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking request/response transport for the WMS protocol.
+ * Each exchange connects, writes one request and reads one response on a small I/O event loop,
+ * completing a future instead of holding a thread for the round trip. A shared timer thread
+ * enforces exchange deadlines and runs delayed tasks such as retry backoff.
+ */
+public class AsyncWmsTransport implements Closeable {
+
+    private static final int READ_BUFFER_SIZE = 4096;
+
+    private final AsynchronousChannelGroup channelGroup;
+    private final ScheduledExecutorService timer;
+
+    public AsyncWmsTransport(int ioThreads) throws IOException {
+        AtomicInteger ioThreadCount = new AtomicInteger();
+        this.channelGroup = AsynchronousChannelGroup.withFixedThreadPool(ioThreads, runnable -> {
+            Thread thread = new Thread(runnable, "WMS-IO-" + ioThreadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "WMS-Timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Send a request and complete with the first response frame, failing with an IOException
+     * (or TimeoutException after the deadline) without blocking the caller.
+     */
+    public CompletableFuture<WmsTcpMessage> exchange(InetSocketAddress address, WmsFraming framing,
+                                                     WmsTcpMessage request, long timeoutMillis) {
+        CompletableFuture<WmsTcpMessage> response = new CompletableFuture<>();
+        WmsMessageCodec codec = WmsMessageCodec.forFraming(framing);
+
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(256);
+        AsynchronousSocketChannel channel;
+        try {
+            codec.write(encoded, request);
+            channel = AsynchronousSocketChannel.open(channelGroup);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        } catch (IOException e) {
+            response.completeExceptionally(e);
+            return response;
+        }
+
+        Exchange exchange = new Exchange(channel, codec, ByteBuffer.wrap(encoded.toByteArray()), response);
+        ScheduledFuture<?> deadline = timer.schedule(
+                () -> exchange.fail(new TimeoutException("No response from WMS within " + timeoutMillis + " ms")),
+                timeoutMillis, TimeUnit.MILLISECONDS);
+        response.whenComplete((message, error) -> {
+            deadline.cancel(false);
+            exchange.close();
+        });
+
+        channel.connect(address, null, exchange.onConnect);
+        return response;
+    }
+
+    /**
+     * Run a task on the timer thread after a delay.
+     */
+    public void schedule(Runnable task, long delayMillis) {
+        timer.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+        channelGroup.shutdown();
+    }
+
+    /**
+     * State of one in-flight request: connect, write the request fully, then read until a complete frame arrives.
+     */
+    private static final class Exchange {
+
+        private final AsynchronousSocketChannel channel;
+        private final WmsMessageCodec codec;
+        private final ByteBuffer request;
+        private final CompletableFuture<WmsTcpMessage> response;
+        private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        private byte[] received = new byte[READ_BUFFER_SIZE];
+        private int receivedLength;
+
+        private final CompletionHandler<Void, Void> onConnect = new CompletionHandler<>() {
+            @Override
+            public void completed(Void result, Void attachment) {
+                channel.write(request, null, onWrite);
+            }
+
+            @Override
+            public void failed(Throwable error, Void attachment) {
+                fail(error);
+            }
+        };
+
+        private final CompletionHandler<Integer, Void> onWrite = new CompletionHandler<>() {
+            @Override
+            public void completed(Integer written, Void attachment) {
+                if (request.hasRemaining()) {
+                    channel.write(request, null, this);
+                } else {
+                    channel.read(readBuffer, null, onRead);
+                }
+            }
+
+            @Override
+            public void failed(Throwable error, Void attachment) {
+                fail(error);
+            }
+        };
+
+        private final CompletionHandler<Integer, Void> onRead = new CompletionHandler<>() {
+            @Override
+            public void completed(Integer read, Void attachment) {
+                if (read < 0) {
+                    fail(new IOException("WMS closed the connection without a response"));
+                    return;
+                }
+                append();
+                int frameLength = codec.frameLength(received, receivedLength);
+                if (frameLength < 0) {
+                    if (receivedLength > BinaryWmsMessageCodec.MAX_FRAME_LENGTH) {
+                        fail(new ProtocolException("WMS response exceeds " + BinaryWmsMessageCodec.MAX_FRAME_LENGTH + " bytes"));
+                        return;
+                    }
+                    channel.read(readBuffer, null, this);
+                    return;
+                }
+
+                try {
+                    response.complete(codec.read(new ByteArrayInputStream(received, 0, frameLength)));
+                } catch (IOException | RuntimeException e) {
+                    fail(e);
+                }
+            }
+
+            @Override
+            public void failed(Throwable error, Void attachment) {
+                fail(error);
+            }
+        };
+
+        Exchange(AsynchronousSocketChannel channel, WmsMessageCodec codec, ByteBuffer request,
+                 CompletableFuture<WmsTcpMessage> response) {
+            this.channel = channel;
+            this.codec = codec;
+            this.request = request;
+            this.response = response;
+        }
+
+        private void append() {
+            readBuffer.flip();
+            int count = readBuffer.remaining();
+            if (receivedLength + count > received.length) {
+                received = Arrays.copyOf(received, Math.max(received.length * 2, receivedLength + count));
+            }
+            readBuffer.get(received, receivedLength, count);
+            receivedLength += count;
+            readBuffer.clear();
+        }
+
+        void fail(Throwable error) {
+            response.completeExceptionally(error);
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // nothing useful to do
+            }
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.swiftlogistics.wms.protocol;
+
+import com.swiftlogistics.wms.dto.WmsTcpMessage;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codec for length-prefixed binary frames.
+ *
+ * <pre>
+ * frame   := magic(1) version(1) length(4) body
+ * body    := messageType(1) operation(1) status(1) flags(1) sequence(8)
+ *            [literal messageType] [literal operation] [literal status] [literal sequence]
+ *            trackingId orderId location timestamp payload
+ * string  := length(2) UTF-8 bytes, length 0xFFFF meaning absent
+ * payload := length(4) raw bytes, length -1 meaning absent
+ * </pre>
+ *
+ * Message types, operations and statuses are one-byte codes; values outside the code tables
+ * are sent as literals after the fixed header. Empty and absent fields are kept apart, so a
+ * message decodes to exactly the values it was written with. Payload bytes are never escaped,
+ * so any character is allowed in the data field.
+ */
+public final class BinaryWmsMessageCodec implements WmsMessageCodec {
+
+    /**
+     * First byte of every binary frame. Never a valid first byte of a text line, which lets
+     * a server detect the framing of a connection from its first byte.
+     */
+    public static final int MAGIC = 0xB1;
+    static final int VERSION = 2;
+    static final int MAX_FRAME_LENGTH = 16 * 1024 * 1024;
+
+    static final BinaryWmsMessageCodec INSTANCE = new BinaryWmsMessageCodec();
+
+    private static final int HEADER_LENGTH = 12;
+    private static final int MAX_SHORT_STRING_LENGTH = 0xFFFE;
+    private static final int ABSENT_LENGTH = -1;
+    private static final int ABSENT = 0;
+    private static final int LITERAL = 0xFF;
+    private static final int FLAG_LITERAL_SEQUENCE = 0x01;
+    private static final long NO_SEQUENCE = -1L;
+
+    // Wire codes are list position + 1; only ever append to these tables
+    private static final CodeTable MESSAGE_TYPES = new CodeTable(List.of(
+            "ORDER", "STATUS", "ACK", "ERROR", "QUERY", "PING", "PONG", "SUBSCRIBE", "NEGOTIATE"));
+    private static final CodeTable OPERATIONS = new CodeTable(List.of(
+            "CREATE", "UPDATE", "QUERY", "CANCEL", "STATUS", "TEST", "PUSH", "SUBSCRIBE", "FRAMING"));
+    private static final CodeTable STATUSES = new CodeTable(List.of(
+            "RECEIVED", "PROCESSING", "PICKED", "PACKED", "SHIPPED", "DELIVERED", "FAILED", "RETURNED",
+            "ACCEPTED", "CANCELLED"));
+
+    private BinaryWmsMessageCodec() {
+    }
+
+    @Override
+    public WmsFraming getFraming() {
+        return WmsFraming.BINARY;
+    }
+
+    @Override
+    public void write(OutputStream out, WmsTcpMessage message) throws IOException {
+        int messageTypeCode = MESSAGE_TYPES.encode(message.getMessageType());
+        int operationCode = OPERATIONS.encode(message.getOperation());
+        int statusCode = STATUSES.encode(message.getStatus());
+        long sequence = parseSequence(message.getSequenceNumber());
+        boolean literalSequence = sequence == NO_SEQUENCE && message.getSequenceNumber() != null;
+
+        byte[] messageTypeLiteral = messageTypeCode == LITERAL ? utf8(message.getMessageType()) : null;
+        byte[] operationLiteral = operationCode == LITERAL ? utf8(message.getOperation()) : null;
+        byte[] statusLiteral = statusCode == LITERAL ? utf8(message.getStatus()) : null;
+        byte[] sequenceLiteral = literalSequence ? utf8(message.getSequenceNumber()) : null;
+        byte[] trackingId = utf8(message.getTrackingId());
+        byte[] orderId = utf8(message.getOrderId());
+        byte[] location = utf8(message.getLocation());
+        byte[] timestamp = utf8(message.getTimestamp());
+        byte[] payload = utf8(message.getData());
+
+        int bodyLength = HEADER_LENGTH
+                + literalLength(messageTypeLiteral) + literalLength(operationLiteral)
+                + literalLength(statusLiteral) + literalLength(sequenceLiteral)
+                + shortStringLength(trackingId) + shortStringLength(orderId)
+                + shortStringLength(location) + shortStringLength(timestamp)
+                + 4 + (payload == null ? 0 : payload.length);
+        if (bodyLength > MAX_FRAME_LENGTH) {
+            throw new ProtocolException("WMS frame of " + bodyLength + " bytes exceeds limit of " + MAX_FRAME_LENGTH);
+        }
+
+        ByteBuffer frame = ByteBuffer.allocate(6 + bodyLength);
+        frame.put((byte) MAGIC).put((byte) VERSION).putInt(bodyLength);
+        frame.put((byte) messageTypeCode).put((byte) operationCode).put((byte) statusCode)
+                .put((byte) (literalSequence ? FLAG_LITERAL_SEQUENCE : 0))
+                .putLong(sequence);
+        putLiteral(frame, messageTypeLiteral);
+        putLiteral(frame, operationLiteral);
+        putLiteral(frame, statusLiteral);
+        putLiteral(frame, sequenceLiteral);
+        putShortString(frame, trackingId);
+        putShortString(frame, orderId);
+        putShortString(frame, location);
+        putShortString(frame, timestamp);
+        if (payload == null) {
+            frame.putInt(ABSENT_LENGTH);
+        } else {
+            frame.putInt(payload.length).put(payload);
+        }
+
+        out.write(frame.array());
+    }
+
+    @Override
+    public WmsTcpMessage read(InputStream in) throws IOException {
+        int magic = in.read();
+        if (magic == -1) {
+            return null;
+        }
+        if (magic != MAGIC) {
+            throw new ProtocolException(String.format("Expected binary WMS frame, got leading byte 0x%02X", magic));
+        }
+
+        DataInputStream data = new DataInputStream(in);
+        int version = data.readUnsignedByte();
+        if (version != VERSION) {
+            throw new ProtocolException("Unsupported WMS frame version " + version);
+        }
+        int bodyLength = data.readInt();
+        if (bodyLength < HEADER_LENGTH || bodyLength > MAX_FRAME_LENGTH) {
+            throw new ProtocolException("Invalid WMS frame length " + bodyLength);
+        }
+        byte[] body = new byte[bodyLength];
+        data.readFully(body);
+
+        try {
+            return decodeBody(ByteBuffer.wrap(body));
+        } catch (RuntimeException e) {
+            throw new ProtocolException("Malformed WMS frame: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public int frameLength(byte[] buffer, int length) {
+        if (length > 0 && Byte.toUnsignedInt(buffer[0]) != MAGIC) {
+            return 1;
+        }
+        if (length < 6) {
+            return -1;
+        }
+        int bodyLength = ByteBuffer.wrap(buffer, 2, 4).getInt();
+        if (bodyLength < HEADER_LENGTH || bodyLength > MAX_FRAME_LENGTH) {
+            return 6;
+        }
+        return length >= 6 + bodyLength ? 6 + bodyLength : -1;
+    }
+
+    private WmsTcpMessage decodeBody(ByteBuffer body) {
+        int messageTypeCode = Byte.toUnsignedInt(body.get());
+        int operationCode = Byte.toUnsignedInt(body.get());
+        int statusCode = Byte.toUnsignedInt(body.get());
+        int flags = Byte.toUnsignedInt(body.get());
+        long sequence = body.getLong();
+
+        String messageType = messageTypeCode == LITERAL ? getShortString(body) : MESSAGE_TYPES.decode(messageTypeCode);
+        String operation = operationCode == LITERAL ? getShortString(body) : OPERATIONS.decode(operationCode);
+        String status = statusCode == LITERAL ? getShortString(body) : STATUSES.decode(statusCode);
+        String sequenceNumber = (flags & FLAG_LITERAL_SEQUENCE) != 0
+                ? getShortString(body)
+                : sequence == NO_SEQUENCE ? null : String.valueOf(sequence);
+
+        WmsTcpMessage.WmsTcpMessageBuilder message = WmsTcpMessage.builder()
+                .messageType(messageType)
+                .sequenceNumber(sequenceNumber)
+                .operation(operation)
+                .status(status)
+                .trackingId(getShortString(body))
+                .orderId(getShortString(body))
+                .location(getShortString(body))
+                .timestamp(getShortString(body));
+
+        int payloadLength = body.getInt();
+        if (payloadLength != ABSENT_LENGTH) {
+            if (payloadLength < 0 || payloadLength > body.remaining()) {
+                throw new IllegalArgumentException("Invalid payload length " + payloadLength);
+            }
+            message.data(new String(body.array(), body.position(), payloadLength, StandardCharsets.UTF_8));
+        }
+        return message.build();
+    }
+
+    private static long parseSequence(String sequenceNumber) {
+        if (sequenceNumber == null || sequenceNumber.isEmpty()) {
+            return NO_SEQUENCE;
+        }
+        try {
+            long sequence = Long.parseLong(sequenceNumber);
+            // Leading zeros or signs would not survive a numeric round trip
+            return sequence >= 0 && String.valueOf(sequence).equals(sequenceNumber) ? sequence : NO_SEQUENCE;
+        } catch (NumberFormatException e) {
+            return NO_SEQUENCE;
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int literalLength(byte[] literal) throws ProtocolException {
+        return literal == null ? 0 : shortStringLength(literal);
+    }
+
+    private static int shortStringLength(byte[] value) throws ProtocolException {
+        if (value == null) {
+            return 2;
+        }
+        if (value.length > MAX_SHORT_STRING_LENGTH) {
+            throw new ProtocolException("WMS header field of " + value.length + " bytes exceeds " + MAX_SHORT_STRING_LENGTH);
+        }
+        return 2 + value.length;
+    }
+
+    private static void putLiteral(ByteBuffer frame, byte[] literal) {
+        if (literal != null) {
+            putShortString(frame, literal);
+        }
+    }
+
+    private static void putShortString(ByteBuffer frame, byte[] value) {
+        if (value == null) {
+            frame.putShort((short) ABSENT_LENGTH);
+        } else {
+            frame.putShort((short) value.length).put(value);
+        }
+    }
+
+    private static String getShortString(ByteBuffer body) {
+        int length = Short.toUnsignedInt(body.getShort());
+        if (length == (ABSENT_LENGTH & 0xFFFF)) {
+            return null;
+        }
+        String value = new String(body.array(), body.position(), length, StandardCharsets.UTF_8);
+        body.position(body.position() + length);
+        return value;
+    }
+
+    /**
+     * Bidirectional mapping between well-known header values and their one-byte codes.
+     */
+    private static final class CodeTable {
+
+        private final List<String> values;
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        CodeTable(List<String> values) {
+            this.values = values;
+            for (int i = 0; i < values.size(); i++) {
+                codes.put(values.get(i), i + 1);
+            }
+        }
+
+        int encode(String value) {
+            if (value == null) {
+                return ABSENT;
+            }
+            return codes.getOrDefault(value, LITERAL);
+        }
+
+        String decode(int code) {
+            if (code == ABSENT) {
+                return null;
+            }
+            if (code > values.size()) {
+                throw new IllegalArgumentException("Unknown header code " + code);
+            }
+            return values.get(code - 1);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.swiftlogistics.wms.protocol;
+
+import com.swiftlogistics.wms.dto.OrderDto;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Positional binary encoding of OrderDto for the data field of ORDER/CREATE messages.
+ *
+ * <pre>
+ * payload := "C1:" base64(presence(2) field*)
+ * field   := string | weight | timestamp, in OrderDto declaration order, only when its presence bit is set
+ * string  := varint length, UTF-8 bytes
+ * weight  := 8-byte IEEE double
+ * timestamp := varlong epoch seconds, varint nanos
+ * </pre>
+ *
+ * Field names are never sent and timestamps are numeric. The prefix makes the payload
+ * self-describing, so receivers can tell it apart from JSON without connection state.
+ * Base64 keeps the payload safe inside the text framing.
+ */
+public final class CompactOrderCodec {
+
+    public static final String PREFIX = "C1:";
+
+    private static final int ORDER_ID = 0;
+    private static final int TRACKING_ID = 1;
+    private static final int CUSTOMER_ID = 2;
+    private static final int ORIGIN = 3;
+    private static final int DESTINATION = 4;
+    private static final int WEIGHT = 5;
+    private static final int DIMENSIONS = 6;
+    private static final int PRIORITY = 7;
+    private static final int SERVICE_TYPE = 8;
+    private static final int EXPECTED_DELIVERY_DATE = 9;
+    private static final int SPECIAL_INSTRUCTIONS = 10;
+    private static final int CREATED_AT = 11;
+    private static final int METADATA = 12;
+
+    private CompactOrderCodec() {
+    }
+
+    public static boolean isCompact(String data) {
+        return data != null && data.startsWith(PREFIX);
+    }
+
+    public static String encode(OrderDto order) {
+        Writer writer = new Writer();
+        int presence = 0;
+        presence |= writer.string(ORDER_ID, order.getOrderId());
+        presence |= writer.string(TRACKING_ID, order.getTrackingId());
+        presence |= writer.string(CUSTOMER_ID, order.getCustomerId());
+        presence |= writer.string(ORIGIN, order.getOrigin());
+        presence |= writer.string(DESTINATION, order.getDestination());
+        presence |= writer.weight(WEIGHT, order.getWeight());
+        presence |= writer.string(DIMENSIONS, order.getDimensions());
+        presence |= writer.string(PRIORITY, order.getPriority());
+        presence |= writer.string(SERVICE_TYPE, order.getServiceType());
+        presence |= writer.timestamp(EXPECTED_DELIVERY_DATE, order.getExpectedDeliveryDate());
+        presence |= writer.string(SPECIAL_INSTRUCTIONS, order.getSpecialInstructions());
+        presence |= writer.timestamp(CREATED_AT, order.getCreatedAt());
+        presence |= writer.string(METADATA, order.getMetadata());
+
+        byte[] fields = writer.toByteArray();
+        byte[] payload = new byte[2 + fields.length];
+        payload[0] = (byte) (presence >>> 8);
+        payload[1] = (byte) presence;
+        System.arraycopy(fields, 0, payload, 2, fields.length);
+        return PREFIX + Base64.getEncoder().withoutPadding().encodeToString(payload);
+    }
+
+    /**
+     * Decode a compact payload.
+     *
+     * @throws IllegalArgumentException if the payload is not a well-formed compact order
+     */
+    public static OrderDto decode(String data) {
+        if (!isCompact(data)) {
+            throw new IllegalArgumentException("Not a compact order payload");
+        }
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Base64.getDecoder().decode(data.substring(PREFIX.length())));
+            int presence = Short.toUnsignedInt(buffer.getShort());
+            Reader reader = new Reader(buffer, presence);
+
+            OrderDto order = OrderDto.builder()
+                    .orderId(reader.string(ORDER_ID))
+                    .trackingId(reader.string(TRACKING_ID))
+                    .customerId(reader.string(CUSTOMER_ID))
+                    .origin(reader.string(ORIGIN))
+                    .destination(reader.string(DESTINATION))
+                    .weight(reader.weight(WEIGHT))
+                    .dimensions(reader.string(DIMENSIONS))
+                    .priority(reader.string(PRIORITY))
+                    .serviceType(reader.string(SERVICE_TYPE))
+                    .expectedDeliveryDate(reader.timestamp(EXPECTED_DELIVERY_DATE))
+                    .specialInstructions(reader.string(SPECIAL_INSTRUCTIONS))
+                    .createdAt(reader.timestamp(CREATED_AT))
+                    .metadata(reader.string(METADATA))
+                    .build();
+
+            if (buffer.hasRemaining()) {
+                throw new IllegalArgumentException(buffer.remaining() + " trailing bytes");
+            }
+            return order;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed compact order payload: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed compact order payload: truncated", e);
+        }
+    }
+
+    private static final class Writer {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+
+        int string(int field, String value) {
+            if (value == null) {
+                return 0;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            varlong(bytes.length);
+            out.writeBytes(bytes);
+            return 1 << field;
+        }
+
+        int weight(int field, Double value) {
+            if (value == null) {
+                return 0;
+            }
+            long bits = Double.doubleToLongBits(value);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                out.write((int) (bits >>> shift));
+            }
+            return 1 << field;
+        }
+
+        int timestamp(int field, LocalDateTime value) {
+            if (value == null) {
+                return 0;
+            }
+            varlong(value.toEpochSecond(ZoneOffset.UTC));
+            varlong(value.getNano());
+            return 1 << field;
+        }
+
+        private void varlong(long value) {
+            // Zigzag so pre-1970 dates stay short
+            long zigzag = (value << 1) ^ (value >> 63);
+            while ((zigzag & ~0x7FL) != 0) {
+                out.write((int) ((zigzag & 0x7F) | 0x80));
+                zigzag >>>= 7;
+            }
+            out.write((int) zigzag);
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+
+    private static final class Reader {
+
+        private final ByteBuffer buffer;
+        private final int presence;
+
+        Reader(ByteBuffer buffer, int presence) {
+            this.buffer = buffer;
+            this.presence = presence;
+        }
+
+        String string(int field) {
+            if (!present(field)) {
+                return null;
+            }
+            int length = Math.toIntExact(varlong());
+            String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+
+        Double weight(int field) {
+            return present(field) ? buffer.getDouble() : null;
+        }
+
+        LocalDateTime timestamp(int field) {
+            if (!present(field)) {
+                return null;
+            }
+            long seconds = varlong();
+            int nanos = Math.toIntExact(varlong());
+            return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+        }
+
+        private boolean present(int field) {
+            return (presence & (1 << field)) != 0;
+        }
+
+        private long varlong() {
+            long zigzag = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer.get();
+                zigzag |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return (zigzag >>> 1) ^ -(zigzag & 1);
+                }
+            }
+            throw new IllegalArgumentException("varint too long");
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.swiftlogistics.wms.protocol;
+
+/**
+ * Encoding of the order payload carried in the data field of ORDER/CREATE messages.
+ */
+public enum PayloadEncoding {
+
+    /**
+     * Jackson-serialized OrderDto (the original format, always supported)
+     */
+    JSON,
+
+    /**
+     * Positional binary OrderDto, see CompactOrderCodec
+     */
+    COMPACT
+}
@@ -0,0 +1,60 @@
+package com.swiftlogistics.wms.protocol;
+
+import com.swiftlogistics.wms.dto.WmsTcpMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Codec for the original newline-terminated, pipe-delimited text protocol.
+ * Malformed lines surface as IllegalArgumentException so the connection stays usable.
+ */
+public final class TextWmsMessageCodec implements WmsMessageCodec {
+
+    static final TextWmsMessageCodec INSTANCE = new TextWmsMessageCodec();
+
+    private TextWmsMessageCodec() {
+    }
+
+    @Override
+    public WmsFraming getFraming() {
+        return WmsFraming.TEXT;
+    }
+
+    @Override
+    public void write(OutputStream out, WmsTcpMessage message) throws IOException {
+        out.write(message.toTcpString().getBytes(StandardCharsets.UTF_8));
+        out.write('\n');
+    }
+
+    @Override
+    public WmsTcpMessage read(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            line.write(b);
+        }
+        if (b == -1 && line.size() == 0) {
+            return null;
+        }
+
+        String text = line.toString(StandardCharsets.UTF_8);
+        if (text.endsWith("\r")) {
+            text = text.substring(0, text.length() - 1);
+        }
+        return WmsTcpMessage.fromTcpString(text);
+    }
+
+    @Override
+    public int frameLength(byte[] buffer, int length) {
+        for (int i = 0; i < length; i++) {
+            if (buffer[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+}
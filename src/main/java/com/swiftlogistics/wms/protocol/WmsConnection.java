@@ -0,0 +1,78 @@
+package com.swiftlogistics.wms.protocol;
+
+import com.swiftlogistics.wms.dto.WmsTcpMessage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+ * A TCP connection to or from the WMS that sends and receives WmsTcpMessages with a fixed framing.
+ * Sends are serialized so pushes and responses can share one connection.
+ */
+public class WmsConnection implements Closeable {
+
+    private final Socket socket;
+    private final WmsMessageCodec codec;
+    private final BufferedInputStream in;
+    private final BufferedOutputStream out;
+
+    private WmsConnection(Socket socket, WmsMessageCodec codec, BufferedInputStream in) throws IOException {
+        this.socket = socket;
+        this.codec = codec;
+        this.in = in;
+        this.out = new BufferedOutputStream(socket.getOutputStream());
+    }
+
+    /**
+     * Wrap a client socket using the framing agreed with the server.
+     */
+    public static WmsConnection open(Socket socket, WmsFraming framing) throws IOException {
+        return new WmsConnection(socket, WmsMessageCodec.forFraming(framing),
+                new BufferedInputStream(socket.getInputStream()));
+    }
+
+    /**
+     * Wrap an accepted server socket, detecting the framing from the first byte the client sends.
+     */
+    public static WmsConnection accept(Socket socket) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(socket.getInputStream());
+        in.mark(1);
+        int first = in.read();
+        in.reset();
+
+        WmsFraming framing = first == BinaryWmsMessageCodec.MAGIC ? WmsFraming.BINARY : WmsFraming.TEXT;
+        return new WmsConnection(socket, WmsMessageCodec.forFraming(framing), in);
+    }
+
+    public synchronized void send(WmsTcpMessage message) throws IOException {
+        codec.write(out, message);
+        out.flush();
+    }
+
+    /**
+     * Read the next message, or return null once the peer closes the connection.
+     */
+    public WmsTcpMessage receive() throws IOException {
+        return codec.read(in);
+    }
+
+    public WmsFraming getFraming() {
+        return codec.getFraming();
+    }
+
+    public Socket getSocket() {
+        return socket;
+    }
+
+    public boolean isOpen() {
+        return socket.isConnected() && !socket.isClosed();
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,68 @@
+package com.swiftlogistics.wms.protocol;
+
+import java.net.InetSocketAddress;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One legacy WMS node together with the live state used to balance requests across nodes.
+ */
+public class WmsEndpoint {
+
+    private final String host;
+    private final int port;
+    private final Set<String> warehouses;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long ejectedUntil;
+
+    public WmsEndpoint(String host, int port, Set<String> warehouses) {
+        this.host = host;
+        this.port = port;
+        this.warehouses = Set.copyOf(warehouses);
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public InetSocketAddress getAddress() {
+        return new InetSocketAddress(host, port);
+    }
+
+    /**
+     * Warehouses routed to this node; empty for a node shared by all warehouses.
+     */
+    public Set<String> getWarehouses() {
+        return warehouses;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public boolean isEjected() {
+        return System.currentTimeMillis() < ejectedUntil;
+    }
+
+    AtomicInteger outstandingCounter() {
+        return outstanding;
+    }
+
+    AtomicInteger consecutiveFailureCounter() {
+        return consecutiveFailures;
+    }
+
+    void ejectFor(long millis) {
+        ejectedUntil = System.currentTimeMillis() + millis;
+    }
+
+    @Override
+    public String toString() {
+        return host + ":" + port;
+    }
+}
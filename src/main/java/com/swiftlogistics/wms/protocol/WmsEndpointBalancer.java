@@ -0,0 +1,101 @@
+package com.swiftlogistics.wms.protocol;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Chooses a WMS node per request using power-of-two-choices on outstanding requests.
+ * Requests for a warehouse go to the nodes that own it, falling back to shared nodes.
+ * Nodes that fail several requests in a row are ejected for a while (passive outlier
+ * detection); if every candidate is ejected the ejection is ignored rather than failing.
+ */
+@Slf4j
+public class WmsEndpointBalancer {
+
+    private final List<WmsEndpoint> endpoints;
+    private final List<WmsEndpoint> sharedEndpoints;
+    private final int ejectAfterFailures;
+    private final long ejectionTime;
+
+    public WmsEndpointBalancer(List<WmsEndpoint> endpoints, int ejectAfterFailures, long ejectionTime) {
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("At least one WMS endpoint is required");
+        }
+        this.endpoints = List.copyOf(endpoints);
+        List<WmsEndpoint> shared = endpoints.stream().filter(endpoint -> endpoint.getWarehouses().isEmpty()).toList();
+        this.sharedEndpoints = shared.isEmpty() ? this.endpoints : shared;
+        this.ejectAfterFailures = ejectAfterFailures;
+        this.ejectionTime = ejectionTime;
+    }
+
+    public List<WmsEndpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Pick a node for a request and count it as outstanding until {@link #release} is called.
+     *
+     * @param warehouse the package origin to route by, or null for any shared node
+     */
+    public WmsEndpoint acquire(String warehouse) {
+        WmsEndpoint endpoint = choose(candidates(warehouse));
+        endpoint.outstandingCounter().incrementAndGet();
+        return endpoint;
+    }
+
+    /**
+     * Finish a request on a node, recording whether the node itself failed (I/O error or timeout).
+     */
+    public void release(WmsEndpoint endpoint, boolean failed) {
+        endpoint.outstandingCounter().decrementAndGet();
+        if (!failed) {
+            endpoint.consecutiveFailureCounter().set(0);
+            return;
+        }
+
+        int failures = endpoint.consecutiveFailureCounter().incrementAndGet();
+        if (failures >= ejectAfterFailures && endpoints.size() > 1 && !endpoint.isEjected()) {
+            endpoint.consecutiveFailureCounter().set(0);
+            endpoint.ejectFor(ejectionTime);
+            log.warn("Ejected WMS endpoint {} for {} ms after {} consecutive failures", endpoint, ejectionTime, failures);
+        }
+    }
+
+    private List<WmsEndpoint> candidates(String warehouse) {
+        if (warehouse != null) {
+            List<WmsEndpoint> owners = endpoints.stream()
+                    .filter(endpoint -> endpoint.getWarehouses().contains(warehouse))
+                    .toList();
+            if (!owners.isEmpty()) {
+                return owners;
+            }
+        }
+        return sharedEndpoints;
+    }
+
+    private WmsEndpoint choose(List<WmsEndpoint> candidates) {
+        List<WmsEndpoint> healthy = new ArrayList<>(candidates.size());
+        for (WmsEndpoint endpoint : candidates) {
+            if (!endpoint.isEjected()) {
+                healthy.add(endpoint);
+            }
+        }
+        List<WmsEndpoint> pool = healthy.isEmpty() ? candidates : healthy;
+
+        if (pool.size() == 1) {
+            return pool.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(pool.size());
+        int second = random.nextInt(pool.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        WmsEndpoint a = pool.get(first);
+        WmsEndpoint b = pool.get(second);
+        return a.getOutstanding() <= b.getOutstanding() ? a : b;
+    }
+}
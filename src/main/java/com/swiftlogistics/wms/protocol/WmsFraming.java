@@ -0,0 +1,17 @@
+package com.swiftlogistics.wms.protocol;
+
+/**
+ * Wire framing used on a WMS TCP connection.
+ */
+public enum WmsFraming {
+
+    /**
+     * Newline-terminated, pipe-delimited text (the original protocol, always supported)
+     */
+    TEXT,
+
+    /**
+     * Length-prefixed binary frames with a fixed header and raw payload section
+     */
+    BINARY
+}
@@ -0,0 +1,35 @@
+package com.swiftlogistics.wms.protocol;
+
+import com.swiftlogistics.wms.dto.WmsTcpMessage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Encodes and decodes WmsTcpMessages on a connection stream for one framing.
+ */
+public interface WmsMessageCodec {
+
+    WmsFraming getFraming();
+
+    /**
+     * Write one message to the stream. The caller is responsible for flushing.
+     */
+    void write(OutputStream out, WmsTcpMessage message) throws IOException;
+
+    /**
+     * Read the next message from a buffered stream, or return null at end of stream.
+     */
+    WmsTcpMessage read(InputStream in) throws IOException;
+
+    /**
+     * Length of the first complete frame in a receive buffer, or -1 if more bytes are needed.
+     * Invalid frames report a length that makes {@link #read} fail on them.
+     */
+    int frameLength(byte[] buffer, int length);
+
+    static WmsMessageCodec forFraming(WmsFraming framing) {
+        return framing == WmsFraming.BINARY ? BinaryWmsMessageCodec.INSTANCE : TextWmsMessageCodec.INSTANCE;
+    }
+}
@@ -0,0 +1,24 @@
+package com.swiftlogistics.wms.repository;
+
+import com.swiftlogistics.wms.model.ArchivedEventFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for managing ArchivedEventFile entities.
+ */
+@Repository
+public interface ArchivedEventFileRepository extends JpaRepository<ArchivedEventFile, Long> {
+
+    /**
+     * Find the archive files holding events of a package.
+     */
+    List<ArchivedEventFile> findByTrackingId(String trackingId);
+
+    /**
+     * Whether any events of a package were archived.
+     */
+    boolean existsByTrackingId(String trackingId);
+}
@@ -2,12 +2,15 @@ package com.swiftlogistics.wms.repository;
 
 import com.swiftlogistics.wms.model.Package;
 import com.swiftlogistics.wms.model.PackageStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,11 +20,61 @@ import java.util.Optional;
 @Repository
 public interface PackageRepository extends JpaRepository<Package, Long> {
 
+    interface VersionView {
+        Long getVersion();
+
+        PackageStatus getStatus();
+    }
+
     /**
      * Find a package by its tracking ID.
      */
     Optional<Package> findByTrackingId(String trackingId);
 
+    /**
+     * Version and status of a package, without loading the entity.
+     */
+    @Query("SELECT p.version AS version, p.status AS status FROM Package p WHERE p.trackingId = :trackingId")
+    Optional<VersionView> findVersionByTrackingId(@Param("trackingId") String trackingId);
+
+    /**
+     * Check whether a package was already created for this order and tracking ID.
+     */
+    boolean existsByTrackingIdAndOrderId(String trackingId, String orderId);
+
+    /**
+     * Overwrite the state columns of a package with state folded from its events.
+     */
+    @Modifying
+    @Query("UPDATE Package p SET p.status = :status, p.currentLocation = :location, p.notes = :notes, " +
+           "p.actualDeliveryDate = :actualDeliveryDate, p.updatedAt = :updatedAt, p.version = p.version + 1 " +
+           "WHERE p.trackingId = :trackingId")
+    int refreshState(@Param("trackingId") String trackingId,
+                     @Param("status") PackageStatus status,
+                     @Param("location") String location,
+                     @Param("notes") String notes,
+                     @Param("actualDeliveryDate") LocalDateTime actualDeliveryDate,
+                     @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Move a package to a new status only if it still has the expected one, in a single statement.
+     * Null location and notes keep the current values.
+     *
+     * @return 1 if the transition was applied, 0 if the status changed concurrently
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Package p SET p.status = :status, " +
+           "p.currentLocation = COALESCE(:location, p.currentLocation), p.notes = COALESCE(:notes, p.notes), " +
+           "p.actualDeliveryDate = :actualDeliveryDate, p.updatedAt = :updatedAt, p.version = p.version + 1 " +
+           "WHERE p.trackingId = :trackingId AND p.status = :expectedStatus")
+    int transitionStatus(@Param("trackingId") String trackingId,
+                         @Param("expectedStatus") PackageStatus expectedStatus,
+                         @Param("status") PackageStatus status,
+                         @Param("location") String location,
+                         @Param("notes") String notes,
+                         @Param("actualDeliveryDate") LocalDateTime actualDeliveryDate,
+                         @Param("updatedAt") LocalDateTime updatedAt);
+
     /**
      * Find packages by order ID.
      */
@@ -32,6 +85,16 @@ public interface PackageRepository extends JpaRepository<Package, Long> {
      */
     List<Package> findByStatus(PackageStatus status);
 
+    /**
+     * Find the packages with the given tracking IDs.
+     */
+    List<Package> findByTrackingIdIn(Collection<String> trackingIds);
+
+    /**
+     * Keyset page of packages in any of the given statuses, ordered by ID, starting after the given ID.
+     */
+    List<Package> findByStatusInAndIdGreaterThanOrderByIdAsc(Collection<PackageStatus> statuses, Long id, Limit limit);
+
     /**
      * Find packages by customer ID.
      */
@@ -66,6 +129,24 @@ public interface PackageRepository extends JpaRepository<Package, Long> {
      */
     long countByStatus(PackageStatus status);
 
+    /**
+     * Count packages grouped by status, as [status, count] rows.
+     */
+    @Query("SELECT p.status, COUNT(p) FROM Package p GROUP BY p.status")
+    List<Object[]> countGroupedByStatus();
+
+    /**
+     * Count packages grouped by current location, as [location, count] rows.
+     */
+    @Query("SELECT p.currentLocation, COUNT(p) FROM Package p GROUP BY p.currentLocation")
+    List<Object[]> countGroupedByCurrentLocation();
+
+    /**
+     * Count packages grouped by carrier, as [carrierId, count] rows.
+     */
+    @Query("SELECT p.carrierId, COUNT(p) FROM Package p GROUP BY p.carrierId")
+    List<Object[]> countGroupedByCarrierId();
+
     /**
      * Check if a package exists with the given tracking ID.
      */
@@ -0,0 +1,37 @@
+package com.swiftlogistics.wms.repository;
+
+import com.swiftlogistics.wms.model.PackageSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for managing PackageSnapshot entities.
+ */
+@Repository
+public interface PackageSnapshotRepository extends JpaRepository<PackageSnapshot, Long> {
+
+    /**
+     * Find the most recent snapshot of a package.
+     */
+    Optional<PackageSnapshot> findFirstByTrackingIdOrderByLastEventIdDesc(String trackingId);
+
+    /**
+     * Find the most recent snapshot of each of the given packages that has one.
+     */
+    @Query("SELECT s FROM PackageSnapshot s WHERE s.trackingId IN :trackingIds AND s.lastEventId = " +
+           "(SELECT MAX(l.lastEventId) FROM PackageSnapshot l WHERE l.trackingId = s.trackingId)")
+    List<PackageSnapshot> findLatestByTrackingIdIn(@Param("trackingIds") Collection<String> trackingIds);
+
+    /**
+     * Find the most recent snapshot of a package describing its state no later than the given time.
+     */
+    Optional<PackageSnapshot> findFirstByTrackingIdAndStateAtLessThanEqualOrderByLastEventIdDesc(String trackingId,
+                                                                                                LocalDateTime at);
+}
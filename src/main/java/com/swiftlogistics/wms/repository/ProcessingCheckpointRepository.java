@@ -0,0 +1,12 @@
+package com.swiftlogistics.wms.repository;
+
+import com.swiftlogistics.wms.model.ProcessingCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for managing ProcessingCheckpoint entities.
+ */
+@Repository
+public interface ProcessingCheckpointRepository extends JpaRepository<ProcessingCheckpoint, String> {
+}
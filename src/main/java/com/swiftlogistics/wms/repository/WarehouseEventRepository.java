@@ -1,13 +1,16 @@
 package com.swiftlogistics.wms.repository;
 
 import com.swiftlogistics.wms.model.EventType;
+import com.swiftlogistics.wms.model.PackageStatus;
 import com.swiftlogistics.wms.model.WarehouseEvent;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -36,6 +39,71 @@ public interface WarehouseEventRepository extends JpaRepository<WarehouseEvent,
      */
     List<WarehouseEvent> findByTrackingIdOrderByEventTimestampDesc(String trackingId);
 
+    /**
+     * ID of the latest event of a package, or null if it has none.
+     */
+    @Query("SELECT MAX(e.id) FROM WarehouseEvent e WHERE e.trackingId = :trackingId")
+    Long findLatestEventId(@Param("trackingId") String trackingId);
+
+    /**
+     * Events of a package appended after the given event ID, in append order.
+     */
+    List<WarehouseEvent> findByTrackingIdAndIdGreaterThanOrderByIdAsc(String trackingId, Long id);
+
+    /**
+     * Events of a package appended after the given event ID and no later than the given time, in append order.
+     */
+    List<WarehouseEvent> findByTrackingIdAndIdGreaterThanAndEventTimestampLessThanEqualOrderByIdAsc(
+            String trackingId, Long id, LocalDateTime at);
+
+    /**
+     * Events of the given packages appended after each package's latest snapshot, in append order.
+     */
+    @Query("SELECT e FROM WarehouseEvent e WHERE e.trackingId IN :trackingIds AND e.id > " +
+           "COALESCE((SELECT MAX(s.lastEventId) FROM PackageSnapshot s WHERE s.trackingId = e.trackingId), 0) " +
+           "ORDER BY e.id")
+    List<WarehouseEvent> findSinceLatestSnapshot(@Param("trackingIds") Collection<String> trackingIds);
+
+    /**
+     * Tracking IDs of packages moved to the given status since their latest snapshot.
+     */
+    @Query("SELECT DISTINCT e.trackingId FROM WarehouseEvent e WHERE e.newStatus = :status AND e.id > " +
+           "COALESCE((SELECT MAX(s.lastEventId) FROM PackageSnapshot s WHERE s.trackingId = e.trackingId), 0)")
+    List<String> findTrackingIdsMovedToStatusSinceSnapshot(@Param("status") PackageStatus status);
+
+    /**
+     * Packages with status changes since their latest snapshot, as [row status, latest new status] rows.
+     */
+    @Query("SELECT p.status, e.newStatus FROM Package p, WarehouseEvent e WHERE e.trackingId = p.trackingId AND " +
+           "e.id = (SELECT MAX(x.id) FROM WarehouseEvent x WHERE x.trackingId = p.trackingId AND " +
+           "x.newStatus IS NOT NULL AND x.id > " +
+           "COALESCE((SELECT MAX(s.lastEventId) FROM PackageSnapshot s WHERE s.trackingId = p.trackingId), 0))")
+    List<Object[]> findStatusChangesSinceSnapshot();
+
+    /**
+     * Packages with location changes since their latest snapshot, as [row location, latest location] rows.
+     */
+    @Query("SELECT p.currentLocation, e.location FROM Package p, WarehouseEvent e WHERE e.trackingId = p.trackingId AND " +
+           "e.id = (SELECT MAX(x.id) FROM WarehouseEvent x WHERE x.trackingId = p.trackingId AND " +
+           "x.newStatus IS NOT NULL AND x.location IS NOT NULL AND x.id > " +
+           "COALESCE((SELECT MAX(s.lastEventId) FROM PackageSnapshot s WHERE s.trackingId = p.trackingId), 0))")
+    List<Object[]> findLocationChangesSinceSnapshot();
+
+    /**
+     * Page of events of all packages appended after the given event ID, in append order.
+     */
+    List<WarehouseEvent> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Page of events older than the cutoff that belong to no package, or to a package that reached one of the
+     * given statuses before the cutoff, in append order.
+     */
+    @Query("SELECT e FROM WarehouseEvent e WHERE e.eventTimestamp < :cutoff AND (e.trackingId IS NULL OR " +
+           "e.trackingId IN (SELECT p.trackingId FROM Package p WHERE p.status IN :statuses AND p.updatedAt < :cutoff)) " +
+           "ORDER BY e.id")
+    List<WarehouseEvent> findArchivable(@Param("cutoff") LocalDateTime cutoff,
+                                        @Param("statuses") Collection<PackageStatus> statuses, Limit limit);
+
     /**
      * Find events within a date range.
      */
@@ -59,6 +127,12 @@ public interface WarehouseEventRepository extends JpaRepository<WarehouseEvent,
      */
     long countByEventType(EventType eventType);
 
+    /**
+     * Count events grouped by event type, as [eventType, count] rows.
+     */
+    @Query("SELECT e.eventType, COUNT(e) FROM WarehouseEvent e GROUP BY e.eventType")
+    List<Object[]> countGroupedByEventType();
+
     /**
      * Find events by location.
      */
@@ -0,0 +1,377 @@
+package com.swiftlogistics.wms.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiftlogistics.wms.config.WmsProperties;
+import com.swiftlogistics.wms.dto.ImportProgress;
+import com.swiftlogistics.wms.dto.OrderDto;
+import com.swiftlogistics.wms.dto.WarehouseEventDto;
+import com.swiftlogistics.wms.model.PackageStatus;
+import com.swiftlogistics.wms.model.ProcessingCheckpoint;
+import com.swiftlogistics.wms.repository.ProcessingCheckpointRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bulk import of historical orders and warehouse events, e.g. when onboarding a warehouse.
+ * Reads NDJSON, one {@link OrderDto} or {@link WarehouseEventDto} per line, and loads it in chunks
+ * straight into packages and warehouse_events: COPY on PostgreSQL, batched INSERTs elsewhere.
+ * Nothing is sent to the WMS or published to Kafka. Each chunk commits together with a checkpoint
+ * of the lines consumed, so posting the same job again resumes after the last committed chunk.
+ * <p>
+ * Orders become RECEIVED packages; tracking IDs that already exist are skipped. After each chunk of
+ * events, the packages it touches take the status and location of their latest status event, in
+ * file order, when the transition table allows the change and the package has not been updated
+ * since that event. Packages held in the {@link PackageStateStore} are left to it. Statistics are
+ * rebuilt when a job completes.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkImportService {
+
+    public static final String ORDERS = "orders";
+    public static final String EVENTS = "events";
+
+    private static final String CHECKPOINT_PREFIX = "import:";
+    private static final List<String> PACKAGE_COLUMNS = List.of("tracking_id", "order_id", "status", "origin",
+            "destination", "current_location", "weight", "dimensions", "customer_id", "expected_delivery_date",
+            "notes", "created_at", "updated_at", "version");
+    private static final List<String> EVENT_COLUMNS = List.of("event_type", "tracking_id", "order_id",
+            "previous_status", "new_status", "location", "description", "metadata", "source", "event_timestamp",
+            "created_at");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProcessingCheckpointRepository checkpointRepository;
+    private final PackageStatisticsService statisticsService;
+    private final OrderDeduplicationService deduplicationService;
+    private final PackageEventStore eventStore;
+    private final ObjectProvider<PackageStateStore> stateStore;
+    private final ObjectMapper objectMapper;
+    private final WmsProperties wmsProperties;
+
+    private final Map<String, ImportProgress> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Import orders as packages, resuming after the job's last checkpoint.
+     *
+     * @throws IllegalStateException if the same job is already importing orders
+     * @throws IllegalArgumentException if a line cannot be parsed; earlier chunks stay committed
+     */
+    public ImportProgress importOrders(String jobId, InputStream input) throws IOException {
+        return run(jobId, ORDERS, input);
+    }
+
+    /**
+     * Import warehouse events and rebuild the state of the packages they touch, resuming after the
+     * job's last checkpoint.
+     *
+     * @throws IllegalStateException if the same job is already importing events
+     * @throws IllegalArgumentException if a line cannot be parsed; earlier chunks stay committed
+     */
+    public ImportProgress importEvents(String jobId, InputStream input) throws IOException {
+        return run(jobId, EVENTS, input);
+    }
+
+    /**
+     * Progress of the imports run under a job since startup.
+     */
+    public List<ImportProgress> getProgress(String jobId) {
+        List<ImportProgress> progress = new ArrayList<>();
+        for (String kind : List.of(ORDERS, EVENTS)) {
+            ImportProgress job = jobs.get(key(jobId, kind));
+            if (job != null) {
+                progress.add(job);
+            }
+        }
+        return progress;
+    }
+
+    private ImportProgress run(String jobId, String kind, InputStream input) throws IOException {
+        String key = key(jobId, kind);
+        long resumeAfter = checkpointRepository.findById(CHECKPOINT_PREFIX + key)
+                .map(ProcessingCheckpoint::getPosition)
+                .orElse(0L);
+        ImportProgress started = ImportProgress.builder()
+                .jobId(jobId)
+                .kind(kind)
+                .status(ImportProgress.Status.RUNNING)
+                .resumedFrom(resumeAfter)
+                .checkpoint(resumeAfter)
+                .startedAt(LocalDateTime.now())
+                .build();
+        ImportProgress previous = jobs.get(key);
+        if ((previous != null && previous.getStatus() == ImportProgress.Status.RUNNING)
+                || (previous == null ? jobs.putIfAbsent(key, started) != null : !jobs.replace(key, previous, started))) {
+            throw new IllegalStateException("Import of " + kind + " for job " + jobId + " is already running");
+        }
+        log.info("Importing {} for job {}, resuming after line {}", kind, jobId, resumeAfter);
+
+        int chunkSize = wmsProperties.getImports().getChunkSize();
+        long line = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            List<String> chunk = new ArrayList<>(chunkSize);
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (line <= resumeAfter) {
+                    continue;
+                }
+                chunk.add(text);
+                if (chunk.size() == chunkSize) {
+                    loadChunk(key, kind, chunk, line);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                loadChunk(key, kind, chunk, line);
+            }
+        } catch (IOException | RuntimeException e) {
+            long linesRead = line;
+            ImportProgress failed = jobs.compute(key, (k, job) -> job.toBuilder()
+                    .status(ImportProgress.Status.FAILED)
+                    .linesRead(linesRead)
+                    .finishedAt(LocalDateTime.now())
+                    .error(e.getMessage())
+                    .build());
+            log.error("Import of {} for job {} failed after checkpoint {}", kind, jobId, failed.getCheckpoint(), e);
+            throw e;
+        }
+
+        statisticsService.rebuild();
+        long linesRead = line;
+        ImportProgress completed = jobs.compute(key, (k, job) -> job.toBuilder()
+                .status(ImportProgress.Status.COMPLETED)
+                .linesRead(linesRead)
+                .finishedAt(LocalDateTime.now())
+                .build());
+        log.info("Imported {} {} for job {} ({} skipped)", completed.getImported(), kind, jobId, completed.getSkipped());
+        return completed;
+    }
+
+    /**
+     * Load one chunk and advance the checkpoint to its last line in the same transaction.
+     */
+    private void loadChunk(String key, String kind, List<String> lines, long lastLine) {
+        long firstLine = lastLine - lines.size() + 1;
+        Integer imported = transactionTemplate.execute(status -> {
+            int loaded = ORDERS.equals(kind)
+                    ? loadOrders(parse(lines, firstLine, OrderDto.class))
+                    : loadEvents(parse(lines, firstLine, WarehouseEventDto.class));
+            checkpointRepository.save(ProcessingCheckpoint.builder()
+                    .name(CHECKPOINT_PREFIX + key)
+                    .position(lastLine)
+                    .build());
+            return loaded;
+        });
+
+        ImportProgress progress = jobs.compute(key, (k, job) -> job.toBuilder()
+                .linesRead(lastLine)
+                .checkpoint(lastLine)
+                .imported(job.getImported() + imported)
+                .skipped(job.getSkipped() + lines.size() - imported)
+                .build());
+        log.info("Import {}: {} lines, {} imported, {} skipped", key, progress.getLinesRead(),
+                progress.getImported(), progress.getSkipped());
+    }
+
+    private <T> List<T> parse(List<String> lines, long firstLine, Class<T> type) {
+        List<T> values = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                values.add(objectMapper.readValue(line, type));
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Line " + (firstLine + i) + ": " + e.getOriginalMessage(), e);
+            }
+        }
+        return values;
+    }
+
+    private int loadOrders(List<OrderDto> orders) {
+        Map<String, OrderDto> byTrackingId = new LinkedHashMap<>();
+        for (OrderDto order : orders) {
+            if (order.getTrackingId() != null && order.getOrderId() != null) {
+                byTrackingId.putIfAbsent(order.getTrackingId(), order);
+            }
+        }
+        if (byTrackingId.isEmpty()) {
+            return 0;
+        }
+        // Skip packages that already exist, so overlapping files and re-runs do not fail the chunk
+        byTrackingId.keySet().removeAll(jdbcTemplate.queryForList(
+                "SELECT tracking_id FROM packages WHERE tracking_id IN (" + placeholders(byTrackingId.size()) + ")",
+                String.class, byTrackingId.keySet().toArray()));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(byTrackingId.size());
+        for (OrderDto order : byTrackingId.values()) {
+            LocalDateTime createdAt = order.getCreatedAt() != null ? order.getCreatedAt() : now;
+            rows.add(new Object[] {
+                    order.getTrackingId(), order.getOrderId(), PackageStatus.RECEIVED.name(), order.getOrigin(),
+                    order.getDestination(), order.getOrigin(), order.getWeight(), order.getDimensions(),
+                    order.getCustomerId(), order.getExpectedDeliveryDate(), order.getSpecialInstructions(),
+                    createdAt, createdAt, 0L });
+            deduplicationService.markIngested(order);
+        }
+        copy("packages", PACKAGE_COLUMNS, rows);
+        return rows.size();
+    }
+
+    private int loadEvents(List<WarehouseEventDto> events) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(events.size());
+        Set<String> touched = new LinkedHashSet<>();
+        for (WarehouseEventDto event : events) {
+            if (event.getEventType() == null || event.getTimestamp() == null) {
+                continue;
+            }
+            rows.add(new Object[] {
+                    event.getEventType().name(), event.getTrackingId(), event.getOrderId(),
+                    event.getPreviousStatus() != null ? event.getPreviousStatus().name() : null,
+                    event.getNewStatus() != null ? event.getNewStatus().name() : null,
+                    event.getLocation(), event.getDescription(), event.getMetadata(),
+                    event.getSource() != null ? event.getSource() : "WMS-IMPORT", event.getTimestamp(), now });
+            if (event.getTrackingId() != null && event.getNewStatus() != null) {
+                touched.add(event.getTrackingId());
+            }
+        }
+        copy("warehouse_events", EVENT_COLUMNS, rows);
+        if (!eventStore.isEnabled() && !touched.isEmpty()) {
+            // In event-sourced mode the snapshot job picks the new events up instead
+            refreshPackages(touched);
+        }
+        return rows.size();
+    }
+
+    /**
+     * Set status and location of the given packages from their latest status-changing event, where that is
+     * a legal transition from their current status and no newer than their last update.
+     */
+    private void refreshPackages(Collection<String> trackingIds) {
+        Map<String, Object[]> current = new HashMap<>();
+        jdbcTemplate.query("SELECT tracking_id, status, updated_at FROM packages WHERE tracking_id IN (" +
+                        placeholders(trackingIds.size()) + ")",
+                rs -> {
+                    current.put(rs.getString("tracking_id"),
+                            new Object[] { PackageStatus.valueOf(rs.getString("status")), rs.getTimestamp("updated_at") });
+                },
+                trackingIds.toArray());
+        PackageStateStore store = stateStore.getIfAvailable();
+
+        List<Object[]> updates = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT tracking_id, new_status, location, event_timestamp FROM warehouse_events WHERE id IN (" +
+                "SELECT MAX(id) FROM warehouse_events WHERE new_status IS NOT NULL AND tracking_id IN (" +
+                placeholders(trackingIds.size()) + ") GROUP BY tracking_id)",
+                rs -> {
+                    String trackingId = rs.getString("tracking_id");
+                    Object[] row = current.get(trackingId);
+                    if (row == null || (store != null && store.find(trackingId).isPresent())) {
+                        return;
+                    }
+                    PackageStatus from = (PackageStatus) row[0];
+                    PackageStatus to = PackageStatus.valueOf(rs.getString("new_status"));
+                    Timestamp timestamp = rs.getTimestamp("event_timestamp");
+                    if (row[1] != null && timestamp.before((Timestamp) row[1])) {
+                        // The package has moved on since; its live state wins
+                        return;
+                    }
+                    if (!from.canTransitionTo(to)) {
+                        statisticsService.recordRejectedTransition(from, to);
+                        return;
+                    }
+                    updates.add(new Object[] { to.name(), rs.getString("location"),
+                            to == PackageStatus.DELIVERED ? timestamp : null, timestamp, trackingId, from.name() });
+                },
+                trackingIds.toArray());
+        // Conditional on the status read, so a concurrent live change is not overwritten
+        jdbcTemplate.batchUpdate("UPDATE packages SET status = ?, current_location = COALESCE(?, current_location), " +
+                "actual_delivery_date = COALESCE(?, actual_delivery_date), updated_at = ?, version = version + 1 " +
+                "WHERE tracking_id = ? AND status = ?", updates);
+    }
+
+    /**
+     * Append rows to a table, streaming them through COPY when the database is PostgreSQL.
+     */
+    private void copy(String table, List<String> columns, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        String columnList = String.join(", ", columns);
+        Boolean copied = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            if (!connection.isWrapperFor(PGConnection.class)) {
+                return false;
+            }
+            try {
+                connection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                        "COPY " + table + " (" + columnList + ") FROM STDIN WITH (FORMAT csv)",
+                        new StringReader(toCsv(rows)));
+            } catch (IOException e) {
+                throw new SQLException("COPY into " + table + " failed", e);
+            }
+            return true;
+        });
+        if (!Boolean.TRUE.equals(copied)) {
+            jdbcTemplate.batchUpdate("INSERT INTO " + table + " (" + columnList + ") VALUES (" +
+                    placeholders(columns.size()) + ")", rows);
+        }
+    }
+
+    /**
+     * CSV for COPY: nulls are empty fields, every other value is quoted so empty strings survive.
+     */
+    private static String toCsv(List<Object[]> rows) {
+        StringBuilder csv = new StringBuilder(rows.size() * 128);
+        for (Object[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    csv.append(',');
+                }
+                if (row[i] != null) {
+                    csv.append('"').append(row[i].toString().replace("\"", "\"\"")).append('"');
+                }
+            }
+            csv.append('\n');
+        }
+        return csv.toString();
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static String key(String jobId, String kind) {
+        return jobId + ":" + kind;
+    }
+}
@@ -0,0 +1,196 @@
+package com.swiftlogistics.wms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiftlogistics.wms.config.WmsProperties;
+import com.swiftlogistics.wms.model.ArchivedEventFile;
+import com.swiftlogistics.wms.model.PackageStatus;
+import com.swiftlogistics.wms.model.WarehouseEvent;
+import com.swiftlogistics.wms.repository.ArchivedEventFileRepository;
+import com.swiftlogistics.wms.repository.WarehouseEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves old warehouse events out of the database into gzip-compressed NDJSON files.
+ * Events older than the retention period are archived once their package has been terminal for
+ * that long, one bounded batch per transaction: the batch is written to its own file first, then
+ * indexed by package and deleted, so locks are held only for the short delete. A crash between the
+ * two leaves an unindexed file that the next run overwrites. History lookups read the indexed files
+ * of a package back, so archiving is invisible to clients apart from latency.
+ * Not run in event-sourced mode, where the events are the package state.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EventArchiveService {
+
+    private static final List<PackageStatus> TERMINAL_STATUSES = Arrays.stream(PackageStatus.values())
+            .filter(PackageStatus::isTerminal)
+            .toList();
+
+    private final WarehouseEventRepository eventRepository;
+    private final ArchivedEventFileRepository archivedFileRepository;
+    private final PackageEventStore eventStore;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final WmsProperties wmsProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private Counter archivedCounter;
+
+    @PostConstruct
+    public void init() {
+        archivedCounter = meterRegistry.counter("wms.events.archived");
+    }
+
+    /**
+     * Archive events past the retention period, batch by batch, until none are left.
+     */
+    @Scheduled(fixedDelayString = "${wms.archive.interval:3600000}",
+               initialDelayString = "${wms.archive.interval:3600000}")
+    public void archiveExpiredEvents() {
+        WmsProperties.Archive config = wmsProperties.getArchive();
+        if (!config.isEnabled() || eventStore.isEnabled()) {
+            return;
+        }
+        if (!running.compareAndSet(false, true)) {
+            log.debug("Event archival already in progress, skipping");
+            return;
+        }
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusNanos(config.getRetention() * 1_000_000);
+            long archived = 0;
+            while (true) {
+                List<WarehouseEvent> batch = eventRepository.findArchivable(cutoff, TERMINAL_STATUSES,
+                        Limit.of(config.getBatchSize()));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                archive(batch);
+                archived += batch.size();
+                if (batch.size() < config.getBatchSize()) {
+                    break;
+                }
+            }
+            if (archived > 0) {
+                log.info("Archived {} warehouse events older than {}", archived, cutoff);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Event archival failed, retrying on the next run", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Whether any events of a package were archived.
+     */
+    public boolean hasArchivedEvents(String trackingId) {
+        return archivedFileRepository.existsByTrackingId(trackingId);
+    }
+
+    /**
+     * Archived events of a package, in append order; empty if none were archived.
+     */
+    public List<WarehouseEvent> findArchivedEvents(String trackingId) {
+        List<ArchivedEventFile> files = archivedFileRepository.findByTrackingId(trackingId);
+        if (files.isEmpty()) {
+            return List.of();
+        }
+        Path directory = Path.of(wmsProperties.getArchive().getDirectory());
+        List<WarehouseEvent> events = new ArrayList<>();
+        for (ArchivedEventFile file : files) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(directory.resolve(file.getFileName()))),
+                    StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    WarehouseEvent event = objectMapper.readValue(line, WarehouseEvent.class);
+                    if (trackingId.equals(event.getTrackingId())) {
+                        events.add(event);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read archived events of " + trackingId
+                        + " from " + file.getFileName(), e);
+            }
+        }
+        events.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+        return events;
+    }
+
+    private void archive(List<WarehouseEvent> batch) throws IOException {
+        String fileName = "warehouse-events-" + batch.get(0).getId() + "-" + batch.get(batch.size() - 1).getId()
+                + ".ndjson.gz";
+        write(Path.of(wmsProperties.getArchive().getDirectory()), fileName, batch);
+
+        Map<String, Integer> countsByPackage = new LinkedHashMap<>();
+        for (WarehouseEvent event : batch) {
+            if (event.getTrackingId() != null) {
+                countsByPackage.merge(event.getTrackingId(), 1, Integer::sum);
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            List<ArchivedEventFile> entries = new ArrayList<>(countsByPackage.size());
+            countsByPackage.forEach((trackingId, count) -> entries.add(ArchivedEventFile.builder()
+                    .trackingId(trackingId)
+                    .fileName(fileName)
+                    .eventCount(count)
+                    .build()));
+            archivedFileRepository.saveAll(entries);
+            eventRepository.deleteAllByIdInBatch(batch.stream().map(WarehouseEvent::getId).toList());
+        });
+        archivedCounter.increment(batch.size());
+    }
+
+    /**
+     * Write a batch to a temporary file, sync it and move it into place, so a file under its final
+     * name is always complete.
+     */
+    private void write(Path directory, String fileName, List<WarehouseEvent> batch) throws IOException {
+        Files.createDirectories(directory);
+        Path temp = directory.resolve(fileName + ".tmp");
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(temp)), StandardCharsets.UTF_8))) {
+            for (WarehouseEvent event : batch) {
+                writer.write(objectMapper.writeValueAsString(event));
+                writer.newLine();
+            }
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(fileName), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+}
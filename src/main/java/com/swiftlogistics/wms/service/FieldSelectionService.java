@@ -0,0 +1,99 @@
+package com.swiftlogistics.wms.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.Attribute;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Sparse field sets for the query endpoints.
+ * Selects only the requested columns of an entity, so callers that need a couple of fields do not
+ * pay for reading and serializing the TEXT columns. Field names are entity attribute names and are
+ * checked against the JPA metamodel before they reach a query.
+ */
+@Service
+@RequiredArgsConstructor
+public class FieldSelectionService {
+
+    private final EntityManager entityManager;
+
+    private final Map<Class<?>, Set<String>> selectableFields = new ConcurrentHashMap<>();
+
+    /**
+     * Requested fields of the entities whose key attribute equals the given value,
+     * newest first by {@code orderBy} when given.
+     */
+    public List<Map<String, Object>> select(Class<?> entityType, String keyAttribute, Object key,
+                                            Collection<String> requested, String orderBy) {
+        List<String> fields = validate(entityType, requested);
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<?> root = query.from(entityType);
+        List<Selection<?>> selections = fields.stream()
+                .<Selection<?>>map(field -> root.get(field).alias(field))
+                .toList();
+        query.multiselect(selections).where(builder.equal(root.get(keyAttribute), key));
+        if (orderBy != null) {
+            query.orderBy(builder.desc(root.get(orderBy)));
+        }
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(tuple -> {
+                    Map<String, Object> values = new LinkedHashMap<>();
+                    fields.forEach(field -> values.put(field, tuple.get(field)));
+                    return values;
+                })
+                .toList();
+    }
+
+    /**
+     * Requested fields of the single entity whose key attribute equals the given value.
+     */
+    public Optional<Map<String, Object>> selectOne(Class<?> entityType, String keyAttribute, Object key,
+                                                   Collection<String> fields) {
+        return select(entityType, keyAttribute, key, fields, null).stream().findFirst();
+    }
+
+    /**
+     * Requested fields of an entity that is already loaded, e.g. from the read model.
+     */
+    public Map<String, Object> pick(Object entity, Collection<String> requested) {
+        List<String> fields = validate(entity.getClass(), requested);
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(entity);
+        Map<String, Object> values = new LinkedHashMap<>();
+        fields.forEach(field -> values.put(field, wrapper.getPropertyValue(field)));
+        return values;
+    }
+
+    private List<String> validate(Class<?> entityType, Collection<String> requested) {
+        List<String> fields = requested.stream().map(String::trim).filter(field -> !field.isEmpty()).distinct().toList();
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException("At least one field is required");
+        }
+        Set<String> selectable = selectableFields.computeIfAbsent(entityType, type ->
+                entityManager.getMetamodel().entity(type).getSingularAttributes().stream()
+                        .map(Attribute::getName)
+                        .collect(Collectors.toUnmodifiableSet()));
+        for (String field : fields) {
+            if (!selectable.contains(field)) {
+                throw new IllegalArgumentException("Unknown field: " + field);
+            }
+        }
+        return fields;
+    }
+}
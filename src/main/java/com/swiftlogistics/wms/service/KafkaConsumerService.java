@@ -1,7 +1,7 @@
 package com.swiftlogistics.wms.service;
 
+import com.swiftlogistics.wms.config.WmsProperties;
 import com.swiftlogistics.wms.dto.OrderDto;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
@@ -10,16 +10,29 @@ import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.Semaphore;
+
 /**
  * Service for consuming messages from Kafka topics.
  * Handles incoming orders and other events from the ESB.
+ * Orders are processed asynchronously; at most {@code wms.ingestion.max-in-flight-orders} at once,
+ * beyond which the orders listener waits, so a slow WMS or database holds back consumption
+ * instead of piling work onto the WMS response executor.
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class KafkaConsumerService {
 
     private final PackageTrackingService packageTrackingService;
+    private final OrderDeduplicationService deduplicationService;
+    private final Semaphore inFlightOrders;
+
+    public KafkaConsumerService(PackageTrackingService packageTrackingService,
+                                OrderDeduplicationService deduplicationService, WmsProperties wmsProperties) {
+        this.packageTrackingService = packageTrackingService;
+        this.deduplicationService = deduplicationService;
+        this.inFlightOrders = new Semaphore(wmsProperties.getIngestion().getMaxInFlightOrders());
+    }
 
     /**
      * Consume new order messages from the orders topic.
@@ -42,21 +55,37 @@ public class KafkaConsumerService {
                 acknowledgment.acknowledge();
                 return;
             }
+
+            // Drop redeliveries before touching the database
+            if (!deduplicationService.claim(orderDto)) {
+                acknowledgment.acknowledge();
+                return;
+            }
             
             // Process the order
-            packageTrackingService.processNewOrder(orderDto)
-                    .thenRun(() -> {
-                        log.info("Successfully processed order: {}", orderDto.getOrderId());
-                        acknowledgment.acknowledge();
-                    })
-                    .exceptionally(ex -> {
-                        log.error("Failed to process order: {}", orderDto.getOrderId(), ex);
-                        // In a production system, you might want to send to a dead letter queue
-                        // For now, we'll acknowledge to prevent infinite retries
-                        acknowledgment.acknowledge();
-                        return null;
-                    });
-                    
+            inFlightOrders.acquire();
+            try {
+                packageTrackingService.processNewOrder(orderDto)
+                        .whenComplete((result, error) -> inFlightOrders.release())
+                        .thenRun(() -> {
+                            log.info("Successfully processed order: {}", orderDto.getOrderId());
+                            acknowledgment.acknowledge();
+                        })
+                        .exceptionally(ex -> {
+                            log.error("Failed to process order: {}", orderDto.getOrderId(), ex);
+                            // In a production system, you might want to send to a dead letter queue
+                            // For now, we'll acknowledge to prevent infinite retries
+                            acknowledgment.acknowledge();
+                            return null;
+                        });
+            } catch (RuntimeException e) {
+                inFlightOrders.release();
+                throw e;
+            }
+
+        } catch (InterruptedException e) {
+            // Shutting down; the order is not acknowledged and is redelivered
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             log.error("Error processing order message: {}", orderDto.getOrderId(), e);
             acknowledgment.acknowledge();
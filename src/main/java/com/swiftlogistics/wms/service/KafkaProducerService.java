@@ -5,16 +5,18 @@ import com.swiftlogistics.wms.dto.PackageStatusDto;
 import com.swiftlogistics.wms.dto.WarehouseEventDto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 /**
  * Service for publishing messages to Kafka topics.
- * Handles package status updates and warehouse events.
+ * Handles package status updates and warehouse events. Sends are asynchronous in the Kafka
+ * producer itself, so callers hand records over on their own thread.
  */
 @Slf4j
 @Service
@@ -27,50 +29,88 @@ public class KafkaProducerService {
     /**
      * Publish a package status update to Kafka.
      */
-    @Async("kafkaTaskExecutor")
     public CompletableFuture<Void> publishPackageStatus(PackageStatusDto packageStatus) {
-        String topic = wmsProperties.getKafka().getTopics().getPackageStatus();
-        String key = packageStatus.getTrackingId();
-        
-        log.info("Publishing package status update for tracking ID: {} to topic: {}", 
-                key, topic);
-        
-        return kafkaTemplate.send(topic, key, packageStatus)
-                .thenAccept(result -> {
-                    log.debug("Package status published successfully: {}", result.getRecordMetadata());
-                })
-                .exceptionally(ex -> {
-                    log.error("Failed to publish package status for tracking ID: {}", key, ex);
-                    return null;
-                });
+        return send(packageStatusRecord(packageStatus));
     }
 
     /**
      * Publish a warehouse event to Kafka.
      */
-    @Async("kafkaTaskExecutor")
     public CompletableFuture<Void> publishWarehouseEvent(WarehouseEventDto event) {
-        String topic = wmsProperties.getKafka().getTopics().getWarehouseEvents();
-        String key = event.getTrackingId() != null ? event.getTrackingId() : event.getOrderId();
-        
-        log.info("Publishing warehouse event: {} for tracking ID: {} to topic: {}", 
-                event.getEventType(), key, topic);
-        
-        return kafkaTemplate.send(topic, key, event)
-                .thenAccept(result -> {
-                    log.debug("Warehouse event published successfully: {}", result.getRecordMetadata());
-                })
-                .exceptionally(ex -> {
-                    log.error("Failed to publish warehouse event: {} for tracking ID: {}", 
-                            event.getEventType(), key, ex);
-                    return null;
-                });
+        return send(warehouseEventRecord(event));
+    }
+
+    /**
+     * Record of a package status update, keyed by tracking ID.
+     */
+    public ProducerRecord<String, Object> packageStatusRecord(PackageStatusDto packageStatus) {
+        return new ProducerRecord<>(wmsProperties.getKafka().getTopics().getPackageStatus(),
+                packageStatus.getTrackingId(), packageStatus);
+    }
+
+    /**
+     * Record of a warehouse event, keyed by tracking ID like package status so both topics
+     * partition a package alike; events without a package are keyed by order ID.
+     */
+    public ProducerRecord<String, Object> warehouseEventRecord(WarehouseEventDto event) {
+        return new ProducerRecord<>(wmsProperties.getKafka().getTopics().getWarehouseEvents(),
+                event.getTrackingId() != null ? event.getTrackingId() : event.getOrderId(), event);
+    }
+
+    /**
+     * Publish the records of one business operation together, in order. With Kafka transactions
+     * enabled they are committed atomically across topics, and the call returns once the commit is
+     * acknowledged; otherwise they are handed to the producer back to back without waiting.
+     * Failures are logged, never thrown, as callers have already committed to the database.
+     */
+    public void publishAll(List<ProducerRecord<String, Object>> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        if (!kafkaTemplate.isTransactional()) {
+            records.forEach(this::send);
+            return;
+        }
+        try {
+            kafkaTemplate.executeInTransaction(operations -> {
+                records.forEach(record -> operations.send(record));
+                return null;
+            });
+            log.debug("Published {} records in one Kafka transaction", records.size());
+        } catch (Exception e) {
+            log.error("Failed to publish {} records for key(s) {} in a Kafka transaction", records.size(),
+                    records.stream().map(ProducerRecord::key).distinct().toList(), e);
+        }
+    }
+
+    private CompletableFuture<Void> send(ProducerRecord<String, Object> record) {
+        log.info("Publishing {} for key: {} to topic: {}", record.value().getClass().getSimpleName(),
+                record.key(), record.topic());
+
+        try {
+            return kafkaTemplate.send(record)
+                    .thenAccept(result -> {
+                        log.debug("Record published successfully: {}", result.getRecordMetadata());
+                    })
+                    .exceptionally(ex -> {
+                        logFailure(record, ex);
+                        return null;
+                    });
+        } catch (RuntimeException e) {
+            // e.g. no metadata within max.block.ms; callers run after their commit and must not fail
+            logFailure(record, e);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private void logFailure(ProducerRecord<String, Object> record, Throwable ex) {
+        log.error("Failed to publish {} for key: {} to topic: {}",
+                record.value().getClass().getSimpleName(), record.key(), record.topic(), ex);
     }
 
     /**
      * Publish a dispatch event to Kafka.
      */
-    @Async("kafkaTaskExecutor")
     public CompletableFuture<Void> publishDispatchEvent(Object dispatchEvent, String trackingId) {
         String topic = wmsProperties.getKafka().getTopics().getDispatchEvents();
         String key = trackingId;
@@ -0,0 +1,209 @@
+package com.swiftlogistics.wms.service;
+
+import com.swiftlogistics.wms.config.WmsProperties;
+import com.swiftlogistics.wms.dto.OrderDto;
+import com.swiftlogistics.wms.repository.PackageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Drops redelivered orders before any database work.
+ * A bounded in-memory Bloom filter answers "definitely new" for almost every fresh order;
+ * only possible repeats are confirmed against the packages table. With Redis enabled each
+ * order is also claimed with SETNX so redeliveries to another adapter instance are caught; a claim
+ * only drops the order once the database confirms the package, since the instance holding it may
+ * have died before committing. Anything that slips through is stopped by the unique tracking ID constraint.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderDeduplicationService {
+
+    private static final String REDIS_KEY_PREFIX = "wms:order-seen:";
+
+    private final PackageRepository packageRepository;
+    private final WmsProperties wmsProperties;
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<StringRedisTemplate> redisTemplate;
+
+    private BloomFilter seenFilter;
+    private Counter receivedCounter;
+
+    @PostConstruct
+    public void init() {
+        WmsProperties.Ingestion.Dedup config = wmsProperties.getIngestion().getDedup();
+        seenFilter = new BloomFilter(config.getExpectedOrders(), config.getFalsePositiveRate());
+        receivedCounter = meterRegistry.counter("wms.orders.received");
+    }
+
+    /**
+     * Claim an order for ingestion.
+     *
+     * @return false if the order was already ingested and should be skipped
+     */
+    public boolean claim(OrderDto orderDto) {
+        receivedCounter.increment();
+        WmsProperties.Ingestion.Dedup config = wmsProperties.getIngestion().getDedup();
+        if (!config.isEnabled()) {
+            return true;
+        }
+
+        String key = orderDto.getOrderId() + ":" + orderDto.getTrackingId();
+        boolean checkedDatabase = seenFilter.mightContain(key);
+        if (checkedDatabase && existsInDatabase(orderDto)) {
+            recordDuplicate(orderDto, "database");
+            return false;
+        }
+        if (config.isRedisEnabled() && !claimInRedis(key, config.getRedisTtl())) {
+            // The claim may belong to an instance that died before its package committed
+            if (!checkedDatabase && existsInDatabase(orderDto)) {
+                recordDuplicate(orderDto, "redis");
+                return false;
+            }
+            log.info("Order {} is claimed in Redis but has no package yet, processing it", orderDto.getOrderId());
+        }
+
+        seenFilter.put(key);
+        return true;
+    }
+
+    /**
+     * Remember an order whose package was created outside normal ingestion, e.g. by a bulk import,
+     * so a later delivery of the same order is checked against the database.
+     */
+    public void markIngested(OrderDto orderDto) {
+        if (wmsProperties.getIngestion().getDedup().isEnabled()) {
+            seenFilter.put(orderDto.getOrderId() + ":" + orderDto.getTrackingId());
+        }
+    }
+
+    /**
+     * Give up a claim for an order whose package could not be created, so a redelivery is processed.
+     * The in-memory filter cannot forget keys; its hits are confirmed against the database anyway.
+     */
+    public void release(OrderDto orderDto) {
+        WmsProperties.Ingestion.Dedup config = wmsProperties.getIngestion().getDedup();
+        if (!config.isEnabled() || !config.isRedisEnabled()) {
+            return;
+        }
+        try {
+            redisTemplate.getObject().delete(REDIS_KEY_PREFIX + orderDto.getOrderId() + ":" + orderDto.getTrackingId());
+        } catch (Exception e) {
+            log.warn("Could not release Redis claim for order {}: {}", orderDto.getOrderId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Count a duplicate detected after the filter, e.g. by the unique tracking ID constraint.
+     */
+    public void recordDuplicate(OrderDto orderDto, String detectedBy) {
+        log.info("Skipping duplicate order {} with tracking ID {} (detected by {})",
+                orderDto.getOrderId(), orderDto.getTrackingId(), detectedBy);
+        meterRegistry.counter("wms.orders.duplicates", "detected_by", detectedBy).increment();
+    }
+
+    private boolean existsInDatabase(OrderDto orderDto) {
+        return packageRepository.existsByTrackingIdAndOrderId(orderDto.getTrackingId(), orderDto.getOrderId());
+    }
+
+    private boolean claimInRedis(String key, long ttlMillis) {
+        try {
+            Boolean claimed = redisTemplate.getObject()
+                    .opsForValue()
+                    .setIfAbsent(REDIS_KEY_PREFIX + key, "1", Duration.ofMillis(ttlMillis));
+            return !Boolean.FALSE.equals(claimed);
+        } catch (Exception e) {
+            // Redis being down must not stop ingestion; the unique constraint still guards the table
+            log.warn("Redis order claim failed, continuing without it: {}", e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * Lock-free Bloom filter over a fixed bit array. Once it holds its expected number of keys
+     * it is cleared, which keeps the false positive rate bounded at the cost of forgetting
+     * older keys; those fall through to Redis or the unique constraint.
+     */
+    private static final class BloomFilter {
+
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+        private final long capacity;
+        private final AtomicLong insertions = new AtomicLong();
+
+        BloomFilter(long expectedInsertions, double falsePositiveRate) {
+            long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bits = new AtomicLongArray(Math.toIntExact((optimalBits + 63) / 64));
+            this.bitCount = bits.length() * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+            this.capacity = expectedInsertions;
+        }
+
+        boolean mightContain(String key) {
+            long hash1 = hash(key);
+            long hash2 = mix(hash1) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void put(String key) {
+            if (insertions.incrementAndGet() > capacity) {
+                clear();
+            }
+            long hash1 = hash(key);
+            long hash2 = mix(hash1) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = bits.get(word);
+                } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        private synchronized void clear() {
+            if (insertions.get() <= capacity) {
+                return;
+            }
+            for (int i = 0; i < bits.length(); i++) {
+                bits.set(i, 0);
+            }
+            insertions.set(1);
+            log.info("Order dedup filter reached {} keys and was reset", capacity);
+        }
+
+        // 64-bit FNV-1a finished with a mixer so that similar IDs spread across the array
+        private static long hash(String key) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                hash ^= key.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return mix(hash);
+        }
+
+        private static long mix(long value) {
+            value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+            value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+            return value ^ (value >>> 31);
+        }
+    }
+}
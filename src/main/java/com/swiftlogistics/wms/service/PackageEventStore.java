@@ -0,0 +1,278 @@
+package com.swiftlogistics.wms.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiftlogistics.wms.config.WmsProperties;
+import com.swiftlogistics.wms.model.Package;
+import com.swiftlogistics.wms.model.PackageSnapshot;
+import com.swiftlogistics.wms.model.PackageStatus;
+import com.swiftlogistics.wms.model.WarehouseEvent;
+import com.swiftlogistics.wms.repository.PackageRepository;
+import com.swiftlogistics.wms.repository.PackageSnapshotRepository;
+import com.swiftlogistics.wms.repository.WarehouseEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Derives package state from the append-only warehouse event log.
+ * Each event with a {@code newStatus} moves the package to that status, and carries the location
+ * and notes of the change. State is the latest {@link PackageSnapshot} with the events appended
+ * after it folded on top. In event-sourced mode status changes only append events, and this is
+ * the source of truth for the mutable columns of {@link Package}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PackageEventStore {
+
+    private static final String NOTES_FIELD = "notes";
+    private static final int BATCH_SIZE = 500;
+
+    private final WarehouseEventRepository eventRepository;
+    private final PackageSnapshotRepository snapshotRepository;
+    private final PackageRepository packageRepository;
+    private final WmsProperties wmsProperties;
+    private final ObjectMapper objectMapper;
+
+    public boolean isEnabled() {
+        return wmsProperties.getEventSourcing().isEnabled();
+    }
+
+    /**
+     * Current state of a package. In event-sourced mode this is a detached copy of the row with its
+     * state rebuilt from the event log; otherwise the row itself, which is kept up to date in place.
+     */
+    public Package currentState(Package packageEntity) {
+        if (!isEnabled()) {
+            return packageEntity;
+        }
+
+        Optional<PackageSnapshot> snapshot = snapshotRepository
+                .findFirstByTrackingIdOrderByLastEventIdDesc(packageEntity.getTrackingId());
+        Package state = packageEntity.toBuilder().build();
+        snapshot.ifPresent(s -> apply(state, s));
+        eventRepository.findByTrackingIdAndIdGreaterThanOrderByIdAsc(
+                        packageEntity.getTrackingId(), snapshot.map(PackageSnapshot::getLastEventId).orElse(0L))
+                .forEach(event -> fold(state, event));
+        return state;
+    }
+
+    /**
+     * Current state of each package, as {@link #currentState}, loading the snapshots and events of up to
+     * {@value #BATCH_SIZE} packages per query.
+     */
+    public List<Package> currentStates(List<Package> packages) {
+        if (!isEnabled()) {
+            return packages;
+        }
+
+        List<Package> states = new ArrayList<>(packages.size());
+        for (int from = 0; from < packages.size(); from += BATCH_SIZE) {
+            List<Package> batch = packages.subList(from, Math.min(from + BATCH_SIZE, packages.size()));
+            List<String> trackingIds = batch.stream().map(Package::getTrackingId).toList();
+            Map<String, PackageSnapshot> snapshots = snapshotRepository.findLatestByTrackingIdIn(trackingIds).stream()
+                    .collect(Collectors.toMap(PackageSnapshot::getTrackingId, Function.identity(), (first, second) -> first));
+            Map<String, List<WarehouseEvent>> tails = eventRepository.findSinceLatestSnapshot(trackingIds).stream()
+                    .collect(Collectors.groupingBy(WarehouseEvent::getTrackingId));
+            for (Package packageEntity : batch) {
+                Package state = packageEntity.toBuilder().build();
+                PackageSnapshot snapshot = snapshots.get(packageEntity.getTrackingId());
+                if (snapshot != null) {
+                    apply(state, snapshot);
+                }
+                tails.getOrDefault(packageEntity.getTrackingId(), List.of()).forEach(event -> fold(state, event));
+                states.add(state);
+            }
+        }
+        return states;
+    }
+
+    /**
+     * Current state of the packages whose current status is the given one. In event-sourced mode the
+     * package rows trail the event log until the next snapshot, so the rows with that status are joined
+     * by the packages moved to it since their latest snapshot, and the folded states are filtered on it.
+     */
+    public List<Package> findByStatus(PackageStatus status) {
+        List<Package> rows = packageRepository.findByStatus(status);
+        if (!isEnabled()) {
+            return rows;
+        }
+
+        Map<String, Package> candidates = new LinkedHashMap<>();
+        rows.forEach(row -> candidates.put(row.getTrackingId(), row));
+        List<String> moved = eventRepository.findTrackingIdsMovedToStatusSinceSnapshot(status).stream()
+                .filter(trackingId -> !candidates.containsKey(trackingId))
+                .toList();
+        for (int from = 0; from < moved.size(); from += BATCH_SIZE) {
+            packageRepository.findByTrackingIdIn(moved.subList(from, Math.min(from + BATCH_SIZE, moved.size())))
+                    .forEach(row -> candidates.put(row.getTrackingId(), row));
+        }
+        return currentStates(new ArrayList<>(candidates.values())).stream()
+                .filter(state -> state.getStatus() == status)
+                .toList();
+    }
+
+    /**
+     * Count packages grouped by current status, as [status, count] rows. In event-sourced mode packages
+     * with status changes since their latest snapshot are moved from their row's status to their current one.
+     */
+    public List<Object[]> countGroupedByStatus() {
+        List<Object[]> rows = new ArrayList<>(packageRepository.countGroupedByStatus());
+        if (isEnabled()) {
+            addMoves(rows, eventRepository.findStatusChangesSinceSnapshot());
+        }
+        return rows;
+    }
+
+    /**
+     * Count packages grouped by current location, as [location, count] rows, corrected in event-sourced
+     * mode as {@link #countGroupedByStatus} is.
+     */
+    public List<Object[]> countGroupedByCurrentLocation() {
+        List<Object[]> rows = new ArrayList<>(packageRepository.countGroupedByCurrentLocation());
+        if (isEnabled()) {
+            addMoves(rows, eventRepository.findLocationChangesSinceSnapshot());
+        }
+        return rows;
+    }
+
+    /**
+     * State of a package as it was at the given time, rebuilt from the latest snapshot taken no later
+     * than that time and the events after it. Empty if the package did not exist yet.
+     */
+    public Optional<Package> stateAt(Package packageEntity, LocalDateTime at) {
+        if (packageEntity.getCreatedAt() != null && packageEntity.getCreatedAt().isAfter(at)) {
+            return Optional.empty();
+        }
+
+        Optional<PackageSnapshot> snapshot = snapshotRepository
+                .findFirstByTrackingIdAndStateAtLessThanEqualOrderByLastEventIdDesc(packageEntity.getTrackingId(), at);
+        Package state = packageEntity.toBuilder()
+                .status(PackageStatus.RECEIVED)
+                .currentLocation(packageEntity.getOrigin())
+                .actualDeliveryDate(null)
+                .notes(null)
+                .updatedAt(packageEntity.getCreatedAt())
+                .build();
+        snapshot.ifPresent(s -> apply(state, s));
+        eventRepository.findByTrackingIdAndIdGreaterThanAndEventTimestampLessThanEqualOrderByIdAsc(
+                        packageEntity.getTrackingId(), snapshot.map(PackageSnapshot::getLastEventId).orElse(0L), at)
+                .forEach(event -> fold(state, event));
+        return Optional.of(state);
+    }
+
+    /**
+     * Fold the events of a package appended since its last snapshot, up to the given event ID, into a new
+     * snapshot, and refresh the package row from it so status-indexed queries see the new state.
+     * Must run inside a transaction.
+     *
+     * @return whether a snapshot was written
+     */
+    public boolean snapshot(String trackingId, long upToEventId) {
+        Package packageEntity = packageRepository.findByTrackingId(trackingId).orElse(null);
+        if (packageEntity == null) {
+            // Events of orders that never got a package, e.g. ingestion errors
+            return false;
+        }
+
+        Optional<PackageSnapshot> previous = snapshotRepository.findFirstByTrackingIdOrderByLastEventIdDesc(trackingId);
+        List<WarehouseEvent> tail = eventRepository.findByTrackingIdAndIdGreaterThanOrderByIdAsc(
+                        trackingId, previous.map(PackageSnapshot::getLastEventId).orElse(0L)).stream()
+                .filter(event -> event.getId() <= upToEventId)
+                .toList();
+        if (tail.isEmpty()) {
+            return false;
+        }
+
+        Package state = packageEntity.toBuilder().build();
+        previous.ifPresent(s -> apply(state, s));
+        tail.forEach(event -> fold(state, event));
+        WarehouseEvent last = tail.get(tail.size() - 1);
+
+        snapshotRepository.save(PackageSnapshot.builder()
+                .trackingId(trackingId)
+                .lastEventId(last.getId())
+                .stateAt(last.getEventTimestamp())
+                .status(state.getStatus())
+                .currentLocation(state.getCurrentLocation())
+                .actualDeliveryDate(state.getActualDeliveryDate())
+                .notes(state.getNotes())
+                .build());
+        packageRepository.refreshState(trackingId, state.getStatus(), state.getCurrentLocation(), state.getNotes(),
+                state.getActualDeliveryDate(), LocalDateTime.now());
+        return true;
+    }
+
+    /**
+     * Event metadata recording the notes of a state change, or null when there are none.
+     */
+    public String metadataFor(String notes) {
+        if (notes == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(Map.of(NOTES_FIELD, notes));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize event metadata", e);
+        }
+    }
+
+    private static void addMoves(List<Object[]> counts, List<Object[]> moves) {
+        for (Object[] move : moves) {
+            counts.add(new Object[] {move[0], -1L});
+            counts.add(new Object[] {move[1], 1L});
+        }
+    }
+
+    private void apply(Package state, PackageSnapshot snapshot) {
+        state.setStatus(snapshot.getStatus());
+        state.setCurrentLocation(snapshot.getCurrentLocation());
+        state.setActualDeliveryDate(snapshot.getActualDeliveryDate());
+        state.setNotes(snapshot.getNotes());
+        state.setUpdatedAt(snapshot.getStateAt());
+    }
+
+    private void fold(Package state, WarehouseEvent event) {
+        if (event.getNewStatus() == null) {
+            // Errors and other informational events do not change state
+            return;
+        }
+
+        state.setStatus(event.getNewStatus());
+        if (event.getLocation() != null) {
+            state.setCurrentLocation(event.getLocation());
+        }
+        String notes = notesOf(event);
+        if (notes != null) {
+            state.setNotes(notes);
+        }
+        if (event.getNewStatus() == PackageStatus.DELIVERED) {
+            state.setActualDeliveryDate(event.getEventTimestamp());
+        }
+        state.setUpdatedAt(event.getEventTimestamp());
+    }
+
+    private String notesOf(WarehouseEvent event) {
+        if (event.getMetadata() == null) {
+            return null;
+        }
+        try {
+            JsonNode notes = objectMapper.readTree(event.getMetadata()).get(NOTES_FIELD);
+            return notes != null && notes.isTextual() ? notes.asText() : null;
+        } catch (JsonProcessingException e) {
+            log.debug("Ignoring unreadable metadata on event {}", event.getId());
+            return null;
+        }
+    }
+}
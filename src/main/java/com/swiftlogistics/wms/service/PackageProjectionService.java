@@ -0,0 +1,424 @@
+package com.swiftlogistics.wms.service;
+
+import com.swiftlogistics.wms.config.WmsProperties;
+import com.swiftlogistics.wms.dto.OrderDto;
+import com.swiftlogistics.wms.dto.PackageRevision;
+import com.swiftlogistics.wms.dto.PackageStatusDto;
+import com.swiftlogistics.wms.dto.WarehouseEventDto;
+import com.swiftlogistics.wms.model.Package;
+import com.swiftlogistics.wms.model.PackageStatus;
+import com.swiftlogistics.wms.model.WarehouseEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.AbstractConsumerSeekAware;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * In-memory read model of packages for the query endpoints.
+ * Built from the orders, package-status and warehouse-events topics under its own consumer group,
+ * replaying each partition from the beginning on first assignment, so serving reads needs no
+ * database connection. Until the replay has reached the end offsets seen at assignment nothing is served
+ * from it, and callers fall back to the database. Views of delivered, failed and returned packages are evicted
+ * after {@code wms.projection.terminal-ttl}, so listings are answered from the status index only for active
+ * statuses. The view is eventually consistent; {@code wms.projection.lag} reports how far behind it is.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "wms.projection.enabled", havingValue = "true")
+public class PackageProjectionService extends AbstractConsumerSeekAware {
+
+    private static final int PROJECTED_TOPICS = 3;
+    private static final Comparator<WarehouseEvent> NEWEST_FIRST =
+            Comparator.comparing(WarehouseEvent::getEventTimestamp, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private final WmsProperties wmsProperties;
+    private final MeterRegistry meterRegistry;
+    private final ConsumerFactory<String, Object> consumerFactory;
+
+    private final Map<String, PackageView> views = new ConcurrentHashMap<>();
+    private final Map<PackageStatus, Set<String>> byStatus = new ConcurrentHashMap<>();
+    private final Set<TopicPartition> replayedPartitions = ConcurrentHashMap.newKeySet();
+    private final Set<String> assignedTopics = ConcurrentHashMap.newKeySet();
+    // End offset of each partition still being replayed, as seen when it was assigned
+    private final Map<TopicPartition, Long> replayEnds = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> lagByTopic = new ConcurrentHashMap<>();
+    // Revisions restart with the process, so tags carry the start time to stay unique
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("wms.projection.packages", views, Map::size)
+                .description("Packages held in the read model")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        super.onPartitionsAssigned(assignments, callback);
+        // The view lives in memory, so each partition is read from the start once per process
+        List<TopicPartition> firstSeen = assignments.keySet().stream().filter(replayedPartitions::add).toList();
+        if (!firstSeen.isEmpty()) {
+            log.info("Replaying {} into the package read model", firstSeen);
+            trackReplay(firstSeen);
+            callback.seekToBeginning(firstSeen);
+        }
+        assignments.keySet().forEach(partition -> assignedTopics.add(partition.topic()));
+    }
+
+    /**
+     * Whether every projected topic has been replayed up to the end offsets seen when it was assigned.
+     */
+    public boolean isCaughtUp() {
+        return assignedTopics.size() >= PROJECTED_TOPICS && replayEnds.isEmpty();
+    }
+
+    @KafkaListener(topics = "${wms.kafka.topics.orders:orders}",
+                   groupId = "${wms.projection.group-id}")
+    public void onOrder(ConsumerRecord<String, Object> record, Consumer<?, ?> consumer) {
+        if (record.value() instanceof OrderDto order && order.getTrackingId() != null) {
+            update(order.getTrackingId(), view -> view.withOrder(order));
+        }
+        recordProgress(record, consumer);
+    }
+
+    @KafkaListener(topics = "${wms.kafka.topics.package-status:package-status}",
+                   groupId = "${wms.projection.group-id}")
+    public void onPackageStatus(ConsumerRecord<String, Object> record, Consumer<?, ?> consumer) {
+        if (record.value() instanceof PackageStatusDto status && status.getTrackingId() != null) {
+            update(status.getTrackingId(), view -> view.withStatus(status));
+        }
+        recordProgress(record, consumer);
+    }
+
+    @KafkaListener(topics = "${wms.kafka.topics.warehouse-events:warehouse-events}",
+                   groupId = "${wms.projection.group-id}")
+    public void onWarehouseEvent(ConsumerRecord<String, Object> record, Consumer<?, ?> consumer) {
+        if (record.value() instanceof WarehouseEventDto event && event.getTrackingId() != null) {
+            update(event.getTrackingId(), view -> view.withEvent(event));
+        }
+        recordProgress(record, consumer);
+    }
+
+    /**
+     * Projected package, once the adapter has created it and the replay has caught up.
+     */
+    public Optional<Package> findPackage(String trackingId) {
+        return findView(trackingId).map(PackageView::toPackage);
+    }
+
+    /**
+     * Revision of a projected package, advanced by every change applied to its view.
+     */
+    public Optional<PackageRevision> findRevision(String trackingId) {
+        return findView(trackingId)
+                .map(view -> PackageRevision.builder().tag("p" + epoch + "-" + view.revision).status(view.status).build());
+    }
+
+    /**
+     * Projected history of a package, newest first.
+     */
+    public Optional<List<WarehouseEvent>> findHistory(String trackingId) {
+        return findView(trackingId).map(view -> view.history.stream().sorted(NEWEST_FIRST).toList());
+    }
+
+    /**
+     * Projected packages in an active status; empty when the view cannot answer, i.e. before the replay has
+     * caught up and for terminal statuses, whose views are evicted.
+     */
+    public Optional<List<Package>> findByStatus(PackageStatus status) {
+        if (status.isTerminal() || !isCaughtUp()) {
+            return Optional.empty();
+        }
+        return Optional.of(list(byStatus.get(status), view -> view.status == status));
+    }
+
+    /**
+     * Drop views of orders that never became packages, e.g. rejected or duplicate orders, and of packages
+     * that reached a terminal status more than {@code wms.projection.terminal-ttl} ago.
+     * Terminal views are kept until the replay has caught up, so late records of the other topics
+     * cannot recreate a partial view of an evicted package.
+     */
+    @Scheduled(fixedDelayString = "${wms.projection.eviction-interval:60000}")
+    public void evict() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime orphanCutoff = now.minus(Duration.ofMillis(wmsProperties.getProjection().getOrphanTtl()));
+        LocalDateTime terminalCutoff = now.minus(Duration.ofMillis(wmsProperties.getProjection().getTerminalTtl()));
+        boolean caughtUp = isCaughtUp();
+        views.forEach((trackingId, view) -> {
+            if (isEvictable(view, orphanCutoff, terminalCutoff, caughtUp)) {
+                views.computeIfPresent(trackingId, (key, current) -> {
+                    if (!isEvictable(current, orphanCutoff, terminalCutoff, caughtUp)) {
+                        return current;
+                    }
+                    reindex(byStatus, key, current.status, null);
+                    return null;
+                });
+            }
+        });
+    }
+
+    private static boolean isEvictable(PackageView view, LocalDateTime orphanCutoff, LocalDateTime terminalCutoff,
+                                       boolean caughtUp) {
+        if (!view.isCreated()) {
+            return view.seenAt.isBefore(orphanCutoff);
+        }
+        return caughtUp && view.status.isTerminal()
+                && (view.updatedAt == null || view.updatedAt.isBefore(terminalCutoff));
+    }
+
+    private Optional<PackageView> findView(String trackingId) {
+        if (!isCaughtUp()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(views.get(trackingId)).filter(PackageView::isCreated);
+    }
+
+    /**
+     * Note where the replay of newly assigned partitions ends; empty partitions need no replay.
+     */
+    private void trackReplay(Collection<TopicPartition> partitions) {
+        try (Consumer<String, Object> consumer =
+                     consumerFactory.createConsumer(wmsProperties.getProjection().getGroupId(), "-replay")) {
+            Map<TopicPartition, Long> beginnings = consumer.beginningOffsets(partitions);
+            consumer.endOffsets(partitions).forEach((partition, end) -> {
+                if (end > beginnings.getOrDefault(partition, 0L)) {
+                    replayEnds.put(partition, end);
+                }
+            });
+        }
+    }
+
+    private void update(String trackingId, Function<PackageView, PackageView> change) {
+        views.compute(trackingId, (key, current) -> {
+            PackageView previous = current != null ? current : new PackageView(trackingId);
+            PackageView next = change.apply(previous);
+            reindex(byStatus, key, previous.status, next.status);
+            return next;
+        });
+    }
+
+    private static <K> void reindex(Map<K, Set<String>> index, String trackingId, K previous, K next) {
+        if (Objects.equals(previous, next)) {
+            return;
+        }
+        if (previous != null) {
+            Set<String> trackingIds = index.get(previous);
+            if (trackingIds != null) {
+                trackingIds.remove(trackingId);
+            }
+        }
+        if (next != null) {
+            index.computeIfAbsent(next, key -> ConcurrentHashMap.newKeySet()).add(trackingId);
+        }
+    }
+
+    private List<Package> list(Collection<String> trackingIds, Predicate<PackageView> stillMatches) {
+        if (trackingIds == null) {
+            return List.of();
+        }
+        List<Package> packages = new ArrayList<>();
+        for (String trackingId : trackingIds) {
+            PackageView view = views.get(trackingId);
+            // Indexes are updated alongside the view, so re-check against the view itself
+            if (view != null && view.isCreated() && stillMatches.test(view)) {
+                packages.add(view.toPackage());
+            }
+        }
+        return packages;
+    }
+
+    private void recordProgress(ConsumerRecord<?, ?> record, Consumer<?, ?> consumer) {
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        Long end = replayEnds.get(partition);
+        // The position also passes transaction markers, which never arrive as records; it leads by at most one poll
+        if (end != null && (record.offset() + 1 >= end || consumer.position(partition) >= end)) {
+            replayEnds.remove(partition);
+            if (isCaughtUp()) {
+                log.info("Package read model has caught up with its topics");
+            }
+        }
+
+        lagByTopic.computeIfAbsent(record.topic(), topic -> {
+            AtomicLong lag = new AtomicLong();
+            Gauge.builder("wms.projection.lag", lag, AtomicLong::get)
+                    .description("Milliseconds between a record being produced and applied to the read model")
+                    .tag("topic", topic)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+            return lag;
+        }).set(Math.max(0, System.currentTimeMillis() - record.timestamp()));
+    }
+
+    /**
+     * Projected state of one package. Copied on every change, so readers never see a half-applied update.
+     */
+    private static final class PackageView {
+
+        private final String trackingId;
+        private final LocalDateTime seenAt;
+        private final long revision;
+        private OrderDto order;
+        private String orderId;
+        private PackageStatus status;
+        private String currentLocation;
+        private String customerId;
+        private String carrierId;
+        private LocalDateTime expectedDeliveryDate;
+        private LocalDateTime actualDeliveryDate;
+        private LocalDateTime updatedAt;
+        private String notes;
+        private List<WarehouseEvent> history = List.of();
+        private Set<String> eventIds = Set.of();
+
+        PackageView(String trackingId) {
+            this.trackingId = trackingId;
+            this.seenAt = LocalDateTime.now();
+            this.revision = 0;
+        }
+
+        private PackageView(PackageView source) {
+            this.trackingId = source.trackingId;
+            this.seenAt = source.seenAt;
+            this.revision = source.revision + 1;
+            this.order = source.order;
+            this.orderId = source.orderId;
+            this.status = source.status;
+            this.currentLocation = source.currentLocation;
+            this.customerId = source.customerId;
+            this.carrierId = source.carrierId;
+            this.expectedDeliveryDate = source.expectedDeliveryDate;
+            this.actualDeliveryDate = source.actualDeliveryDate;
+            this.updatedAt = source.updatedAt;
+            this.notes = source.notes;
+            this.history = source.history;
+            this.eventIds = source.eventIds;
+        }
+
+        /**
+         * A package exists once the adapter has reported a status for it.
+         */
+        boolean isCreated() {
+            return status != null;
+        }
+
+        PackageView withOrder(OrderDto order) {
+            PackageView next = new PackageView(this);
+            next.order = order;
+            next.orderId = order.getOrderId();
+            next.customerId = order.getCustomerId();
+            if (next.currentLocation == null) {
+                next.currentLocation = order.getOrigin();
+            }
+            if (next.expectedDeliveryDate == null) {
+                next.expectedDeliveryDate = order.getExpectedDeliveryDate();
+            }
+            if (next.notes == null) {
+                next.notes = order.getSpecialInstructions();
+            }
+            return next;
+        }
+
+        PackageView withStatus(PackageStatusDto status) {
+            if (updatedAt != null && status.getTimestamp() != null && status.getTimestamp().isBefore(updatedAt)) {
+                // Older than what the view already reflects
+                return this;
+            }
+            PackageView next = new PackageView(this);
+            next.orderId = status.getOrderId() != null ? status.getOrderId() : orderId;
+            next.status = status.getStatus();
+            next.currentLocation = status.getLocation() != null ? status.getLocation() : currentLocation;
+            next.carrierId = status.getCarrierId() != null ? status.getCarrierId() : carrierId;
+            next.expectedDeliveryDate = status.getEstimatedDelivery() != null ? status.getEstimatedDelivery() : expectedDeliveryDate;
+            next.actualDeliveryDate = status.getActualDelivery();
+            next.notes = status.getNotes() != null ? status.getNotes() : notes;
+            next.updatedAt = status.getTimestamp();
+            return next;
+        }
+
+        PackageView withEvent(WarehouseEventDto event) {
+            if (event.getEventId() != null && eventIds.contains(event.getEventId())) {
+                return this;
+            }
+            PackageView next = new PackageView(this);
+            List<WarehouseEvent> history = new ArrayList<>(this.history);
+            history.add(WarehouseEvent.builder()
+                    .eventType(event.getEventType())
+                    .trackingId(event.getTrackingId())
+                    .orderId(event.getOrderId())
+                    .previousStatus(event.getPreviousStatus())
+                    .newStatus(event.getNewStatus())
+                    .location(event.getLocation())
+                    .description(event.getDescription())
+                    .metadata(event.getMetadata())
+                    .source(event.getSource())
+                    .eventTimestamp(event.getTimestamp())
+                    .createdAt(event.getTimestamp())
+                    .build());
+            next.history = List.copyOf(history);
+            if (event.getEventId() != null) {
+                Set<String> eventIds = new HashSet<>(this.eventIds);
+                eventIds.add(event.getEventId());
+                next.eventIds = Set.copyOf(eventIds);
+            }
+            if (next.orderId == null) {
+                next.orderId = event.getOrderId();
+            }
+            // The creation event carries the initial status; later statuses arrive on package-status
+            if (next.status == null && event.getNewStatus() != null) {
+                next.status = event.getNewStatus();
+                next.updatedAt = event.getTimestamp();
+                if (event.getLocation() != null) {
+                    next.currentLocation = event.getLocation();
+                }
+            }
+            return next;
+        }
+
+        Package toPackage() {
+            return Package.builder()
+                    .trackingId(trackingId)
+                    .orderId(orderId)
+                    .status(status)
+                    .origin(order != null ? order.getOrigin() : null)
+                    .destination(order != null ? order.getDestination() : null)
+                    .currentLocation(currentLocation)
+                    .weight(order != null ? order.getWeight() : null)
+                    .dimensions(order != null ? order.getDimensions() : null)
+                    .customerId(customerId)
+                    .carrierId(carrierId)
+                    .expectedDeliveryDate(expectedDeliveryDate)
+                    .actualDeliveryDate(actualDeliveryDate)
+                    .createdAt(order != null && order.getCreatedAt() != null ? order.getCreatedAt() : seenAt)
+                    .updatedAt(updatedAt)
+                    .notes(notes)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.swiftlogistics.wms.service;
+
+import com.swiftlogistics.wms.config.WmsProperties;
+import com.swiftlogistics.wms.dto.WmsTcpMessage;
+import com.swiftlogistics.wms.exception.WmsCommunicationException;
+import com.swiftlogistics.wms.model.Package;
+import com.swiftlogistics.wms.model.PackageStatus;
+import com.swiftlogistics.wms.model.ProcessingCheckpoint;
+import com.swiftlogistics.wms.repository.PackageRepository;
+import com.swiftlogistics.wms.repository.ProcessingCheckpointRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background job that keeps open packages in sync with the legacy WMS.
+ * Walks every non-terminal package with keyset pagination, queries the WMS with bounded
+ * parallelism and rate limiting, and applies each difference in its own transaction.
+ * Progress is checkpointed after each page so an interrupted run resumes where it stopped.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "wms.reconciliation.enabled", havingValue = "true")
+public class PackageReconciliationService {
+
+    static final String CHECKPOINT_NAME = "package-reconciliation";
+
+    private static final Set<PackageStatus> OPEN_STATUSES = EnumSet.complementOf(
+            EnumSet.of(PackageStatus.DELIVERED, PackageStatus.FAILED, PackageStatus.RETURNED));
+
+    private final PackageRepository packageRepository;
+    private final ProcessingCheckpointRepository checkpointRepository;
+    private final WmsTcpClientService tcpClientService;
+    private final PackageTrackingService packageTrackingService;
+    private final WmsProperties wmsProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong checkpointPosition = new AtomicLong();
+    private ExecutorService queryExecutor;
+    private RequestRateLimiter rateLimiter;
+
+    private Counter checkedCounter;
+    private Counter updatedCounter;
+    private Counter failedCounter;
+    private Timer runTimer;
+
+    @PostConstruct
+    public void init() {
+        WmsProperties.Reconciliation config = wmsProperties.getReconciliation();
+        AtomicInteger threadCount = new AtomicInteger();
+        queryExecutor = Executors.newFixedThreadPool(config.getParallelism(), runnable -> {
+            Thread thread = new Thread(runnable, "WMS-Reconcile-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        rateLimiter = new RequestRateLimiter(config.getMaxRequestsPerSecond());
+
+        checkedCounter = meterRegistry.counter("wms.reconciliation.packages.checked");
+        updatedCounter = meterRegistry.counter("wms.reconciliation.packages.updated");
+        failedCounter = meterRegistry.counter("wms.reconciliation.packages.failed");
+        runTimer = meterRegistry.timer("wms.reconciliation.run");
+        Gauge.builder("wms.reconciliation.checkpoint", checkpointPosition, AtomicLong::get)
+                .description("Last package ID reconciled in the current pass")
+                .register(meterRegistry);
+        Gauge.builder("wms.reconciliation.running", running, flag -> flag.get() ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (queryExecutor != null) {
+            queryExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Run one reconciliation pass, resuming from the stored checkpoint.
+     */
+    @Scheduled(fixedDelayString = "${wms.reconciliation.interval:300000}",
+               initialDelayString = "${wms.reconciliation.initial-delay:60000}")
+    public void reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            log.debug("Reconciliation already in progress, skipping");
+            return;
+        }
+
+        try {
+            runTimer.record(this::reconcileFromCheckpoint);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void reconcileFromCheckpoint() {
+        int pageSize = wmsProperties.getReconciliation().getPageSize();
+        ProcessingCheckpoint checkpoint = checkpointRepository.findById(CHECKPOINT_NAME)
+                .orElseGet(() -> ProcessingCheckpoint.builder().name(CHECKPOINT_NAME).position(0L).build());
+        checkpointPosition.set(checkpoint.getPosition());
+
+        log.info("Starting package reconciliation from package ID {}", checkpoint.getPosition());
+        long checked = 0;
+        long updated = 0;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Package> page = packageRepository.findByStatusInAndIdGreaterThanOrderByIdAsc(
+                    OPEN_STATUSES, checkpoint.getPosition(), Limit.of(pageSize));
+            if (page.isEmpty()) {
+                // Pass complete, start from the beginning next time
+                checkpoint.setPosition(0L);
+                checkpointRepository.save(checkpoint);
+                checkpointPosition.set(0L);
+                break;
+            }
+
+            List<WmsTcpMessage> changes = queryPage(page);
+            if (!changes.isEmpty()) {
+                int applied = packageTrackingService.applyStatusUpdates(changes);
+                updatedCounter.increment(applied);
+                updated += applied;
+            }
+            checked += page.size();
+
+            checkpoint.setPosition(page.get(page.size() - 1).getId());
+            checkpointRepository.save(checkpoint);
+            checkpointPosition.set(checkpoint.getPosition());
+        }
+
+        log.info("Package reconciliation finished: {} checked, {} updated", checked, updated);
+    }
+
+    /**
+     * Query the WMS for every package in the page and return the responses that differ from the stored status.
+     */
+    private List<WmsTcpMessage> queryPage(List<Package> page) {
+        List<CompletableFuture<WmsTcpMessage>> queries = new ArrayList<>(page.size());
+        for (Package packageEntity : page) {
+            queries.add(CompletableFuture.supplyAsync(() -> queryIfChanged(packageEntity), queryExecutor));
+        }
+
+        return queries.stream()
+                .map(CompletableFuture::join)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private WmsTcpMessage queryIfChanged(Package packageEntity) {
+        try {
+            rateLimiter.acquire();
+            WmsTcpMessage response = tcpClientService.queryPackageStatus(packageEntity.getTrackingId(), packageEntity.getOrigin());
+            checkedCounter.increment();
+
+            if (!"STATUS".equals(response.getMessageType()) || response.getStatus() == null) {
+                return null;
+            }
+            return response.getStatus().equalsIgnoreCase(packageEntity.getStatus().name()) ? null : response;
+
+        } catch (WmsCommunicationException e) {
+            failedCounter.increment();
+            log.debug("Reconciliation query failed for {}: {}", packageEntity.getTrackingId(), e.getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Minimal rate limiter spacing permits evenly at the configured rate.
+     */
+    private static final class RequestRateLimiter {
+
+        private final long intervalNanos;
+        private long nextPermitNanos = System.nanoTime();
+
+        RequestRateLimiter(double permitsPerSecond) {
+            this.intervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0;
+        }
+
+        void acquire() throws InterruptedException {
+            if (intervalNanos == 0) {
+                return;
+            }
+
+            long waitNanos;
+            synchronized (this) {
+                long now = System.nanoTime();
+                long permitAt = Math.max(now, nextPermitNanos);
+                nextPermitNanos = permitAt + intervalNanos;
+                waitNanos = permitAt - now;
+            }
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        }
+    }
+}
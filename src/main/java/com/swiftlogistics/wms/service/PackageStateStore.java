@@ -0,0 +1,581 @@
+package com.swiftlogistics.wms.service;
+
+import com.swiftlogistics.wms.config.WmsProperties;
+import com.swiftlogistics.wms.dto.PackageRevision;
+import com.swiftlogistics.wms.exception.IllegalStatusTransitionException;
+import com.swiftlogistics.wms.model.EventType;
+import com.swiftlogistics.wms.model.Package;
+import com.swiftlogistics.wms.model.PackageStatus;
+import com.swiftlogistics.wms.repository.PackageRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory state of the packages still moving through the warehouse.
+ * Entries are sharded by tracking ID hash, each shard behind its own lock, and kept compact:
+ * the status is a byte and locations and carriers are interned ids. Status transitions of held
+ * packages are checked and applied here without touching the database; a package changed inside a
+ * transaction is locked against other transactions until it completes and is restored on rollback.
+ * Committed events and row updates are queued in order for {@link PackageStateWriteBehind},
+ * which writes them in batches. Packages leave the store once a terminal status has been written.
+ * <p>
+ * At most {@code wms.state-store.max-pending-writes} transitions are queued. When the queue is full,
+ * packages with no transition pending leave the store and change through the database directly; transitions
+ * of the others wait up to {@code wms.state-store.wait-timeout} for room.
+ * <p>
+ * The store is authoritative for the packages it holds, so only one adapter instance may apply
+ * status changes while it is enabled. Queued writes are lost if the process dies.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "wms.state-store.enabled", havingValue = "true")
+public class PackageStateStore implements SmartInitializingSingleton {
+
+    /**
+     * Package fields a held entry can answer without the database.
+     */
+    public static final Set<String> FIELDS = Set.of("trackingId", "orderId", "status", "currentLocation",
+            "carrierId", "expectedDeliveryDate", "actualDeliveryDate", "notes", "updatedAt");
+
+    private static final PackageStatus[] STATUSES = PackageStatus.values();
+
+    private final PackageRepository packageRepository;
+    private final PackageEventStore eventStore;
+    private final PackageStatisticsService statisticsService;
+    private final TransactionTemplate transactionTemplate;
+    private final long waitTimeout;
+
+    private final Shard[] shards;
+    private final int shardMask;
+    private final Interner locations = new Interner();
+    private final Interner carriers = new Interner();
+    private final Queue<PendingTransition> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    // One permit per transition accepted and not yet written or dropped
+    private final Semaphore capacity;
+    // Revisions restart with the process, so tags carry the start time to stay unique
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    public PackageStateStore(PackageRepository packageRepository, PackageEventStore eventStore,
+                             PackageStatisticsService statisticsService, TransactionTemplate transactionTemplate,
+                             WmsProperties wmsProperties, MeterRegistry meterRegistry) {
+        this.packageRepository = packageRepository;
+        this.eventStore = eventStore;
+        this.statisticsService = statisticsService;
+        this.transactionTemplate = transactionTemplate;
+        this.waitTimeout = wmsProperties.getStateStore().getWaitTimeout();
+        this.capacity = new Semaphore(wmsProperties.getStateStore().getMaxPendingWrites());
+
+        int shardCount = Integer.highestOneBit(Math.max(1, wmsProperties.getStateStore().getShards() - 1)) << 1;
+        this.shards = new Shard[shardCount];
+        Arrays.setAll(shards, i -> new Shard());
+        this.shardMask = shardCount - 1;
+
+        Gauge.builder("wms.state_store.packages", this, PackageStateStore::size)
+                .description("Packages held in the in-memory state store")
+                .register(meterRegistry);
+        Gauge.builder("wms.state_store.pending_writes", pendingCount, AtomicInteger::get)
+                .description("Status transitions applied in memory and not yet written to the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Load every non-terminal package before listeners and schedulers start.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        int loaded = 0;
+        for (PackageStatus status : STATUSES) {
+            if (status.isTerminal()) {
+                continue;
+            }
+            List<Package> packages = transactionTemplate.execute(tx -> eventStore.findByStatus(status));
+            for (Package packageEntity : packages) {
+                put(packageEntity);
+                loaded++;
+            }
+        }
+        log.info("Loaded {} active packages into {} state store shards", loaded, shards.length);
+    }
+
+    /**
+     * Hold a newly created package once its creating transaction has committed.
+     */
+    public void track(Package packageEntity) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(packageEntity);
+                }
+            });
+        } else {
+            put(packageEntity);
+        }
+    }
+
+    /**
+     * Current state of a held package, with only the fields in {@link #FIELDS} set.
+     */
+    public Optional<Package> find(String trackingId) {
+        Shard shard = shardFor(trackingId);
+        shard.lock.lock();
+        try {
+            Entry entry = shard.entries.get(trackingId);
+            return entry == null ? Optional.empty() : Optional.of(toPackage(trackingId, entry));
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * A copy of the given package with the state of its held entry applied, or the package itself
+     * when it is not held.
+     */
+    public Package overlay(Package packageEntity) {
+        Shard shard = shardFor(packageEntity.getTrackingId());
+        shard.lock.lock();
+        try {
+            Entry entry = shard.entries.get(packageEntity.getTrackingId());
+            if (entry == null) {
+                return packageEntity;
+            }
+            return packageEntity.toBuilder()
+                    .status(STATUSES[entry.status])
+                    .currentLocation(locations.name(entry.location))
+                    .carrierId(carriers.name(entry.carrier))
+                    .notes(entry.notes)
+                    .actualDeliveryDate(entry.actualDeliveryDate)
+                    .updatedAt(entry.updatedAt)
+                    .build();
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Revision of a held package for HTTP caching, changing with every transition applied to it.
+     */
+    public Optional<PackageRevision> revision(String trackingId) {
+        Shard shard = shardFor(trackingId);
+        shard.lock.lock();
+        try {
+            Entry entry = shard.entries.get(trackingId);
+            return entry == null ? Optional.empty() : Optional.of(PackageRevision.builder()
+                    .tag("s" + epoch + "-" + entry.revision)
+                    .status(STATUSES[entry.status])
+                    .build());
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Apply a status transition to a held package. Inside a transaction the package stays locked
+     * against other transactions until it completes: its writes are queued on commit and the change
+     * is undone on rollback. Without one the writes are queued right away. A null location or notes
+     * keeps the current value.
+     *
+     * @return the package as it was before the transition, or empty if the package is not held
+     * @throws IllegalStatusTransitionException if the transition table does not allow the change
+     * @throws TransientDataAccessResourceException if the write queue stayed full, or the package locked
+     *         by another transaction, for the wait timeout
+     */
+    public Optional<Package> transition(String trackingId, PackageStatus newStatus, String location, String notes,
+                                        EventType eventType, String description, LocalDateTime now)
+            throws IllegalStatusTransitionException {
+        if (!capacity.tryAcquire()) {
+            if (releaseIfIdle(trackingId)) {
+                return Optional.empty();
+            }
+            awaitCapacity(trackingId);
+        }
+
+        boolean accepted = false;
+        Shard shard = shardFor(trackingId);
+        shard.lock.lock();
+        try {
+            Entry entry = awaitOwnership(shard, trackingId);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            PackageStatus current = STATUSES[entry.status];
+            if (!current.canTransitionTo(newStatus)) {
+                statisticsService.recordRejectedTransition(current, newStatus);
+                throw new IllegalStatusTransitionException(trackingId, current, newStatus);
+            }
+
+            boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+            if (inTransaction && entry.owner == null) {
+                entry.owner = Thread.currentThread();
+                entry.saved = entry.copy();
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        complete(trackingId, status == STATUS_COMMITTED);
+                    }
+                });
+            }
+
+            Package previous = toPackage(trackingId, entry);
+            entry.status = (byte) newStatus.ordinal();
+            if (location != null) {
+                entry.location = locations.intern(location);
+            }
+            if (notes != null) {
+                entry.notes = notes;
+            }
+            if (newStatus == PackageStatus.DELIVERED) {
+                entry.actualDeliveryDate = now;
+            }
+            entry.updatedAt = now;
+            entry.revision++;
+            entry.queued++;
+
+            PendingTransition transition = PendingTransition.builder()
+                    .previous(previous)
+                    .newStatus(newStatus)
+                    .location(locations.name(entry.location))
+                    .notes(notes)
+                    .stateNotes(entry.notes)
+                    .actualDeliveryDate(entry.actualDeliveryDate)
+                    .eventType(eventType)
+                    .description(description)
+                    .timestamp(now)
+                    .revision(entry.revision)
+                    .build();
+            // Queued under the shard lock, so the writes of one package keep their order
+            if (inTransaction) {
+                entry.uncommitted.add(transition);
+            } else {
+                pendingWrites.add(transition);
+                pendingCount.incrementAndGet();
+            }
+            accepted = true;
+            return Optional.of(previous);
+        } finally {
+            shard.lock.unlock();
+            if (!accepted) {
+                capacity.release();
+            }
+        }
+    }
+
+    /**
+     * Wait until no other transaction holds the package. Called with the shard lock held.
+     *
+     * @return the held entry, or null if the package is not held
+     */
+    private Entry awaitOwnership(Shard shard, String trackingId) {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(waitTimeout);
+        while (true) {
+            Entry entry = shard.entries.get(trackingId);
+            if (entry == null || entry.owner == null || entry.owner == Thread.currentThread()) {
+                return entry;
+            }
+            try {
+                remaining = shard.released.awaitNanos(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                remaining = 0;
+            }
+            if (remaining <= 0) {
+                throw new TransientDataAccessResourceException(
+                        "Package " + trackingId + " is locked by another transaction");
+            }
+        }
+    }
+
+    /**
+     * Queue the writes of a package's transitions once their transaction commits, or undo them on rollback.
+     */
+    private void complete(String trackingId, boolean committed) {
+        Shard shard = shardFor(trackingId);
+        int abandoned = 0;
+        shard.lock.lock();
+        try {
+            // Held while it has transitions pending, so still present
+            Entry entry = shard.entries.get(trackingId);
+            if (committed) {
+                pendingWrites.addAll(entry.uncommitted);
+                pendingCount.addAndGet(entry.uncommitted.size());
+            } else {
+                abandoned = entry.uncommitted.size();
+                entry.restore(entry.saved);
+                // Keep tags of the undone state from coming back
+                entry.revision++;
+                entry.queued -= abandoned;
+            }
+            entry.owner = null;
+            entry.saved = null;
+            entry.uncommitted = new ArrayList<>(0);
+            shard.released.signalAll();
+        } finally {
+            shard.lock.unlock();
+        }
+        capacity.release(abandoned);
+    }
+
+    /**
+     * With the queue full, drop a package that has nothing accepted or queued from the store, so its transitions
+     * go straight to the database.
+     *
+     * @return whether the package is not held (any more)
+     */
+    private boolean releaseIfIdle(String trackingId) {
+        Shard shard = shardFor(trackingId);
+        shard.lock.lock();
+        try {
+            Entry entry = shard.entries.get(trackingId);
+            if (entry != null && entry.queued > 0) {
+                return false;
+            }
+            if (entry != null) {
+                shard.entries.remove(trackingId);
+                log.debug("State store write queue full, writing {} directly", trackingId);
+            }
+            return true;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    private void awaitCapacity(String trackingId) {
+        try {
+            if (capacity.tryAcquire(waitTimeout, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw new TransientDataAccessResourceException(
+                "State store write queue full, cannot queue status change of " + trackingId);
+    }
+
+    /**
+     * Take up to {@code max} queued transitions, oldest first.
+     */
+    public List<PendingTransition> drain(int max) {
+        List<PendingTransition> batch = new ArrayList<>(Math.min(max, pendingCount.get()));
+        PendingTransition next;
+        while (batch.size() < max && (next = pendingWrites.poll()) != null) {
+            batch.add(next);
+        }
+        pendingCount.addAndGet(-batch.size());
+        return batch;
+    }
+
+    /**
+     * Free the queue room of written or dead-lettered transitions, and drop packages whose terminal status is now in the
+     * database, unless they moved on since.
+     */
+    public void written(List<PendingTransition> batch) {
+        for (PendingTransition transition : batch) {
+            String trackingId = transition.getPrevious().getTrackingId();
+            Shard shard = shardFor(trackingId);
+            shard.lock.lock();
+            try {
+                Entry entry = shard.entries.get(trackingId);
+                if (entry == null) {
+                    continue;
+                }
+                entry.queued--;
+                entry.writtenRevision = Math.max(entry.writtenRevision, transition.getRevision());
+                removeIfDone(shard, trackingId, entry);
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        capacity.release(batch.size());
+    }
+
+    /**
+     * Drop a package whose terminal status is written, unless a transition of it is still pending.
+     * Called with the shard lock held.
+     */
+    private static void removeIfDone(Shard shard, String trackingId, Entry entry) {
+        if (STATUSES[entry.status].isTerminal() && entry.queued == 0 && entry.writtenRevision == entry.revision) {
+            shard.entries.remove(trackingId);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                size += shard.entries.size();
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    private void put(Package packageEntity) {
+        if (packageEntity.getStatus() == null || packageEntity.getStatus().isTerminal()) {
+            return;
+        }
+        Entry entry = new Entry();
+        entry.orderId = packageEntity.getOrderId();
+        entry.status = (byte) packageEntity.getStatus().ordinal();
+        entry.location = locations.intern(packageEntity.getCurrentLocation());
+        entry.carrier = carriers.intern(packageEntity.getCarrierId());
+        entry.notes = packageEntity.getNotes();
+        entry.expectedDeliveryDate = packageEntity.getExpectedDeliveryDate();
+        entry.actualDeliveryDate = packageEntity.getActualDeliveryDate();
+        entry.updatedAt = packageEntity.getUpdatedAt();
+
+        Shard shard = shardFor(packageEntity.getTrackingId());
+        shard.lock.lock();
+        try {
+            // An entry already held has seen transitions the database may not have yet
+            shard.entries.putIfAbsent(packageEntity.getTrackingId(), entry);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    private Package toPackage(String trackingId, Entry entry) {
+        return Package.builder()
+                .trackingId(trackingId)
+                .orderId(entry.orderId)
+                .status(STATUSES[entry.status])
+                .currentLocation(locations.name(entry.location))
+                .carrierId(carriers.name(entry.carrier))
+                .notes(entry.notes)
+                .expectedDeliveryDate(entry.expectedDeliveryDate)
+                .actualDeliveryDate(entry.actualDeliveryDate)
+                .updatedAt(entry.updatedAt)
+                .build();
+    }
+
+    private Shard shardFor(String trackingId) {
+        int hash = trackingId.hashCode();
+        return shards[(hash ^ (hash >>> 16)) & shardMask];
+    }
+
+    /**
+     * A status transition applied in memory, waiting to be written to the database.
+     */
+    @Data
+    @Builder
+    public static class PendingTransition {
+        private Package previous;
+        private PackageStatus newStatus;
+        private String location;
+        private String notes;
+        private String stateNotes;
+        private LocalDateTime actualDeliveryDate;
+        private EventType eventType;
+        private String description;
+        private LocalDateTime timestamp;
+        private long revision;
+    }
+
+    private static final class Shard {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition released = lock.newCondition();
+        private final Map<String, Entry> entries = new HashMap<>();
+    }
+
+    private static final class Entry {
+        private String orderId;
+        private byte status;
+        private int location;
+        private int carrier;
+        private String notes;
+        private LocalDateTime expectedDeliveryDate;
+        private LocalDateTime actualDeliveryDate;
+        private LocalDateTime updatedAt;
+        private long revision;
+        private long writtenRevision;
+        // Transitions accepted and not yet written; the entry stays while any are
+        private int queued;
+        // Transaction holding the package, the state before it and its transitions to queue on commit
+        private Thread owner;
+        private Entry saved;
+        private List<PendingTransition> uncommitted = new ArrayList<>(0);
+
+        Entry copy() {
+            Entry copy = new Entry();
+            copy.restore(this);
+            return copy;
+        }
+
+        void restore(Entry source) {
+            status = source.status;
+            location = source.location;
+            notes = source.notes;
+            actualDeliveryDate = source.actualDeliveryDate;
+            updatedAt = source.updatedAt;
+        }
+    }
+
+    /**
+     * Maps the few distinct location and carrier names to small ids; 0 stands for null.
+     */
+    private static final class Interner {
+        private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+        private volatile String[] names = new String[16];
+        private int next = 1;
+
+        int intern(String name) {
+            if (name == null) {
+                return 0;
+            }
+            Integer id = ids.get(name);
+            return id != null ? id : add(name);
+        }
+
+        String name(int id) {
+            return names[id];
+        }
+
+        private synchronized int add(String name) {
+            Integer id = ids.get(name);
+            if (id != null) {
+                return id;
+            }
+            String[] current = names;
+            if (next == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[next] = name;
+            names = current;
+            ids.put(name, next);
+            return next++;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.swiftlogistics.wms.service;
+
+import com.swiftlogistics.wms.config.WmsProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Writes the status transitions applied in the {@link PackageStateStore} to the database,
+ * one transaction per batch. A batch that fails transiently is retried on the next passes before
+ * anything newer, so the writes of a package are never reordered; after {@value #MAX_ATTEMPTS}
+ * attempts, or on any other failure, its transitions are written one at a time and those that
+ * still fail are dead-lettered.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "wms.state-store.enabled", havingValue = "true")
+public class PackageStateWriteBehind {
+
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final PackageStateStore stateStore;
+    private final PackageTrackingService packageTrackingService;
+    private final WmsProperties wmsProperties;
+    private final Counter failedTransitions;
+
+    private List<PackageStateStore.PendingTransition> failedBatch;
+    private int failedAttempts;
+
+    public PackageStateWriteBehind(PackageStateStore stateStore, PackageTrackingService packageTrackingService,
+                                   WmsProperties wmsProperties, MeterRegistry meterRegistry) {
+        this.stateStore = stateStore;
+        this.packageTrackingService = packageTrackingService;
+        this.wmsProperties = wmsProperties;
+        this.failedTransitions = Counter.builder("wms.state_store.write_behind.failed")
+                .description("Status transitions the write-behind could not write")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Write everything queued so far.
+     */
+    @Scheduled(fixedDelayString = "${wms.state-store.flush-interval:100}")
+    public synchronized void flush() {
+        int batchSize = wmsProperties.getStateStore().getBatchSize();
+        while (true) {
+            List<PackageStateStore.PendingTransition> batch = failedBatch != null ? failedBatch : stateStore.drain(batchSize);
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                packageTrackingService.writeTransitions(batch);
+            } catch (RuntimeException e) {
+                int attempt = ++failedAttempts;
+                if (isTransient(e) && attempt < MAX_ATTEMPTS) {
+                    failedBatch = batch;
+                    log.warn("Failed to write {} status transitions (attempt {}), {} more queued; retrying on next pass",
+                            batch.size(), attempt, stateStore.getPendingCount(), e);
+                    return;
+                }
+                log.error("Failed to write {} status transitions (attempt {}), writing them one at a time",
+                        batch.size(), attempt, e);
+                failedBatch = null;
+                failedAttempts = 0;
+                writeIndividually(batch);
+                continue;
+            }
+            failedBatch = null;
+            failedAttempts = 0;
+            stateStore.written(batch);
+            log.debug("Wrote {} status transitions", batch.size());
+        }
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        flush();
+        if (failedBatch != null) {
+            writeIndividually(failedBatch);
+            failedBatch = null;
+        }
+        if (stateStore.getPendingCount() > 0) {
+            log.warn("Shutting down with status transitions not written to the database");
+        }
+    }
+
+    /**
+     * Write each transition of a failed batch on its own, so one bad transition costs only itself.
+     * A transition that still fails is dead-lettered to the log; the package row catches up with the
+     * state store on the next transition written for it.
+     */
+    private void writeIndividually(List<PackageStateStore.PendingTransition> batch) {
+        for (PackageStateStore.PendingTransition transition : batch) {
+            try {
+                packageTrackingService.writeTransitions(List.of(transition));
+            } catch (RuntimeException e) {
+                failedTransitions.increment();
+                log.error("Dropped status transition {} -> {} for {} at {}: {}", transition.getPrevious().getStatus(),
+                        transition.getNewStatus(), transition.getPrevious().getTrackingId(),
+                        transition.getTimestamp(), e.getMessage());
+            }
+            stateStore.written(List.of(transition));
+        }
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException;
+    }
+}
@@ -0,0 +1,308 @@
+package com.swiftlogistics.wms.service;
+
+import com.swiftlogistics.wms.config.WmsProperties;
+import com.swiftlogistics.wms.model.EventType;
+import com.swiftlogistics.wms.model.Package;
+import com.swiftlogistics.wms.model.PackageStatus;
+import com.swiftlogistics.wms.repository.PackageRepository;
+import com.swiftlogistics.wms.repository.WarehouseEventRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Live counters of packages by status, location and carrier, and of events by type.
+ * Counters are maintained incrementally as transitions commit, rebuilt from the database
+ * on startup and periodically corrected, so dashboards never need COUNT(*) queries.
+ * Locations beyond {@code wms.stats.max-location-tags} share the {@value #OTHER_LOCATION} bucket,
+ * so free-text locations cannot create an unbounded number of gauges.
+ */
+@Slf4j
+@Service
+public class PackageStatisticsService {
+
+    static final String UNKNOWN_LOCATION = "UNKNOWN";
+    static final String OTHER_LOCATION = "OTHER";
+    static final String UNASSIGNED_CARRIER = "UNASSIGNED";
+
+    private final PackageRepository packageRepository;
+    private final WarehouseEventRepository eventRepository;
+    private final PackageEventStore eventStore;
+    private final MeterRegistry meterRegistry;
+
+    private final Dimension<PackageStatus> statusCounts;
+    private final Dimension<EventType> eventTypeCounts;
+    private final Dimension<String> locationCounts;
+    private final Dimension<String> carrierCounts;
+    private volatile LocalDateTime lastRebuild;
+
+    public PackageStatisticsService(PackageRepository packageRepository, WarehouseEventRepository eventRepository,
+                                    PackageEventStore eventStore, MeterRegistry meterRegistry,
+                                    WmsProperties wmsProperties) {
+        this.packageRepository = packageRepository;
+        this.eventRepository = eventRepository;
+        this.eventStore = eventStore;
+        this.meterRegistry = meterRegistry;
+        this.statusCounts = new Dimension<>("wms.packages.by.status", "status", null, null, Integer.MAX_VALUE);
+        this.eventTypeCounts = new Dimension<>("wms.events.by.type", "event_type", null, null, Integer.MAX_VALUE);
+        this.locationCounts = new Dimension<>("wms.packages.by.location", "location", UNKNOWN_LOCATION, OTHER_LOCATION,
+                wmsProperties.getStats().getMaxLocationTags());
+        this.carrierCounts = new Dimension<>("wms.packages.by.carrier", "carrier", UNASSIGNED_CARRIER, null,
+                Integer.MAX_VALUE);
+    }
+
+    /**
+     * Register gauges for the fixed dimensions and load the initial counts.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        for (PackageStatus status : PackageStatus.values()) {
+            statusCounts.add(status, 0);
+        }
+        for (EventType eventType : EventType.values()) {
+            eventTypeCounts.add(eventType, 0);
+        }
+        rebuild();
+    }
+
+    /**
+     * Periodically replace the incremental counts with exact counts from the database,
+     * correcting any drift from rolled-back or out-of-band writes. Each dimension is recounted
+     * on its own: updates committed while its query runs are replayed on top of the result,
+     * so they are neither lost nor counted twice.
+     */
+    @Scheduled(fixedDelayString = "${wms.stats.correction-interval:600000}",
+               initialDelayString = "${wms.stats.correction-interval:600000}")
+    public void rebuild() {
+        try {
+            statusCounts.recount(() -> toCounts(eventStore.countGroupedByStatus()));
+            eventTypeCounts.recount(() -> toCounts(eventRepository.countGroupedByEventType()));
+            locationCounts.recount(() -> toCounts(eventStore.countGroupedByCurrentLocation()));
+            carrierCounts.recount(() -> toCounts(packageRepository.countGroupedByCarrierId()));
+
+            lastRebuild = LocalDateTime.now();
+            log.debug("Rebuilt package statistics from database");
+        } catch (Exception e) {
+            log.warn("Failed to rebuild package statistics: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Count a newly created package once the surrounding transaction commits.
+     */
+    public void recordPackageCreated(Package packageEntity) {
+        PackageStatus status = packageEntity.getStatus();
+        String location = packageEntity.getCurrentLocation();
+        String carrierId = packageEntity.getCarrierId();
+
+        afterCommit(() -> {
+            statusCounts.add(status, 1);
+            locationCounts.add(location, 1);
+            carrierCounts.add(carrierId, 1);
+        });
+    }
+
+    /**
+     * Move a package between status and location buckets once the surrounding transaction commits.
+     */
+    public void recordStatusChange(PackageStatus previousStatus, PackageStatus newStatus,
+                                   String previousLocation, String newLocation) {
+        afterCommit(() -> {
+            if (previousStatus != newStatus) {
+                if (previousStatus != null) {
+                    statusCounts.add(previousStatus, -1);
+                }
+                statusCounts.add(newStatus, 1);
+            }
+            if (!Objects.equals(previousLocation, newLocation)) {
+                locationCounts.add(previousLocation, -1);
+                locationCounts.add(newLocation, 1);
+            }
+        });
+    }
+
+    /**
+     * Count a status change that was dropped because the transition table does not allow it.
+     */
+    public void recordRejectedTransition(PackageStatus previousStatus, PackageStatus newStatus) {
+        meterRegistry.counter("wms.packages.transitions.rejected",
+                "from", previousStatus.name(), "to", newStatus.name()).increment();
+    }
+
+    /**
+     * Count a status reported by the WMS that does not map to a package status.
+     */
+    public void recordUnknownStatus() {
+        meterRegistry.counter("wms.packages.status.unknown").increment();
+    }
+
+    /**
+     * Count a persisted warehouse event once the surrounding transaction commits.
+     */
+    public void recordEvent(EventType eventType) {
+        afterCommit(() -> eventTypeCounts.add(eventType, 1));
+    }
+
+    public long getStatusCount(PackageStatus status) {
+        return statusCounts.get(status);
+    }
+
+    public long getEventTypeCount(EventType eventType) {
+        return eventTypeCounts.get(eventType);
+    }
+
+    public long getLocationCount(String location) {
+        return locationCounts.get(location);
+    }
+
+    /**
+     * Snapshot of all counters for the monitoring API.
+     */
+    public Map<String, Object> getSnapshot() {
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        for (PackageStatus status : PackageStatus.values()) {
+            byStatus.put(status.name(), statusCounts.get(status));
+        }
+
+        Map<String, Long> byEventType = new LinkedHashMap<>();
+        for (EventType eventType : EventType.values()) {
+            byEventType.put(eventType.name(), eventTypeCounts.get(eventType));
+        }
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("packages_by_status", byStatus);
+        snapshot.put("packages_by_location", locationCounts.toPlainMap());
+        snapshot.put("packages_by_carrier", carrierCounts.toPlainMap());
+        snapshot.put("events_by_type", byEventType);
+        snapshot.put("last_rebuild", lastRebuild);
+        return snapshot;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> Map<K, Long> toCounts(List<Object[]> rows) {
+        Map<K, Long> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            counts.merge((K) row[0], (Long) row[1], Long::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Run the update after the current transaction commits, or immediately outside a transaction,
+     * so rolled-back writes never reach the counters.
+     */
+    private void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    /**
+     * The counters of one dimension, each exported as a gauge tagged with its key. While a recount
+     * is running, updates are also journaled and then replayed on top of the database counts, which
+     * only include writes committed before the query started.
+     */
+    private final class Dimension<K> {
+
+        private final String meterName;
+        private final String tagName;
+        private final K nullKey;
+        private final K overflowKey;
+        private final int maxKeys;
+        private final Map<K, AtomicLong> counts = new ConcurrentHashMap<>();
+        private Map<K, Long> journal;
+
+        Dimension(String meterName, String tagName, K nullKey, K overflowKey, int maxKeys) {
+            this.meterName = meterName;
+            this.tagName = tagName;
+            this.nullKey = nullKey;
+            this.overflowKey = overflowKey;
+            this.maxKeys = maxKeys;
+        }
+
+        synchronized void add(K key, long delta) {
+            K bucket = bucket(key);
+            counter(bucket).addAndGet(delta);
+            if (journal != null) {
+                journal.merge(bucket, delta, Long::sum);
+            }
+        }
+
+        long get(K key) {
+            AtomicLong count = counts.get(key != null ? key : nullKey);
+            return count != null ? count.get() : 0;
+        }
+
+        void recount(Supplier<Map<K, Long>> query) {
+            synchronized (this) {
+                journal = new HashMap<>();
+            }
+            try {
+                Map<K, Long> fresh = query.get();
+                synchronized (this) {
+                    Map<K, Long> totals = new HashMap<>(journal);
+                    // Admit the busiest keys first while there is room for new gauges
+                    fresh.entrySet().stream()
+                            .sorted(Map.Entry.<K, Long>comparingByValue().reversed())
+                            .forEach(entry -> totals.merge(bucket(entry.getKey()), entry.getValue(), Long::sum));
+                    counts.forEach((key, count) -> count.set(totals.getOrDefault(key, 0L)));
+                    totals.forEach((key, total) -> counter(key).set(total));
+                }
+            } finally {
+                synchronized (this) {
+                    journal = null;
+                }
+            }
+        }
+
+        Map<String, Long> toPlainMap() {
+            Map<String, Long> plain = new LinkedHashMap<>();
+            counts.entrySet().stream()
+                    .filter(entry -> entry.getValue().get() != 0)
+                    .sorted(Map.Entry.comparingByKey((a, b) -> a.toString().compareTo(b.toString())))
+                    .forEach(entry -> plain.put(entry.getKey().toString(), entry.getValue().get()));
+            return plain;
+        }
+
+        private K bucket(K key) {
+            K bucket = key != null ? key : nullKey;
+            if (overflowKey != null && !counts.containsKey(bucket) && counts.size() >= maxKeys) {
+                return overflowKey;
+            }
+            return bucket;
+        }
+
+        private AtomicLong counter(K key) {
+            return counts.computeIfAbsent(key, newKey -> {
+                AtomicLong count = new AtomicLong();
+                Gauge.builder(meterName, count, AtomicLong::get)
+                        .tag(tagName, newKey.toString())
+                        .register(meterRegistry);
+                return count;
+            });
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package com.swiftlogistics.wms.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiftlogistics.wms.dto.DtoJsonCodecs;
 import com.swiftlogistics.wms.dto.OrderDto;
+import com.swiftlogistics.wms.dto.PackageRevision;
 import com.swiftlogistics.wms.dto.PackageStatusDto;
 import com.swiftlogistics.wms.dto.WarehouseEventDto;
 import com.swiftlogistics.wms.dto.WmsTcpMessage;
+import com.swiftlogistics.wms.exception.IllegalStatusTransitionException;
 import com.swiftlogistics.wms.exception.PackageNotFoundException;
 import com.swiftlogistics.wms.exception.PackageProcessingException;
 import com.swiftlogistics.wms.exception.WmsCommunicationException;
@@ -14,17 +16,30 @@ import com.swiftlogistics.wms.model.Package;
 import com.swiftlogistics.wms.model.PackageStatus;
 import com.swiftlogistics.wms.model.WarehouseEvent;
 import com.swiftlogistics.wms.repository.PackageRepository;
+import com.swiftlogistics.wms.protocol.CompactOrderCodec;
+import com.swiftlogistics.wms.protocol.PayloadEncoding;
 import com.swiftlogistics.wms.repository.WarehouseEventRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
  * Service for tracking package lifecycle and managing package-related operations.
@@ -35,119 +50,178 @@ import java.util.concurrent.CompletableFuture;
 @RequiredArgsConstructor
 public class PackageTrackingService {
 
+    private static final int MAX_TRANSITION_ATTEMPTS = 10;
+
     private final PackageRepository packageRepository;
     private final WarehouseEventRepository eventRepository;
     private final WmsTcpClientService tcpClientService;
-    private final KafkaProducerService kafkaProducerService;
-    private final ObjectMapper objectMapper;
+    private final PackageStatisticsService statisticsService;
+    private final OrderDeduplicationService deduplicationService;
+    private final StatusUpdateCoalescer statusUpdateCoalescer;
+    private final PackageEventStore eventStore;
+    private final FieldSelectionService fieldSelectionService;
+    private final ObjectProvider<PackageStateStore> stateStore;
+    private final WarehouseEventWriter eventWriter;
+    private final EventArchiveService eventArchiveService;
+    private final DtoJsonCodecs dtoJsonCodecs;
+    private final TransactionTemplate transactionTemplate;
+    @Qualifier("tcpTaskExecutor")
+    private final Executor wmsResponseExecutor;
 
     /**
      * Process a new order received from Kafka.
+     * The package is committed before the WMS is contacted; the WMS round trip does not hold a
+     * thread, and its response is applied in a second transaction on the WMS response executor.
      */
-    @Transactional
-    @Async("kafkaTaskExecutor")
     public CompletableFuture<Void> processNewOrder(OrderDto orderDto) {
         log.info("Processing new order: {} with tracking ID: {}", orderDto.getOrderId(), orderDto.getTrackingId());
         
+        Package packageEntity;
         try {
-            // Create package record
-            Package packageEntity = createPackageFromOrder(orderDto);
-            packageEntity = packageRepository.save(packageEntity);
-            
-            // Create warehouse event
-            createWarehouseEvent(EventType.ORDER_CREATED, packageEntity.getTrackingId(), 
-                    packageEntity.getOrderId(), null, PackageStatus.RECEIVED, 
-                    "Order created and received for processing");
-            
-            // Send to legacy WMS
-            String orderData = serializeOrderData(orderDto);
-            WmsTcpMessage response = tcpClientService.sendOrderCreation(
-                    packageEntity.getTrackingId(),
-                    packageEntity.getOrderId(),
-                    packageEntity.getOrigin(),
-                    orderData
-            );
-            
-            // Process WMS response
-            processWmsResponse(response, packageEntity);
-            
-            log.info("Successfully processed new order: {}", orderDto.getOrderId());
-            return CompletableFuture.completedFuture(null);
-            
+            packageEntity = transactionTemplate.execute(status -> createPackage(orderDto));
         } catch (Exception e) {
+            // A redelivery that got past the dedup filter, e.g. after a rebalance to another instance
+            if (e instanceof DataIntegrityViolationException
+                    && packageRepository.existsByTrackingIdAndOrderId(orderDto.getTrackingId(), orderDto.getOrderId())) {
+                deduplicationService.recordDuplicate(orderDto, "constraint");
+                return CompletableFuture.completedFuture(null);
+            }
+            deduplicationService.release(orderDto);
             log.error("Failed to process new order: {}", orderDto.getOrderId(), e);
             handleOrderProcessingError(orderDto, e);
             return CompletableFuture.failedFuture(e);
         }
+
+        // Send to legacy WMS
+        return tcpClientService.resolvePayloadEncoding()
+                .thenCompose(encoding -> tcpClientService.sendOrderCreationAsync(
+                        packageEntity.getTrackingId(),
+                        packageEntity.getOrderId(),
+                        packageEntity.getOrigin(),
+                        serializeOrderData(orderDto, encoding)))
+                // Process WMS response
+                .thenAcceptAsync(response -> transactionTemplate.executeWithoutResult(
+                        status -> processWmsResponse(response, packageEntity)), wmsResponseExecutor)
+                .whenCompleteAsync((result, error) -> {
+                    if (error == null) {
+                        log.info("Successfully processed new order: {}", orderDto.getOrderId());
+                        return;
+                    }
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    log.error("Failed to process new order: {}", orderDto.getOrderId(), cause);
+                    handleOrderProcessingError(orderDto, cause);
+                }, wmsResponseExecutor);
+    }
+
+    private Package createPackage(OrderDto orderDto) {
+        // Create package record
+        Package packageEntity = packageRepository.save(createPackageFromOrder(orderDto));
+        statisticsService.recordPackageCreated(packageEntity);
+        stateStore.ifAvailable(store -> store.track(packageEntity));
+        
+        // Create warehouse event
+        createWarehouseEvent(EventType.ORDER_CREATED, packageEntity.getTrackingId(), 
+                packageEntity.getOrderId(), null, PackageStatus.RECEIVED,
+                packageEntity.getCurrentLocation(), packageEntity.getNotes(),
+                "Order created and received for processing");
+        return packageEntity;
     }
 
     /**
      * Update package status and publish to Kafka.
+     *
+     * @throws IllegalStatusTransitionException if the transition table does not allow the change; nothing is written
      */
     @Transactional
     public void updatePackageStatus(String trackingId, PackageStatus newStatus, String location, String notes) 
-            throws PackageNotFoundException {
+            throws PackageNotFoundException, IllegalStatusTransitionException {
         
-        Package packageEntity = packageRepository.findByTrackingId(trackingId)
-                .orElseThrow(() -> new PackageNotFoundException(trackingId));
+        PackageStatus previousStatus = changeStatus(trackingId, newStatus, location, notes,
+                EventType.PACKAGE_STATUS_CHANGED, "Package status updated to " + newStatus);
         
-        PackageStatus previousStatus = packageEntity.getStatus();
-        packageEntity.setStatus(newStatus);
-        packageEntity.setCurrentLocation(location);
-        if (notes != null) {
-            packageEntity.setNotes(notes);
+        log.info("Updated package status for {}: {} -> {}", trackingId, previousStatus, newStatus);
+    }
+
+    /**
+     * Apply a batch of status messages received from the legacy WMS, each in its own transaction so that
+     * a failing message only loses itself.
+     * Messages for unknown packages, unknown or unchanged statuses and illegal transitions are skipped.
+     *
+     * @return the number of status changes applied
+     */
+    public int applyStatusUpdates(List<WmsTcpMessage> statusMessages) {
+        int applied = 0;
+        for (WmsTcpMessage message : statusMessages) {
+            try {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> applyStatusUpdate(message)))) {
+                    applied++;
+                }
+            } catch (RuntimeException e) {
+                // A later push or status query corrects anything lost here
+                log.error("Failed to apply WMS status push for {}", message.getTrackingId(), e);
+            }
         }
-        
-        if (newStatus == PackageStatus.DELIVERED) {
-            packageEntity.setActualDeliveryDate(LocalDateTime.now());
+        return applied;
+    }
+
+    private boolean applyStatusUpdate(WmsTcpMessage message) {
+        if (message.getTrackingId() == null || message.getStatus() == null) {
+            return false;
         }
-        
-        packageRepository.save(packageEntity);
-        
-        // Create warehouse event
-        createWarehouseEvent(EventType.PACKAGE_STATUS_CHANGED, trackingId, packageEntity.getOrderId(),
-                previousStatus, newStatus, "Package status updated to " + newStatus);
-        
-        // Publish status update to Kafka
-        PackageStatusDto statusDto = PackageStatusDto.builder()
-                .trackingId(trackingId)
-                .orderId(packageEntity.getOrderId())
-                .status(newStatus)
-                .previousStatus(previousStatus)
-                .location(location)
-                .carrierId(packageEntity.getCarrierId())
-                .estimatedDelivery(packageEntity.getExpectedDeliveryDate())
-                .actualDelivery(packageEntity.getActualDeliveryDate())
-                .timestamp(LocalDateTime.now())
-                .notes(notes)
-                .source("WMS-ADAPTER")
-                .build();
-        
-        kafkaProducerService.publishPackageStatus(statusDto);
-        
-        log.info("Updated package status for {}: {} -> {}", trackingId, previousStatus, newStatus);
+
+        PackageStatus wmsStatus = parsePackageStatus(message.getStatus());
+        if (wmsStatus == null) {
+            return false;
+        }
+
+        Package packageEntity = findPackage(message.getTrackingId()).orElse(null);
+        if (packageEntity == null) {
+            log.debug("Ignoring WMS status for unknown package: {}", message.getTrackingId());
+            return false;
+        }
+        if (packageEntity.getStatus() == wmsStatus
+                || !isLegalTransition(message.getTrackingId(), packageEntity.getStatus(), wmsStatus)) {
+            return false;
+        }
+
+        try {
+            String location = message.getLocation() != null ? message.getLocation() : packageEntity.getCurrentLocation();
+            updatePackageStatus(message.getTrackingId(), wmsStatus, location, "Status pushed by WMS");
+            return true;
+        } catch (PackageNotFoundException e) {
+            log.debug("Package disappeared while applying WMS status: {}", message.getTrackingId());
+        } catch (IllegalStatusTransitionException e) {
+            log.debug("Package moved on while applying WMS status: {}", e.getMessage());
+        }
+        return false;
     }
 
     /**
      * Query package status from the legacy WMS.
      */
     public Package queryPackageStatus(String trackingId) throws PackageNotFoundException, WmsCommunicationException {
-        Package packageEntity = packageRepository.findByTrackingId(trackingId)
+        Package packageEntity = findPackage(trackingId)
                 .orElseThrow(() -> new PackageNotFoundException(trackingId));
         
         try {
-            WmsTcpMessage response = tcpClientService.queryPackageStatus(trackingId);
+            WmsTcpMessage response = tcpClientService.queryPackageStatus(trackingId, packageEntity.getOrigin());
             
             // Update package based on WMS response
             if ("STATUS".equals(response.getMessageType()) && response.getStatus() != null) {
                 PackageStatus wmsStatus = parsePackageStatus(response.getStatus());
-                if (wmsStatus != packageEntity.getStatus()) {
-                    updatePackageStatus(trackingId, wmsStatus, response.getLocation(), 
-                            "Status updated from WMS query");
+                if (wmsStatus != null && wmsStatus != packageEntity.getStatus()
+                        && isLegalTransition(trackingId, packageEntity.getStatus(), wmsStatus)) {
+                    try {
+                        updatePackageStatus(trackingId, wmsStatus, response.getLocation(), 
+                                "Status updated from WMS query");
+                    } catch (IllegalStatusTransitionException e) {
+                        log.debug("Package moved on while applying queried WMS status: {}", e.getMessage());
+                    }
                 }
             }
             
-            return packageRepository.findByTrackingId(trackingId).orElse(packageEntity);
+            return findPackage(trackingId).orElse(packageEntity);
             
         } catch (WmsCommunicationException e) {
             log.warn("Failed to query WMS for package status: {}", trackingId, e);
@@ -157,46 +231,255 @@ public class PackageTrackingService {
     }
 
     /**
-     * Get package history including all events.
+     * Get package history including all events, archived ones included.
      */
+    @Transactional(readOnly = true)
     public List<WarehouseEvent> getPackageHistory(String trackingId) throws PackageNotFoundException {
         if (!packageRepository.existsByTrackingId(trackingId)) {
             throw new PackageNotFoundException(trackingId);
         }
         
-        return eventRepository.findByTrackingIdOrderByEventTimestampDesc(trackingId);
+        List<WarehouseEvent> events = eventRepository.findByTrackingIdOrderByEventTimestampDesc(trackingId);
+        List<WarehouseEvent> archived = eventArchiveService.findArchivedEvents(trackingId);
+        if (archived.isEmpty()) {
+            return events;
+        }
+        List<WarehouseEvent> history = new ArrayList<>(events);
+        history.addAll(archived);
+        history.sort(Comparator.comparing(WarehouseEvent::getEventTimestamp).reversed());
+        return history;
+    }
+
+    /**
+     * Current revision of a package for HTTP caching, from its row version and latest event, or
+     * from the state store while it holds the package.
+     */
+    @Transactional(readOnly = true)
+    public Optional<PackageRevision> getPackageRevision(String trackingId) {
+        PackageStateStore store = stateStore.getIfAvailable();
+        Optional<PackageRevision> held = store == null ? Optional.empty() : store.revision(trackingId);
+        if (held.isPresent()) {
+            return held;
+        }
+        return packageRepository.findVersionByTrackingId(trackingId)
+                .map(version -> PackageRevision.builder()
+                        .tag("v" + version.getVersion() + "-e" + eventRepository.findLatestEventId(trackingId))
+                        // In event-sourced mode the row status may trail; only used to pick a cache lifetime
+                        .status(version.getStatus())
+                        .build());
+    }
+
+    /**
+     * Selected fields of a package as stored, without consulting the WMS.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getPackageFields(String trackingId, List<String> fields) throws PackageNotFoundException {
+        PackageStateStore store = stateStore.getIfAvailable();
+        Optional<Package> held = store == null ? Optional.empty() : store.find(trackingId);
+        if (held.isPresent()) {
+            // The row of a held package may trail the store
+            return fieldSelectionService.pick(PackageStateStore.FIELDS.containsAll(fields) ? held.get()
+                    : findPackage(trackingId).orElseThrow(() -> new PackageNotFoundException(trackingId)), fields);
+        }
+        if (eventStore.isEnabled()) {
+            // Row state may trail the event log, so fold the full package and pick from it
+            return fieldSelectionService.pick(findPackage(trackingId)
+                    .orElseThrow(() -> new PackageNotFoundException(trackingId)), fields);
+        }
+        return fieldSelectionService.selectOne(Package.class, "trackingId", trackingId, fields)
+                .orElseThrow(() -> new PackageNotFoundException(trackingId));
+    }
+
+    /**
+     * Selected fields of each event in a package's history, newest first.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getPackageHistoryFields(String trackingId, List<String> fields)
+            throws PackageNotFoundException {
+        if (!packageRepository.existsByTrackingId(trackingId)) {
+            throw new PackageNotFoundException(trackingId);
+        }
+        if (eventArchiveService.hasArchivedEvents(trackingId)) {
+            // Archived events are not in the table, so select from the merged history
+            return getPackageHistory(trackingId).stream()
+                    .map(event -> fieldSelectionService.pick(event, fields))
+                    .toList();
+        }
+        return fieldSelectionService.select(WarehouseEvent.class, "trackingId", trackingId, fields, "eventTimestamp");
+    }
+
+    /**
+     * List packages by status, customer or carrier; the first given filter wins.
+     */
+    @Transactional(readOnly = true)
+    public List<Package> listPackages(PackageStatus status, String customerId, String carrierId) {
+        if (status != null) {
+            return eventStore.findByStatus(status);
+        }
+        List<Package> packages;
+        if (customerId != null) {
+            packages = packageRepository.findByCustomerId(customerId);
+        } else if (carrierId != null) {
+            packages = packageRepository.findByCarrierId(carrierId);
+        } else {
+            throw new IllegalArgumentException("A status, customerId or carrierId filter is required");
+        }
+        return eventStore.currentStates(packages);
+    }
+
+    /**
+     * Rebuild the state of a package as it was at the given time from its event log.
+     */
+    @Transactional(readOnly = true)
+    public Package getPackageStateAt(String trackingId, LocalDateTime at) throws PackageNotFoundException {
+        Package packageEntity = packageRepository.findByTrackingId(trackingId)
+                .orElseThrow(() -> new PackageNotFoundException(trackingId));
+        return eventStore.stateAt(packageEntity, at)
+                .orElseThrow(() -> new PackageNotFoundException(trackingId));
     }
 
     /**
      * Cancel an order.
      */
     @Transactional
-    public void cancelOrder(String trackingId, String reason) throws PackageNotFoundException, WmsCommunicationException {
-        Package packageEntity = packageRepository.findByTrackingId(trackingId)
+    public void cancelOrder(String trackingId, String reason)
+            throws PackageNotFoundException, WmsCommunicationException, IllegalStatusTransitionException {
+        Package packageEntity = findPackage(trackingId)
                 .orElseThrow(() -> new PackageNotFoundException(trackingId));
         
-        // Only allow cancellation for certain statuses
-        if (packageEntity.getStatus() == PackageStatus.SHIPPED || 
-            packageEntity.getStatus() == PackageStatus.DELIVERED) {
-            throw new IllegalStateException("Cannot cancel package that is already shipped or delivered");
+        // Only packages that have not shipped yet can still fail
+        if (!isLegalTransition(trackingId, packageEntity.getStatus(), PackageStatus.FAILED)) {
+            throw new IllegalStatusTransitionException(trackingId, packageEntity.getStatus(), PackageStatus.FAILED);
         }
         
         // Send cancellation to WMS
-        tcpClientService.cancelOrder(trackingId, packageEntity.getOrderId());
+        tcpClientService.cancelOrder(trackingId, packageEntity.getOrderId(), packageEntity.getOrigin());
         
         // Update package status
-        PackageStatus previousStatus = packageEntity.getStatus();
-        packageEntity.setStatus(PackageStatus.FAILED);
-        packageEntity.setNotes(reason);
-        packageRepository.save(packageEntity);
-        
-        // Create event
-        createWarehouseEvent(EventType.ORDER_CANCELLED, trackingId, packageEntity.getOrderId(),
-                previousStatus, PackageStatus.FAILED, "Order cancelled: " + reason);
+        changeStatus(trackingId, PackageStatus.FAILED, null, reason, EventType.ORDER_CANCELLED,
+                "Order cancelled: " + reason);
         
         log.info("Cancelled order for tracking ID: {}, reason: {}", trackingId, reason);
     }
 
+    /**
+     * Write status transitions applied in the state store: their events, then the latest state
+     * of each package row.
+     */
+    @Transactional
+    public void writeTransitions(List<PackageStateStore.PendingTransition> transitions) {
+        Map<String, PackageStateStore.PendingTransition> latest = new LinkedHashMap<>();
+        for (PackageStateStore.PendingTransition transition : transitions) {
+            recordTransition(transition.getPrevious(), transition.getNewStatus(), transition.getLocation(),
+                    transition.getNotes(), transition.getEventType(), transition.getDescription(),
+                    transition.getTimestamp());
+            latest.put(transition.getPrevious().getTrackingId(), transition);
+        }
+        if (!eventStore.isEnabled()) {
+            latest.forEach((trackingId, transition) -> packageRepository.refreshState(trackingId,
+                    transition.getNewStatus(), transition.getLocation(), transition.getStateNotes(),
+                    transition.getActualDeliveryDate(), transition.getTimestamp()));
+        }
+    }
+
+    /**
+     * Apply a status transition and record it. Packages held in the state store change there and
+     * their writes follow in the background; all others are written right away.
+     *
+     * @return the status the package had before
+     */
+    private PackageStatus changeStatus(String trackingId, PackageStatus newStatus, String location, String notes,
+                                       EventType eventType, String description)
+            throws PackageNotFoundException, IllegalStatusTransitionException {
+        LocalDateTime now = LocalDateTime.now();
+        PackageStateStore store = stateStore.getIfAvailable();
+        if (store != null) {
+            Optional<Package> held = store.transition(trackingId, newStatus, location, notes, eventType, description, now);
+            if (held.isPresent()) {
+                return held.get().getStatus();
+            }
+        }
+
+        Package previous = transition(trackingId, newStatus, location, notes, now);
+        recordTransition(previous, newStatus, location != null ? location : previous.getCurrentLocation(),
+                notes, eventType, description, now);
+        return previous.getStatus();
+    }
+
+    /**
+     * Count a status transition, append its warehouse event and publish the new status to Kafka.
+     */
+    private void recordTransition(Package previous, PackageStatus newStatus, String newLocation, String notes,
+                                  EventType eventType, String description, LocalDateTime now) {
+        PackageStatus previousStatus = previous.getStatus();
+        statisticsService.recordStatusChange(previousStatus, newStatus, previous.getCurrentLocation(), newLocation);
+        
+        // Create warehouse event
+        createWarehouseEvent(eventType, previous.getTrackingId(), previous.getOrderId(),
+                previousStatus, newStatus, newLocation, notes, description, now);
+        
+        // Publish status update to Kafka
+        PackageStatusDto statusDto = PackageStatusDto.builder()
+                .trackingId(previous.getTrackingId())
+                .orderId(previous.getOrderId())
+                .status(newStatus)
+                .previousStatus(previousStatus)
+                .location(newLocation)
+                .carrierId(previous.getCarrierId())
+                .estimatedDelivery(previous.getExpectedDeliveryDate())
+                .actualDelivery(newStatus == PackageStatus.DELIVERED ? now : previous.getActualDeliveryDate())
+                .timestamp(now)
+                .notes(notes)
+                .source("WMS-ADAPTER")
+                .build();
+        
+        statusUpdateCoalescer.publishPackageStatus(statusDto);
+    }
+
+    /**
+     * Move a package to a new status with a conditional UPDATE against the status it was read with.
+     * When a concurrent update got there first the package is re-read and the transition retried,
+     * so no change is lost and each applied transition knows its true previous status. Every attempt
+     * checks the transition table against the status just read.
+     *
+     * @return the package as it was before the transition
+     */
+    private Package transition(String trackingId, PackageStatus newStatus, String location, String notes,
+                               LocalDateTime now) throws PackageNotFoundException, IllegalStatusTransitionException {
+        for (int attempt = 1; ; attempt++) {
+            Package current = findPackage(trackingId)
+                    .orElseThrow(() -> new PackageNotFoundException(trackingId));
+            if (!isLegalTransition(trackingId, current.getStatus(), newStatus)) {
+                throw new IllegalStatusTransitionException(trackingId, current.getStatus(), newStatus);
+            }
+            if (eventStore.isEnabled()) {
+                // In event-sourced mode the appended event is the only write, and appends do not conflict
+                return current;
+            }
+
+            LocalDateTime actualDeliveryDate = newStatus == PackageStatus.DELIVERED ? now : current.getActualDeliveryDate();
+            if (packageRepository.transitionStatus(trackingId, current.getStatus(), newStatus, location, notes,
+                    actualDeliveryDate, now) == 1) {
+                return current;
+            }
+            if (attempt >= MAX_TRANSITION_ATTEMPTS) {
+                throw new OptimisticLockingFailureException(
+                        "Status of package " + trackingId + " kept changing concurrently");
+            }
+            log.debug("Status of {} changed concurrently, retrying transition to {}", trackingId, newStatus);
+        }
+    }
+
+    /**
+     * Find a package with its current state, rebuilt from the event log in event-sourced mode and
+     * ahead of the database when the state store holds it.
+     */
+    private Optional<Package> findPackage(String trackingId) {
+        Optional<Package> packageEntity = packageRepository.findByTrackingId(trackingId).map(eventStore::currentState);
+        PackageStateStore store = stateStore.getIfAvailable();
+        return store == null ? packageEntity : packageEntity.map(store::overlay);
+    }
+
     /**
      * Create a package entity from an order DTO.
      */
@@ -220,19 +503,30 @@ public class PackageTrackingService {
      * Create a warehouse event and persist it.
      */
     private void createWarehouseEvent(EventType eventType, String trackingId, String orderId,
-                                      PackageStatus previousStatus, PackageStatus newStatus, String description) {
+                                      PackageStatus previousStatus, PackageStatus newStatus,
+                                      String location, String notes, String description) {
+        createWarehouseEvent(eventType, trackingId, orderId, previousStatus, newStatus, location, notes,
+                description, LocalDateTime.now());
+    }
+
+    private void createWarehouseEvent(EventType eventType, String trackingId, String orderId,
+                                      PackageStatus previousStatus, PackageStatus newStatus,
+                                      String location, String notes, String description, LocalDateTime timestamp) {
         WarehouseEvent event = WarehouseEvent.builder()
                 .eventType(eventType)
                 .trackingId(trackingId)
                 .orderId(orderId)
                 .previousStatus(previousStatus)
                 .newStatus(newStatus)
+                .location(location)
+                .metadata(eventStore.metadataFor(notes))
                 .description(description)
                 .source("WMS-ADAPTER")
-                .eventTimestamp(LocalDateTime.now())
+                .eventTimestamp(timestamp)
                 .build();
         
-        eventRepository.save(event);
+        eventWriter.write(event);
+        statisticsService.recordEvent(eventType);
         
         // Publish warehouse event to Kafka
         WarehouseEventDto eventDto = WarehouseEventDto.builder()
@@ -240,18 +534,22 @@ public class PackageTrackingService {
                 .eventType(eventType)
                 .trackingId(trackingId)
                 .orderId(orderId)
+                .previousStatus(previousStatus)
+                .newStatus(newStatus)
+                .location(location)
                 .description(description)
-                .timestamp(LocalDateTime.now())
+                .timestamp(event.getEventTimestamp())
                 .source("WMS-ADAPTER")
+                .metadata(event.getMetadata())
                 .build();
         
-        kafkaProducerService.publishWarehouseEvent(eventDto);
+        statusUpdateCoalescer.publishWarehouseEvent(eventDto);
     }
 
     /**
      * Process response from legacy WMS.
      */
-    private void processWmsResponse(WmsTcpMessage response, Package packageEntity) throws PackageProcessingException {
+    private void processWmsResponse(WmsTcpMessage response, Package packageEntity) {
         try {
             if ("ACK".equals(response.getMessageType())) {
                 // Order accepted by WMS
@@ -262,18 +560,21 @@ public class PackageTrackingService {
                 updatePackageStatus(packageEntity.getTrackingId(), PackageStatus.FAILED, 
                         packageEntity.getCurrentLocation(), "Order rejected by WMS: " + response.getData());
             }
+        } catch (IllegalStatusTransitionException e) {
+            // A newer status, e.g. pushed by the WMS, got there before the order response
+            log.debug("Ignoring late WMS order response: {}", e.getMessage());
         } catch (PackageNotFoundException e) {
-            throw new PackageProcessingException("Failed to process WMS response", e);
+            throw new CompletionException(new PackageProcessingException("Failed to process WMS response", e));
         }
     }
 
     /**
      * Handle errors during order processing.
      */
-    private void handleOrderProcessingError(OrderDto orderDto, Exception error) {
+    private void handleOrderProcessingError(OrderDto orderDto, Throwable error) {
         try {
             createWarehouseEvent(EventType.ERROR_OCCURRED, orderDto.getTrackingId(), 
-                    orderDto.getOrderId(), null, null, 
+                    orderDto.getOrderId(), null, null, null, null,
                     "Error processing order: " + error.getMessage());
         } catch (Exception e) {
             log.error("Failed to create error event for order: {}", orderDto.getOrderId(), e);
@@ -281,11 +582,15 @@ public class PackageTrackingService {
     }
 
     /**
-     * Serialize order data for TCP transmission.
+     * Serialize order data for TCP transmission in the payload encoding agreed with the WMS.
      */
-    private String serializeOrderData(OrderDto orderDto) {
+    private String serializeOrderData(OrderDto orderDto, PayloadEncoding encoding) {
+        if (encoding == PayloadEncoding.COMPACT) {
+            return CompactOrderCodec.encode(orderDto);
+        }
+
         try {
-            return objectMapper.writeValueAsString(orderDto);
+            return dtoJsonCodecs.orderWriter().writeValueAsString(orderDto);
         } catch (JsonProcessingException e) {
             log.warn("Failed to serialize order data, using simple format", e);
             return String.format("order:%s|customer:%s|destination:%s", 
@@ -294,14 +599,27 @@ public class PackageTrackingService {
     }
 
     /**
-     * Parse package status from WMS response.
+     * Parse package status from WMS response, or null if it is not one we know.
      */
     private PackageStatus parsePackageStatus(String statusString) {
         try {
             return PackageStatus.valueOf(statusString.toUpperCase());
         } catch (IllegalArgumentException e) {
-            log.warn("Unknown status from WMS: {}, defaulting to PROCESSING", statusString);
-            return PackageStatus.PROCESSING;
+            log.warn("Ignoring unknown status from WMS: {}", statusString);
+            statisticsService.recordUnknownStatus();
+            return null;
+        }
+    }
+
+    /**
+     * Check a status change against the transition table, counting the ones that are dropped.
+     */
+    private boolean isLegalTransition(String trackingId, PackageStatus from, PackageStatus to) {
+        if (from.canTransitionTo(to)) {
+            return true;
         }
+        log.debug("Dropping illegal status transition for {}: {} -> {}", trackingId, from, to);
+        statisticsService.recordRejectedTransition(from, to);
+        return false;
     }
 }
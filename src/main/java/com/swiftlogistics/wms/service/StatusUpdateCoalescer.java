@@ -0,0 +1,192 @@
+package com.swiftlogistics.wms.service;
+
+import com.swiftlogistics.wms.config.WmsProperties;
+import com.swiftlogistics.wms.dto.PackageStatusDto;
+import com.swiftlogistics.wms.dto.WarehouseEventDto;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Publishes package status changes and warehouse events to Kafka, optionally coalescing
+ * rapid successive updates per tracking ID.
+ * With coalescing enabled, the first update for a package opens a window; warehouse events
+ * raised during the window are published together when it closes, but only the latest
+ * status is published to package-status. Terminal statuses close the window immediately.
+ * Everything is handed over only after the surrounding transaction commits, and the records a
+ * transaction (or a pass over closed windows) releases are published together in one call.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StatusUpdateCoalescer {
+
+    private final KafkaProducerService kafkaProducerService;
+    private final WmsProperties wmsProperties;
+
+    private final Map<String, PendingUpdates> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Publish a package status change, or fold it into the open window for its package.
+     */
+    public void publishPackageStatus(PackageStatusDto statusDto) {
+        afterCommit(records -> {
+            if (!isEnabled()) {
+                records.add(kafkaProducerService.packageStatusRecord(statusDto));
+                return;
+            }
+
+            PendingUpdates updates = pending.compute(statusDto.getTrackingId(), (trackingId, current) -> {
+                PendingUpdates next = current != null ? current : new PendingUpdates(windowDeadline());
+                next.addStatus(statusDto);
+                return next;
+            });
+            if (statusDto.getStatus() != null && statusDto.getStatus().isTerminal()) {
+                flush(statusDto.getTrackingId(), updates, records);
+            }
+        });
+    }
+
+    /**
+     * Publish a warehouse event, or queue it behind the open window for its package to keep per-package order.
+     */
+    public void publishWarehouseEvent(WarehouseEventDto eventDto) {
+        afterCommit(records -> {
+            String trackingId = eventDto.getTrackingId();
+            if (!isEnabled() || trackingId == null) {
+                records.add(kafkaProducerService.warehouseEventRecord(eventDto));
+                return;
+            }
+
+            pending.compute(trackingId, (key, current) -> {
+                PendingUpdates next = current != null ? current : new PendingUpdates(windowDeadline());
+                next.events.add(eventDto);
+                return next;
+            });
+        });
+    }
+
+    /**
+     * Publish every window that has closed.
+     */
+    @Scheduled(fixedDelayString = "${wms.kafka.status-coalescing.flush-interval:200}")
+    public void flushExpired() {
+        long now = System.currentTimeMillis();
+        List<ProducerRecord<String, Object>> records = new ArrayList<>();
+        pending.forEach((trackingId, updates) -> {
+            if (updates.deadline <= now) {
+                flush(trackingId, updates, records);
+            }
+        });
+        kafkaProducerService.publishAll(records);
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        List<ProducerRecord<String, Object>> records = new ArrayList<>();
+        pending.forEach((trackingId, updates) -> flush(trackingId, updates, records));
+        kafkaProducerService.publishAll(records);
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    private void flush(String trackingId, PendingUpdates updates, List<ProducerRecord<String, Object>> records) {
+        // Only the caller that removes the window publishes it
+        if (!pending.remove(trackingId, updates)) {
+            return;
+        }
+        updates.events.forEach(event -> records.add(kafkaProducerService.warehouseEventRecord(event)));
+        if (updates.latestStatus != null) {
+            records.add(kafkaProducerService.packageStatusRecord(updates.latestStatus));
+        }
+        if (updates.coalescedStatuses > 1) {
+            log.debug("Coalesced {} status updates for {} into {}",
+                    updates.coalescedStatuses, trackingId, updates.latestStatus.getStatus());
+        }
+    }
+
+    private boolean isEnabled() {
+        return wmsProperties.getKafka().getStatusCoalescing().isEnabled();
+    }
+
+    private long windowDeadline() {
+        return System.currentTimeMillis() + wmsProperties.getKafka().getStatusCoalescing().getWindow();
+    }
+
+    /**
+     * Run a publishing step once the surrounding transaction commits, together with the other steps
+     * of that transaction, and publish the records they produce in one call.
+     */
+    private void afterCommit(Consumer<List<ProducerRecord<String, Object>>> step) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<ProducerRecord<String, Object>> records = new ArrayList<>();
+            step.accept(records);
+            kafkaProducerService.publishAll(records);
+            return;
+        }
+        // Synchronizations are suspended with their transaction, so an inner REQUIRES_NEW
+        // transaction collects its own steps
+        CommitPublish publish = TransactionSynchronizationManager.getSynchronizations().stream()
+                .filter(CommitPublish.class::isInstance)
+                .map(CommitPublish.class::cast)
+                .findFirst()
+                .orElseGet(() -> {
+                    CommitPublish created = new CommitPublish();
+                    TransactionSynchronizationManager.registerSynchronization(created);
+                    return created;
+                });
+        publish.steps.add(step);
+    }
+
+    /**
+     * Publishing steps of one transaction, run in order after it commits.
+     */
+    private final class CommitPublish implements TransactionSynchronization {
+
+        private final List<Consumer<List<ProducerRecord<String, Object>>>> steps = new ArrayList<>();
+
+        @Override
+        public void afterCommit() {
+            List<ProducerRecord<String, Object>> records = new ArrayList<>();
+            steps.forEach(step -> step.accept(records));
+            kafkaProducerService.publishAll(records);
+        }
+    }
+
+    /**
+     * Updates held back for one package; only mutated inside {@code pending.compute}.
+     */
+    private static final class PendingUpdates {
+
+        private final long deadline;
+        private final List<WarehouseEventDto> events = new ArrayList<>();
+        private PackageStatusDto latestStatus;
+        private int coalescedStatuses;
+
+        PendingUpdates(long deadline) {
+            this.deadline = deadline;
+        }
+
+        void addStatus(PackageStatusDto statusDto) {
+            if (latestStatus != null) {
+                // Consumers see one transition from the status before the window to the latest one
+                statusDto.setPreviousStatus(latestStatus.getPreviousStatus());
+            }
+            latestStatus = statusDto;
+            coalescedStatuses++;
+        }
+    }
+}
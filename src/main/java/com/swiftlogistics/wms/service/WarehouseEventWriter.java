@@ -0,0 +1,307 @@
+package com.swiftlogistics.wms.service;
+
+import com.swiftlogistics.wms.config.WmsProperties;
+import com.swiftlogistics.wms.model.WarehouseEvent;
+import com.swiftlogistics.wms.repository.WarehouseEventRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Persists warehouse events, inside the caller's transaction or written behind it.
+ * In ASYNC and GROUP_COMMIT mode the events of a committed transaction go into a bounded ring
+ * buffer drained by a single writer thread, which inserts them with multi-row INSERTs. ASYNC
+ * callers return at once and the writer lingers up to the flush interval to fill a batch;
+ * GROUP_COMMIT callers wait until the batch holding their event has committed, and the writer
+ * takes whatever queued while the previous batch was written. A full buffer blocks callers.
+ * The writer has its own small connection pool: GROUP_COMMIT callers still hold their transaction's
+ * connection while they wait, and must not be able to take every connection the writer needs.
+ * Only transient database errors are retried, a bounded number of times; a batch that still fails
+ * is written row by row, and rows that cannot be written are logged, counted and reported to
+ * their GROUP_COMMIT callers.
+ * Event-sourced mode always writes synchronously, since the events are the package state.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WarehouseEventWriter {
+
+    private static final String INSERT = "INSERT INTO warehouse_events (event_type, tracking_id, order_id, " +
+            "previous_status, new_status, location, description, metadata, source, event_timestamp, created_at) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+    private static final long MAX_RETRY_DELAY = 5000;
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final WarehouseEventRepository eventRepository;
+    private final DataSourceProperties dataSourceProperties;
+    private final PackageEventStore eventStore;
+    private final WmsProperties wmsProperties;
+    private final MeterRegistry meterRegistry;
+
+    private BlockingQueue<PendingEvent> buffer;
+    private Thread writerThread;
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private DistributionSummary batchSizes;
+    private Counter failedEvents;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        WmsProperties.EventWrites config = wmsProperties.getEventWrites();
+        if (config.getMode() == WmsProperties.EventWrites.Mode.SYNC || eventStore.isEnabled()) {
+            return;
+        }
+        dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("wms-event-writer");
+        dataSource.setMaximumPoolSize(config.getPoolSize());
+        dataSource.setMinimumIdle(1);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        buffer = new ArrayBlockingQueue<>(config.getBufferCapacity());
+        Gauge.builder("wms.events.write_behind.pending", buffer, BlockingQueue::size)
+                .description("Warehouse events committed by their transaction and not yet written")
+                .register(meterRegistry);
+        batchSizes = DistributionSummary.builder("wms.events.write_behind.batch_size")
+                .description("Warehouse events written per batch")
+                .register(meterRegistry);
+        failedEvents = Counter.builder("wms.events.write_behind.failed")
+                .description("Warehouse events the writer could not write")
+                .register(meterRegistry);
+
+        running = true;
+        writerThread = new Thread(this::writeLoop, "wms-event-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Writing warehouse events behind in {} mode", config.getMode());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+        // The writer finishes the batch in hand and leaves within a flush interval
+        running = false;
+        writerThread.join(wmsProperties.getEventWrites().getGroupCommitTimeout());
+
+        // Anything queued after the writer left is written here
+        List<PendingEvent> remaining = new ArrayList<>();
+        buffer.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            try {
+                insert(remaining);
+            } catch (RuntimeException e) {
+                log.error("Failed to write {} warehouse events on shutdown, writing them one at a time",
+                        remaining.size(), e);
+                writeIndividually(remaining);
+            }
+        }
+        dataSource.close();
+    }
+
+    /**
+     * Persist an event now, or once the surrounding transaction has committed.
+     */
+    public void write(WarehouseEvent event) {
+        if (!running) {
+            eventRepository.save(event);
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(event);
+                }
+            });
+        } else {
+            enqueue(event);
+        }
+    }
+
+    private void enqueue(WarehouseEvent event) {
+        WmsProperties.EventWrites config = wmsProperties.getEventWrites();
+        boolean groupCommit = config.getMode() == WmsProperties.EventWrites.Mode.GROUP_COMMIT;
+        if (event.getCreatedAt() == null) {
+            event.setCreatedAt(LocalDateTime.now());
+        }
+        PendingEvent pending = new PendingEvent(event, groupCommit ? new CompletableFuture<>() : null);
+        try {
+            buffer.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessResourceFailureException("Interrupted while queueing warehouse event", e);
+        }
+        if (!groupCommit) {
+            return;
+        }
+
+        try {
+            pending.written.get(config.getGroupCommitTimeout(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new TransientDataAccessResourceException("Warehouse event for " + event.getTrackingId()
+                    + " not written within " + config.getGroupCommitTimeout() + " ms");
+        } catch (ExecutionException e) {
+            throw new DataAccessResourceFailureException("Failed to write warehouse event for "
+                    + event.getTrackingId(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessResourceFailureException("Interrupted while waiting for warehouse event", e);
+        }
+    }
+
+    private void writeLoop() {
+        WmsProperties.EventWrites config = wmsProperties.getEventWrites();
+        long lingerNanos = config.getMode() == WmsProperties.EventWrites.Mode.ASYNC
+                ? TimeUnit.MILLISECONDS.toNanos(config.getFlushInterval()) : 0;
+        List<PendingEvent> batch = new ArrayList<>(config.getBatchSize());
+        while (running) {
+            try {
+                PendingEvent first = buffer.poll(config.getFlushInterval(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < config.getBatchSize()) {
+                    if (buffer.drainTo(batch, config.getBatchSize() - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    PendingEvent next = remaining > 0 ? buffer.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                writeWithRetry(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Warehouse event writer interrupted with {} events in hand", batch.size());
+                return;
+            }
+        }
+    }
+
+    private void writeWithRetry(List<PendingEvent> batch) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                insert(batch);
+                return;
+            } catch (RuntimeException e) {
+                if (!isTransient(e) || attempt == MAX_ATTEMPTS) {
+                    log.error("Failed to write {} warehouse events (attempt {}), writing them one at a time",
+                            batch.size(), attempt, e);
+                    writeIndividually(batch);
+                    return;
+                }
+                long delay = Math.min(MAX_RETRY_DELAY, wmsProperties.getEventWrites().getFlushInterval() * attempt);
+                log.warn("Failed to write {} warehouse events (attempt {}), retrying in {} ms",
+                        batch.size(), attempt, delay, e);
+                Thread.sleep(delay);
+            }
+        }
+    }
+
+    /**
+     * Write each event of a failed batch on its own, so one bad row costs only itself.
+     * Events that still fail are dead-lettered to the log and fail their waiting caller.
+     */
+    private void writeIndividually(List<PendingEvent> batch) {
+        for (PendingEvent pending : batch) {
+            try {
+                insert(List.of(pending));
+            } catch (RuntimeException e) {
+                WarehouseEvent event = pending.event;
+                failedEvents.increment();
+                log.error("Dropped warehouse event {} {} -> {} for {} at {}: {}", event.getEventType(),
+                        event.getPreviousStatus(), event.getNewStatus(), event.getTrackingId(),
+                        event.getEventTimestamp(), e.getMessage());
+                if (pending.written != null) {
+                    pending.written.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException;
+    }
+
+    private void insert(List<PendingEvent> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int from = 0; from < batch.size(); from += MAX_ROWS_PER_STATEMENT) {
+                List<PendingEvent> rows = batch.subList(from, Math.min(batch.size(), from + MAX_ROWS_PER_STATEMENT));
+                jdbcTemplate.update(INSERT + String.join(", ", Collections.nCopies(rows.size(), ROW)), ps -> {
+                    int index = 1;
+                    for (PendingEvent row : rows) {
+                        WarehouseEvent event = row.event;
+                        ps.setString(index++, event.getEventType().name());
+                        ps.setString(index++, event.getTrackingId());
+                        ps.setString(index++, event.getOrderId());
+                        ps.setString(index++, event.getPreviousStatus() != null ? event.getPreviousStatus().name() : null);
+                        ps.setString(index++, event.getNewStatus() != null ? event.getNewStatus().name() : null);
+                        ps.setString(index++, event.getLocation());
+                        ps.setString(index++, event.getDescription());
+                        ps.setString(index++, event.getMetadata());
+                        ps.setString(index++, event.getSource());
+                        ps.setTimestamp(index++, Timestamp.valueOf(event.getEventTimestamp()));
+                        ps.setTimestamp(index++, Timestamp.valueOf(event.getCreatedAt()));
+                    }
+                });
+            }
+        });
+        batchSizes.record(batch.size());
+        batch.forEach(pending -> {
+            if (pending.written != null) {
+                pending.written.complete(null);
+            }
+        });
+    }
+
+    private static final class PendingEvent {
+        private final WarehouseEvent event;
+        private final CompletableFuture<Void> written;
+
+        private PendingEvent(WarehouseEvent event, CompletableFuture<Void> written) {
+            this.event = event;
+            this.written = written;
+        }
+    }
+}
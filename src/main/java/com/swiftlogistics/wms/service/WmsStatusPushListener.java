@@ -0,0 +1,168 @@
+package com.swiftlogistics.wms.service;
+
+import com.swiftlogistics.wms.config.WmsProperties;
+import com.swiftlogistics.wms.dto.WmsTcpMessage;
+import com.swiftlogistics.wms.exception.WmsCommunicationException;
+import com.swiftlogistics.wms.protocol.WmsConnection;
+import com.swiftlogistics.wms.protocol.WmsEndpoint;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Listener for unsolicited STATUS pushes from the legacy WMS.
+ * Keeps a subscription connection open to every WMS node, queues incoming pushes and
+ * applies them to the package store in batches instead of polling the WMS for changes.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "wms.legacy.push.enabled", havingValue = "true")
+public class WmsStatusPushListener {
+
+    private final WmsTcpClientService tcpClientService;
+    private final PackageTrackingService packageTrackingService;
+    private final WmsProperties wmsProperties;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private BlockingQueue<WmsTcpMessage> pendingPushes;
+    private ExecutorService executorService;
+    private final Map<WmsEndpoint, WmsConnection> subscriptions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void start() {
+        pendingPushes = new ArrayBlockingQueue<>(wmsProperties.getLegacy().getPush().getQueueCapacity());
+        List<WmsEndpoint> endpoints = tcpClientService.getEndpoints();
+        AtomicInteger threadCount = new AtomicInteger();
+        executorService = Executors.newFixedThreadPool(endpoints.size(), runnable -> {
+            Thread thread = new Thread(runnable, "WMS-Push-Listener-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running.set(true);
+        endpoints.forEach(endpoint -> executorService.submit(() -> listen(endpoint)));
+    }
+
+    @PreDestroy
+    public void stop() {
+        running.set(false);
+        subscriptions.keySet().forEach(this::closeSubscription);
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
+        flushPendingPushes();
+    }
+
+    /**
+     * Apply queued pushes to the package store in batches.
+     */
+    @Scheduled(fixedDelayString = "${wms.legacy.push.flush-interval:500}")
+    public void flushPendingPushes() {
+        int batchSize = wmsProperties.getLegacy().getPush().getBatchSize();
+        List<WmsTcpMessage> batch = new ArrayList<>(batchSize);
+
+        while (pendingPushes.drainTo(batch, batchSize) > 0) {
+            try {
+                int applied = packageTrackingService.applyStatusUpdates(batch);
+                log.debug("Applied {} of {} WMS status pushes", applied, batch.size());
+            } catch (Exception e) {
+                log.error("Failed to apply batch of {} WMS status pushes", batch.size(), e);
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Whether every WMS node currently has an open subscription.
+     */
+    public boolean isConnected() {
+        return tcpClientService.getEndpoints().stream().allMatch(endpoint -> {
+            WmsConnection connection = subscriptions.get(endpoint);
+            return connection != null && connection.isOpen();
+        });
+    }
+
+    public int getPendingCount() {
+        return pendingPushes.size();
+    }
+
+    /**
+     * Read pushes from one node's subscription connection, reconnecting whenever it drops.
+     */
+    private void listen(WmsEndpoint endpoint) {
+        long reconnectDelay = wmsProperties.getLegacy().getPush().getReconnectDelay();
+
+        while (running.get()) {
+            try {
+                WmsConnection connection = tcpClientService.openStatusSubscription(endpoint);
+                subscriptions.put(endpoint, connection);
+                readPushes(connection);
+            } catch (WmsCommunicationException | IOException e) {
+                if (running.get()) {
+                    log.warn("WMS status push subscription to {} lost: {}", endpoint, e.getMessage());
+                }
+            } finally {
+                closeSubscription(endpoint);
+            }
+
+            if (running.get()) {
+                try {
+                    Thread.sleep(reconnectDelay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void readPushes(WmsConnection connection) throws IOException {
+        while (running.get()) {
+            WmsTcpMessage message;
+            try {
+                message = connection.receive();
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring malformed WMS push: {}", e.getMessage());
+                continue;
+            }
+            if (message == null) {
+                return;
+            }
+
+            if (!"STATUS".equals(message.getMessageType())) {
+                continue;
+            }
+            if (!pendingPushes.offer(message)) {
+                // A later push or status query corrects anything dropped here
+                log.warn("WMS push queue full, dropping status push for {}", message.getTrackingId());
+            }
+        }
+    }
+
+    private void closeSubscription(WmsEndpoint endpoint) {
+        WmsConnection connection = subscriptions.remove(endpoint);
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (IOException ignored) {
+                // already closed
+            }
+        }
+    }
+}
@@ -3,18 +3,30 @@ package com.swiftlogistics.wms.service;
 import com.swiftlogistics.wms.config.WmsProperties;
 import com.swiftlogistics.wms.dto.WmsTcpMessage;
 import com.swiftlogistics.wms.exception.WmsCommunicationException;
+import com.swiftlogistics.wms.protocol.AsyncWmsTransport;
+import com.swiftlogistics.wms.protocol.PayloadEncoding;
+import com.swiftlogistics.wms.protocol.WmsConnection;
+import com.swiftlogistics.wms.protocol.WmsEndpoint;
+import com.swiftlogistics.wms.protocol.WmsEndpointBalancer;
+import com.swiftlogistics.wms.protocol.WmsFraming;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
-import java.io.*;
+import java.io.IOException;
 import java.net.Socket;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -26,69 +38,156 @@ import java.util.concurrent.atomic.AtomicLong;
 @RequiredArgsConstructor
 public class WmsTcpClientService {
 
+    private static final int IO_THREADS = 2;
+
     private final WmsProperties wmsProperties;
     private final AtomicLong sequenceNumber = new AtomicLong(1);
+    private final Map<WmsEndpoint, CompletableFuture<WmsFraming>> negotiatedFramings = new ConcurrentHashMap<>();
+    private volatile CompletableFuture<PayloadEncoding> negotiatedPayloadEncoding;
+    private AsyncWmsTransport transport;
+    private WmsEndpointBalancer balancer;
+
+    @PostConstruct
+    public void start() throws IOException {
+        WmsProperties.Legacy legacy = wmsProperties.getLegacy();
+        List<WmsEndpoint> endpoints = legacy.getEndpoints().isEmpty()
+                ? List.of(new WmsEndpoint(legacy.getHost(), legacy.getPort(), Set.of()))
+                : legacy.getEndpoints().stream()
+                        .map(endpoint -> new WmsEndpoint(endpoint.getHost(), endpoint.getPort(),
+                                Set.copyOf(endpoint.getWarehouses())))
+                        .toList();
+        balancer = new WmsEndpointBalancer(endpoints, legacy.getLoadBalancing().getEjectAfterFailures(),
+                legacy.getLoadBalancing().getEjectionTime());
+        transport = new AsyncWmsTransport(IO_THREADS);
+        log.info("WMS client using endpoints {}", endpoints);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (transport != null) {
+            transport.close();
+        }
+    }
 
     /**
      * Send a message to the legacy WMS system synchronously.
      */
-    @Retryable(value = {WmsCommunicationException.class}, 
-               maxAttempts = 3, 
-               backoff = @Backoff(delay = 1000, multiplier = 2))
     public WmsTcpMessage sendMessage(WmsTcpMessage message) throws WmsCommunicationException {
+        return sendMessage(message, null);
+    }
+
+    /**
+     * Send a message synchronously to a WMS node serving the given warehouse.
+     * Blocks on the asynchronous round trip, so failed attempts are retried the same way,
+     * picking a node again each time.
+     */
+    public WmsTcpMessage sendMessage(WmsTcpMessage message, String warehouse) throws WmsCommunicationException {
         log.info("Sending TCP message to WMS: {}", message.getMessageType());
-        
-        // Set sequence number and timestamp if not provided
-        if (message.getSequenceNumber() == null) {
-            message.setSequenceNumber(String.valueOf(sequenceNumber.getAndIncrement()));
-        }
-        if (message.getTimestamp() == null) {
-            message.setTimestamp(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
-        }
+        WmsTcpMessage response = await(sendMessageAsync(message, warehouse));
+        log.info("Received response from WMS: {}", response.getMessageType());
+        return response;
+    }
 
-        try (Socket socket = createSocket()) {
-            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream()));
-            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-
-            // Send message
-            String tcpMessage = message.toTcpString();
-            log.debug("Sending TCP data: {}", tcpMessage);
-            writer.write(tcpMessage);
-            writer.newLine();
-            writer.flush();
-
-            // Read response
-            String response = reader.readLine();
-            if (response == null) {
-                throw new WmsCommunicationException("No response received from WMS");
-            }
-            
-            log.debug("Received TCP response: {}", response);
-            WmsTcpMessage responseMessage = WmsTcpMessage.fromTcpString(response);
-            log.info("Received response from WMS: {}", responseMessage.getMessageType());
-            
-            return responseMessage;
+    /**
+     * Send a message to the legacy WMS system without blocking. The round trip runs on the
+     * transport's I/O event loop and failed attempts are retried after a timer-based backoff
+     * (wms.legacy.max-retries attempts, wms.legacy.retry-delay doubling each time).
+     * The future completes on an I/O or timer thread, so callers should hand blocking
+     * follow-up work to their own executor.
+     */
+    public CompletableFuture<WmsTcpMessage> sendMessageAsync(WmsTcpMessage message) {
+        return sendMessageAsync(message, null);
+    }
 
-        } catch (IOException e) {
-            log.error("TCP communication error: {}", e.getMessage(), e);
-            throw new WmsCommunicationException("Failed to communicate with WMS: " + e.getMessage(), e);
-        } catch (Exception e) {
-            log.error("Unexpected error during TCP communication: {}", e.getMessage(), e);
-            throw new WmsCommunicationException("Unexpected error: " + e.getMessage(), e);
-        }
+    /**
+     * Send a message without blocking to a WMS node serving the given warehouse.
+     * Each retry picks a node again, so a failing node is routed around.
+     */
+    public CompletableFuture<WmsTcpMessage> sendMessageAsync(WmsTcpMessage message, String warehouse) {
+        log.debug("Sending async TCP message to WMS: {}", message.getMessageType());
+        prepare(message);
+
+        CompletableFuture<WmsTcpMessage> result = new CompletableFuture<>();
+        attemptAsync(message, warehouse, 1, result);
+        return result;
+    }
+
+    private void attemptAsync(WmsTcpMessage message, String warehouse, int attempt,
+                              CompletableFuture<WmsTcpMessage> result) {
+        WmsProperties.Legacy legacy = wmsProperties.getLegacy();
+        WmsEndpoint endpoint = balancer.acquire(warehouse);
+        resolveFraming(endpoint)
+                .thenCompose(framing -> exchange(endpoint, message, framing))
+                .whenComplete((response, error) -> {
+                    balancer.release(endpoint, error != null);
+                    if (error == null) {
+                        log.debug("Received async response from WMS: {}", response.getMessageType());
+                        result.complete(response);
+                        return;
+                    }
+
+                    WmsCommunicationException failure = toCommunicationException(error);
+                    if (attempt >= legacy.getMaxRetries()) {
+                        log.error("TCP communication failed after {} attempts: {}", attempt, failure.getMessage());
+                        result.completeExceptionally(failure);
+                        return;
+                    }
+
+                    long delay = legacy.getRetryDelay() << (attempt - 1);
+                    log.warn("TCP communication attempt {} with {} failed, retrying in {} ms: {}",
+                            attempt, endpoint, delay, failure.getMessage());
+                    transport.schedule(() -> attemptAsync(message, warehouse, attempt + 1, result), delay);
+                });
     }
 
     /**
-     * Send a message to the legacy WMS system asynchronously.
+     * One request/response round trip on the I/O event loop, without retry.
      */
-    @Async("tcpTaskExecutor")
-    public CompletableFuture<WmsTcpMessage> sendMessageAsync(WmsTcpMessage message) {
-        try {
-            WmsTcpMessage response = sendMessage(message);
-            return CompletableFuture.completedFuture(response);
-        } catch (WmsCommunicationException e) {
-            return CompletableFuture.failedFuture(e);
-        }
+    private CompletableFuture<WmsTcpMessage> exchange(WmsEndpoint endpoint, WmsTcpMessage message, WmsFraming framing) {
+        WmsProperties.Legacy legacy = wmsProperties.getLegacy();
+        return transport.exchange(endpoint.getAddress(), framing, message,
+                        legacy.getConnectionTimeout() + legacy.getReadTimeout())
+                .whenComplete((response, error) -> {
+                    if (unwrap(error) instanceof IOException) {
+                        resetNegotiation(endpoint);
+                    }
+                });
+    }
+
+    /**
+     * Send an order creation message to the WMS without blocking.
+     */
+    public CompletableFuture<WmsTcpMessage> sendOrderCreationAsync(String trackingId, String orderId,
+                                                                   String location, String data) {
+        return sendMessageAsync(orderCreationMessage(trackingId, orderId, location, data), location);
+    }
+
+    /**
+     * Send a status query message to the WMS without blocking.
+     */
+    public CompletableFuture<WmsTcpMessage> queryPackageStatusAsync(String trackingId) {
+        return queryPackageStatusAsync(trackingId, null);
+    }
+
+    /**
+     * Send a status query without blocking to the WMS node serving the package's origin warehouse.
+     */
+    public CompletableFuture<WmsTcpMessage> queryPackageStatusAsync(String trackingId, String warehouse) {
+        return sendMessageAsync(statusQueryMessage(trackingId), warehouse);
+    }
+
+    /**
+     * Send an order cancellation message to the WMS without blocking.
+     */
+    public CompletableFuture<WmsTcpMessage> cancelOrderAsync(String trackingId, String orderId) {
+        return cancelOrderAsync(trackingId, orderId, null);
+    }
+
+    /**
+     * Send an order cancellation without blocking to the WMS node serving the package's origin warehouse.
+     */
+    public CompletableFuture<WmsTcpMessage> cancelOrderAsync(String trackingId, String orderId, String warehouse) {
+        return sendMessageAsync(cancellationMessage(trackingId, orderId), warehouse);
     }
 
     /**
@@ -96,7 +195,46 @@ public class WmsTcpClientService {
      */
     public WmsTcpMessage sendOrderCreation(String trackingId, String orderId, String location, String data) 
             throws WmsCommunicationException {
-        WmsTcpMessage message = WmsTcpMessage.builder()
+        return sendMessage(orderCreationMessage(trackingId, orderId, location, data), location);
+    }
+
+    /**
+     * Send a status query message to the WMS.
+     */
+    public WmsTcpMessage queryPackageStatus(String trackingId) throws WmsCommunicationException {
+        return queryPackageStatus(trackingId, null);
+    }
+
+    /**
+     * Send a status query to the WMS node serving the package's origin warehouse.
+     */
+    public WmsTcpMessage queryPackageStatus(String trackingId, String warehouse) throws WmsCommunicationException {
+        return sendMessage(statusQueryMessage(trackingId), warehouse);
+    }
+
+    /**
+     * Send an order cancellation message to the WMS.
+     */
+    public WmsTcpMessage cancelOrder(String trackingId, String orderId) throws WmsCommunicationException {
+        return cancelOrder(trackingId, orderId, null);
+    }
+
+    /**
+     * Send an order cancellation to the WMS node serving the package's origin warehouse.
+     */
+    public WmsTcpMessage cancelOrder(String trackingId, String orderId, String warehouse) throws WmsCommunicationException {
+        return sendMessage(cancellationMessage(trackingId, orderId), warehouse);
+    }
+
+    /**
+     * All configured WMS nodes with their live balancing state.
+     */
+    public List<WmsEndpoint> getEndpoints() {
+        return balancer.getEndpoints();
+    }
+
+    private WmsTcpMessage orderCreationMessage(String trackingId, String orderId, String location, String data) {
+        return WmsTcpMessage.builder()
                 .messageType("ORDER")
                 .trackingId(trackingId)
                 .orderId(orderId)
@@ -104,43 +242,221 @@ public class WmsTcpClientService {
                 .location(location)
                 .data(data)
                 .build();
-        
-        return sendMessage(message);
     }
 
-    /**
-     * Send a status query message to the WMS.
-     */
-    public WmsTcpMessage queryPackageStatus(String trackingId) throws WmsCommunicationException {
-        WmsTcpMessage message = WmsTcpMessage.builder()
+    private WmsTcpMessage statusQueryMessage(String trackingId) {
+        return WmsTcpMessage.builder()
                 .messageType("QUERY")
                 .trackingId(trackingId)
                 .operation("STATUS")
                 .build();
-        
-        return sendMessage(message);
     }
 
-    /**
-     * Send an order cancellation message to the WMS.
-     */
-    public WmsTcpMessage cancelOrder(String trackingId, String orderId) throws WmsCommunicationException {
-        WmsTcpMessage message = WmsTcpMessage.builder()
+    private WmsTcpMessage cancellationMessage(String trackingId, String orderId) {
+        return WmsTcpMessage.builder()
                 .messageType("ORDER")
                 .trackingId(trackingId)
                 .orderId(orderId)
                 .operation("CANCEL")
                 .build();
-        
-        return sendMessage(message);
     }
 
     /**
-     * Create a TCP socket connection to the WMS.
+     * Set sequence number and timestamp if not provided.
+     */
+    private void prepare(WmsTcpMessage message) {
+        if (message.getSequenceNumber() == null) {
+            message.setSequenceNumber(String.valueOf(sequenceNumber.getAndIncrement()));
+        }
+        if (message.getTimestamp() == null) {
+            message.setTimestamp(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        }
+    }
+
+    /**
+     * Open a long-lived connection to one WMS node subscribed to its unsolicited STATUS pushes.
+     * The caller owns the returned connection and receives push messages from it.
+     */
+    public WmsConnection openStatusSubscription(WmsEndpoint endpoint) throws WmsCommunicationException {
+        WmsTcpMessage subscribe = WmsTcpMessage.builder()
+                .messageType("SUBSCRIBE")
+                .sequenceNumber(String.valueOf(sequenceNumber.getAndIncrement()))
+                .operation("STATUS")
+                .timestamp(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                .build();
+
+        WmsConnection connection = null;
+        try {
+            connection = WmsConnection.open(createSocket(endpoint), await(resolveFraming(endpoint)));
+            connection.send(subscribe);
+
+            WmsTcpMessage response = connection.receive();
+            if (response == null || !"ACK".equals(response.getMessageType())) {
+                throw new WmsCommunicationException("WMS rejected status subscription: " + response);
+            }
+
+            // Pushes arrive at arbitrary intervals, so the subscription must not time out on reads
+            connection.getSocket().setSoTimeout(0);
+            connection.getSocket().setKeepAlive(true);
+            log.info("Subscribed to WMS status pushes from {} using {} framing", endpoint, connection.getFraming());
+            return connection;
+
+        } catch (IOException e) {
+            closeQuietly(connection);
+            throw new WmsCommunicationException("Failed to subscribe to WMS status pushes: " + e.getMessage(), e);
+        } catch (WmsCommunicationException e) {
+            closeQuietly(connection);
+            throw e;
+        }
+    }
+
+    /**
+     * Framing to use for new connections to a node. BINARY is negotiated once per node over
+     * a text connection and cached; a node that does not acknowledge it is spoken to in TEXT.
+     */
+    private CompletableFuture<WmsFraming> resolveFraming(WmsEndpoint endpoint) {
+        WmsFraming configured = wmsProperties.getLegacy().getFraming();
+        if (configured == WmsFraming.TEXT) {
+            return CompletableFuture.completedFuture(WmsFraming.TEXT);
+        }
+
+        CompletableFuture<WmsFraming> framing = negotiatedFramings.get(endpoint);
+        if (framing == null) {
+            CompletableFuture<WmsFraming> negotiation = negotiate(endpoint, "FRAMING", configured.name())
+                    .thenApply(accepted -> accepted ? configured : WmsFraming.TEXT);
+            framing = negotiatedFramings.putIfAbsent(endpoint, negotiation);
+            if (framing == null) {
+                framing = negotiation;
+                negotiation.exceptionally(error -> {
+                    negotiatedFramings.remove(endpoint, negotiation);
+                    return null;
+                });
+            }
+        }
+        return framing;
+    }
+
+    /**
+     * Encoding to use for order payloads. COMPACT is used only once every node has accepted it,
+     * so any node can receive any order; until then, or if a node refuses, orders are sent as JSON.
+     */
+    public CompletableFuture<PayloadEncoding> resolvePayloadEncoding() {
+        PayloadEncoding configured = wmsProperties.getLegacy().getPayloadEncoding();
+        if (configured == PayloadEncoding.JSON) {
+            return CompletableFuture.completedFuture(PayloadEncoding.JSON);
+        }
+
+        CompletableFuture<PayloadEncoding> encoding = negotiatedPayloadEncoding;
+        if (encoding != null) {
+            return encoding;
+        }
+
+        List<CompletableFuture<Boolean>> votes = balancer.getEndpoints().stream()
+                .map(endpoint -> negotiate(endpoint, "PAYLOAD", configured.name()))
+                .toList();
+        CompletableFuture<PayloadEncoding> negotiation = CompletableFuture.allOf(votes.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> votes.stream().allMatch(CompletableFuture::join) ? configured : PayloadEncoding.JSON);
+        negotiatedPayloadEncoding = negotiation;
+        return negotiation.exceptionally(error -> {
+            // Not cached, so the next order tries again once every node is reachable
+            negotiatedPayloadEncoding = null;
+            log.warn("Could not negotiate {} payloads with every WMS node, sending JSON: {}",
+                    configured, unwrap(error).getMessage());
+            return PayloadEncoding.JSON;
+        });
+    }
+
+    /**
+     * The node may have been replaced by one that no longer understands the negotiated options.
+     */
+    private void resetNegotiation(WmsEndpoint endpoint) {
+        negotiatedFramings.remove(endpoint);
+        negotiatedPayloadEncoding = null;
+    }
+
+    /**
+     * Ask the WMS over a text connection whether it accepts a protocol option.
+     * Anything other than an ACK echoing the requested value counts as a refusal.
+     */
+    private CompletableFuture<Boolean> negotiate(WmsEndpoint endpoint, String option, String requested) {
+        WmsTcpMessage negotiate = WmsTcpMessage.builder()
+                .messageType("NEGOTIATE")
+                .sequenceNumber(String.valueOf(sequenceNumber.getAndIncrement()))
+                .operation(option)
+                .status(requested)
+                .timestamp(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                .build();
+
+        return exchange(endpoint, negotiate, WmsFraming.TEXT).handle((response, error) -> {
+            Throwable cause = unwrap(error);
+            if (cause instanceof IllegalArgumentException) {
+                log.warn("WMS {} sent an unreadable {} negotiation response, falling back to default: {}",
+                        endpoint, option, cause.getMessage());
+                return false;
+            }
+            if (cause != null) {
+                throw new CompletionException(new WmsCommunicationException(
+                        "Failed to negotiate " + option + " with WMS " + endpoint + ": " + cause.getMessage(), cause));
+            }
+
+            if ("ACK".equals(response.getMessageType()) && requested.equals(response.getStatus())) {
+                log.info("Negotiated {} {} with WMS {}", option, requested, endpoint);
+                return true;
+            }
+            log.warn("WMS {} did not accept {} {}, falling back to default: {}", endpoint, option, requested, response);
+            return false;
+        });
+    }
+
+    /**
+     * Wait for a future from a blocking code path, surfacing failures as WmsCommunicationException.
+     */
+    private <T> T await(CompletableFuture<T> future) throws WmsCommunicationException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WmsCommunicationException("Interrupted while waiting for WMS", e);
+        } catch (ExecutionException e) {
+            throw toCommunicationException(e);
+        }
+    }
+
+    private static WmsCommunicationException toCommunicationException(Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof WmsCommunicationException communicationException) {
+            return communicationException;
+        }
+        if (cause instanceof IOException || cause instanceof TimeoutException) {
+            return new WmsCommunicationException("Failed to communicate with WMS: " + cause.getMessage(), cause);
+        }
+        return new WmsCommunicationException("Unexpected error: " + cause.getMessage(), cause);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private void closeQuietly(WmsConnection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (IOException ignored) {
+                // nothing useful to do
+            }
+        }
+    }
+
+    /**
+     * Create a TCP socket connection to a WMS node.
      */
-    private Socket createSocket() throws IOException {
+    private Socket createSocket(WmsEndpoint endpoint) throws IOException {
         WmsProperties.Legacy legacy = wmsProperties.getLegacy();
-        Socket socket = new Socket(legacy.getHost(), legacy.getPort());
+        Socket socket = new Socket(endpoint.getHost(), endpoint.getPort());
         socket.setSoTimeout(legacy.getReadTimeout());
         socket.setTcpNoDelay(true);
         return socket;
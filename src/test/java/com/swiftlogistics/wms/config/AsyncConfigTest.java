@@ -0,0 +1,59 @@
+package com.swiftlogistics.wms.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * With every worker busy, the WMS response executor still queues one continuation per in-flight
+ * order and never runs it on the transport thread that completed the round trip.
+ */
+public class AsyncConfigTest {
+
+    @Test
+    public void continuationsOfInFlightOrdersNeverRunOnTransportThread() throws Exception {
+        WmsProperties properties = new WmsProperties();
+        ThreadPoolTaskExecutor executor = (ThreadPoolTaskExecutor) new AsyncConfig().tcpTaskExecutor(properties);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < executor.getMaxPoolSize(); i++) {
+                executor.execute(() -> awaitQuietly(release));
+            }
+
+            List<CompletableFuture<String>> applied = new ArrayList<>();
+            Thread completer = new Thread(() -> {
+                for (int i = 0; i < properties.getIngestion().getMaxInFlightOrders(); i++) {
+                    CompletableFuture<String> response = new CompletableFuture<>();
+                    applied.add(response.thenApplyAsync(ignored -> Thread.currentThread().getName(), (Executor) executor));
+                    response.complete("ACK");
+                }
+            }, "WMS-IO-test");
+            completer.start();
+            completer.join();
+            release.countDown();
+
+            for (CompletableFuture<String> thread : applied) {
+                assertTrue(thread.get(5, TimeUnit.SECONDS).startsWith("WMS-TCP-"));
+            }
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
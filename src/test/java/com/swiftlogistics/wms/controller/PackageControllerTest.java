@@ -0,0 +1,64 @@
+package com.swiftlogistics.wms.controller;
+
+import com.swiftlogistics.wms.config.WmsProperties;
+import com.swiftlogistics.wms.dto.PackageRevision;
+import com.swiftlogistics.wms.model.Package;
+import com.swiftlogistics.wms.model.PackageStatus;
+import com.swiftlogistics.wms.service.FieldSelectionService;
+import com.swiftlogistics.wms.service.PackageTrackingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A package refreshed from the WMS while it is fetched is sent with the validator and cache
+ * lifetime of the refreshed state, not of the state stored before the query.
+ */
+public class PackageControllerTest {
+
+    private final PackageTrackingService trackingService = mock(PackageTrackingService.class);
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(
+            new PackageController(trackingService, mock(FieldSelectionService.class), new WmsProperties())).build();
+
+    private final PackageRevision stored = PackageRevision.builder().tag("r1").status(PackageStatus.SHIPPED).build();
+    private final PackageRevision refreshed = PackageRevision.builder().tag("r2").status(PackageStatus.DELIVERED).build();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        when(trackingService.getPackageRevision("TRK-1")).thenReturn(Optional.of(stored));
+        when(trackingService.queryPackageStatus("TRK-1")).then(invocation -> {
+            // The WMS reports the package delivered, and the query applies it
+            when(trackingService.getPackageRevision("TRK-1")).thenReturn(Optional.of(refreshed));
+            return Package.builder().trackingId("TRK-1").status(PackageStatus.DELIVERED).build();
+        });
+    }
+
+    @Test
+    public void refreshedPackageCarriesItsOwnRevision() throws Exception {
+        mockMvc.perform(get("/api/wms/packages/TRK-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("DELIVERED"))
+                .andExpect(header().stringValues("ETag", "\"r2\""))
+                .andExpect(header().string("Cache-Control", containsString("max-age=86400")));
+    }
+
+    @Test
+    public void staleValidatorIsNotConfirmed() throws Exception {
+        mockMvc.perform(get("/api/wms/packages/TRK-1").header("If-None-Match", "\"r1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues("ETag", "\"r2\""));
+        mockMvc.perform(get("/api/wms/packages/TRK-1").header("If-None-Match", "\"r2\""))
+                .andExpect(status().isNotModified());
+    }
+}
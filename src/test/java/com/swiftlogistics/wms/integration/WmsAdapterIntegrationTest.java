@@ -1,7 +1,9 @@
 package com.swiftlogistics.wms.integration;
 
 import com.swiftlogistics.wms.dto.OrderDto;
+import com.swiftlogistics.wms.model.Package;
 import com.swiftlogistics.wms.model.PackageStatus;
+import com.swiftlogistics.wms.repository.PackageRepository;
 import com.swiftlogistics.wms.service.PackageTrackingService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,6 +19,9 @@ import org.springframework.web.context.WebApplicationContext;
 
 import java.time.LocalDateTime;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -45,6 +50,9 @@ public class WmsAdapterIntegrationTest {
     @Autowired
     private PackageTrackingService packageTrackingService;
 
+    @Autowired
+    private PackageRepository packageRepository;
+
     private MockMvc mockMvc;
 
     @Test
@@ -109,6 +117,74 @@ public class WmsAdapterIntegrationTest {
                 .andExpect(jsonPath("$.service_name").value("WMS Adapter Service"));
     }
 
+    @Test
+    public void testConditionalGet() throws Exception {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+        packageRepository.save(Package.builder()
+                .trackingId("TEST-TRK-ETAG")
+                .orderId("TEST-ORDER-ETAG")
+                .status(PackageStatus.PACKED)
+                .origin("WAREHOUSE-A")
+                .currentLocation("WAREHOUSE-A")
+                .build());
+
+        // Test: First fetch carries a validator
+        String etag = mockMvc.perform(get("/api/wms/packages/TEST-TRK-ETAG/history"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().string("Cache-Control", containsString("no-cache")))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Test: Unchanged package is not sent again
+        mockMvc.perform(get("/api/wms/packages/TEST-TRK-ETAG/history").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // Test: A status change invalidates the validator, and terminal packages are cacheable
+        packageTrackingService.updatePackageStatus("TEST-TRK-ETAG", PackageStatus.DELIVERED, "CUSTOMER", null);
+        mockMvc.perform(get("/api/wms/packages/TEST-TRK-ETAG/history").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)))
+                .andExpect(header().string("Cache-Control", containsString("max-age=86400")));
+    }
+
+    @Test
+    public void testBulkImport() throws Exception {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        String orders = """
+                {"order_id":"ORD-IMP-1","tracking_id":"TEST-TRK-IMP-1","origin":"WAREHOUSE-A","destination":"CITY-B","created_at":"2026-01-05T09:00:00"}
+                {"order_id":"ORD-IMP-2","tracking_id":"TEST-TRK-IMP-2","origin":"WAREHOUSE-A","destination":"CITY-C","created_at":"2026-01-05T09:05:00"}
+                """;
+        String events = """
+                {"event_type":"PACKAGE_STATUS_CHANGED","tracking_id":"TEST-TRK-IMP-1","previous_status":"RECEIVED","new_status":"PROCESSING","location":"DOCK-1","timestamp":"2026-01-05T10:00:00"}
+                {"event_type":"PACKAGE_STATUS_CHANGED","tracking_id":"TEST-TRK-IMP-1","previous_status":"PROCESSING","new_status":"SHIPPED","location":"TRUCK-7","timestamp":"2026-01-06T08:00:00"}
+                """;
+
+        // Test: Orders become packages and events rebuild their state
+        mockMvc.perform(post("/api/wms/imports/TEST-IMPORT/orders").contentType("application/x-ndjson").content(orders))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("COMPLETED"))
+                .andExpect(jsonPath("$[0].imported").value(2));
+        mockMvc.perform(post("/api/wms/imports/TEST-IMPORT/events").contentType("application/x-ndjson").content(events))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].imported").value(2));
+
+        Package imported = packageRepository.findByTrackingId("TEST-TRK-IMP-1").orElseThrow();
+        assertEquals(PackageStatus.SHIPPED, imported.getStatus());
+        assertEquals("TRUCK-7", imported.getCurrentLocation());
+        assertEquals(PackageStatus.RECEIVED, packageRepository.findByTrackingId("TEST-TRK-IMP-2").orElseThrow().getStatus());
+
+        // Test: Posting the job again resumes after its checkpoint
+        mockMvc.perform(post("/api/wms/imports/TEST-IMPORT/orders").contentType("application/x-ndjson").content(orders))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].resumedFrom").value(2))
+                .andExpect(jsonPath("$[0].imported").value(0));
+        mockMvc.perform(get("/api/wms/imports/TEST-IMPORT"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
     @Test
     public void testPackageNotFound() throws Exception {
         mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
@@ -0,0 +1,88 @@
+package com.swiftlogistics.wms.kafka;
+
+import com.swiftlogistics.wms.dto.OrderDto;
+import com.swiftlogistics.wms.dto.PackageStatusDto;
+import com.swiftlogistics.wms.dto.WarehouseEventDto;
+import com.swiftlogistics.wms.model.EventType;
+import com.swiftlogistics.wms.model.PackageStatus;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Avro payloads round-trip, and records written with an older registered schema version are
+ * resolved to the current one.
+ */
+public class AvroPayloadCodecTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 9, 30, 15, 123456000);
+
+    // Version 1 of the order record: no metadata, and a since-removed channel field
+    private static final String ORDER_V1 = """
+            {"type": "record", "name": "Order", "namespace": "com.swiftlogistics.wms.avro", "fields": [
+              {"name": "order_id", "type": ["null", "string"], "default": null},
+              {"name": "tracking_id", "type": ["null", "string"], "default": null},
+              {"name": "channel", "type": "string", "default": "web"},
+              {"name": "created_at", "type": ["null", {"type": "long", "logicalType": "local-timestamp-micros"}], "default": null}
+            ]}""";
+
+    private final LocalSchemaRegistry registry = LocalSchemaRegistry.bundled();
+    private final AvroPayloadCodec codec = new AvroPayloadCodec(registry);
+
+    @Test
+    public void payloadsRoundTrip() throws IOException {
+        OrderDto order = OrderDto.builder()
+                .orderId("ORD-1").trackingId("TRK-1").origin("WAREHOUSE-A").weight(2.5)
+                .createdAt(NOW).metadata("{\"channel\":\"web\"}")
+                .build();
+        WarehouseEventDto event = WarehouseEventDto.builder()
+                .eventType(EventType.PACKAGE_STATUS_CHANGED).trackingId("TRK-1")
+                .previousStatus(PackageStatus.PICKED).newStatus(PackageStatus.PACKED).timestamp(NOW)
+                .build();
+        PackageStatusDto status = PackageStatusDto.builder()
+                .trackingId("TRK-1").status(PackageStatus.SHIPPED).estimatedDelivery(NOW.plusDays(1)).timestamp(NOW)
+                .build();
+
+        assertEquals(order, codec.decode(codec.encode(order)));
+        assertEquals(event, codec.decode(codec.encode(event)));
+        assertEquals(status, codec.decode(codec.encode(status)));
+    }
+
+    @Test
+    public void olderWriterVersionsAreResolved() throws IOException {
+        Schema v1 = new Schema.Parser().parse(ORDER_V1);
+        GenericRecord record = new GenericData.Record(v1);
+        record.put("order_id", "ORD-1");
+        record.put("tracking_id", "TRK-1");
+        record.put("channel", "mobile");
+        record.put("created_at", 1_000_000L);
+        ByteBuffer encoded = new BinaryMessageEncoder<GenericRecord>(GenericData.get(), v1).encode(record);
+        byte[] bytes = new byte[encoded.remaining()];
+        encoded.get(bytes);
+
+        assertThrows(IOException.class, () -> codec.decode(bytes));
+
+        registry.register(v1);
+        OrderDto order = (OrderDto) codec.decode(bytes);
+        assertEquals("TRK-1", order.getTrackingId());
+        assertEquals(LocalDateTime.of(1970, 1, 1, 0, 0, 1), order.getCreatedAt());
+        assertNull(order.getMetadata());
+    }
+
+    @Test
+    public void incompatibleVersionsAreRejected() {
+        Schema retyped = new Schema.Parser().parse(ORDER_V1.replace(
+                "\"order_id\", \"type\": [\"null\", \"string\"], \"default\": null", "\"order_id\", \"type\": \"long\""));
+        assertThrows(IllegalArgumentException.class, () -> registry.register(retyped));
+    }
+}
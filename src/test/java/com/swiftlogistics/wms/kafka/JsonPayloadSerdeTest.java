@@ -0,0 +1,52 @@
+package com.swiftlogistics.wms.kafka;
+
+import com.swiftlogistics.wms.config.JacksonConfig;
+import com.swiftlogistics.wms.dto.DtoJsonCodecs;
+import com.swiftlogistics.wms.dto.OrderDto;
+import com.swiftlogistics.wms.dto.PackageStatusDto;
+import com.swiftlogistics.wms.model.PackageStatus;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Payload DTOs and other values round-trip through the JSON serdes with type headers,
+ * with and without Blackbird.
+ */
+public class JsonPayloadSerdeTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 9, 30, 15, 123456789);
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void valuesRoundTripWithTypeHeaders(boolean blackbird) {
+        DtoJsonCodecs codecs = new DtoJsonCodecs(JacksonConfig.objectMapper(blackbird));
+        JsonPayloadSerializer serializer = new JsonPayloadSerializer(codecs);
+        JsonPayloadDeserializer deserializer = new JsonPayloadDeserializer(codecs);
+        serializer.configure(Map.of(), false);
+        deserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "*"), false);
+
+        OrderDto order = OrderDto.builder()
+                .orderId("ORD-1").trackingId("TRK-1").customerId("CUST-1").weight(2.5).createdAt(NOW)
+                .build();
+        PackageStatusDto status = PackageStatusDto.builder()
+                .trackingId("TRK-1").status(PackageStatus.SHIPPED).timestamp(NOW)
+                .build();
+        Map<String, Object> other = new HashMap<>(Map.of("message", "ping"));
+
+        for (Object value : new Object[] {order, status, other}) {
+            RecordHeaders headers = new RecordHeaders();
+            byte[] bytes = serializer.serialize("topic", headers, value);
+            assertEquals(value, deserializer.deserialize("topic", headers, bytes));
+            assertNull(headers.lastHeader("__TypeId__"));
+        }
+    }
+}
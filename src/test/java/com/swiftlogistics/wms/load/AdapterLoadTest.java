@@ -0,0 +1,330 @@
+package com.swiftlogistics.wms.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiftlogistics.wms.dto.OrderDto;
+import com.swiftlogistics.wms.service.PackageTrackingService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load test harness driving the full adapter pipeline: orders are published to the embedded
+ * Kafka orders topic at a fixed rate together with a mix of cancellations and status queries,
+ * processed against H2 and the Mock WMS server, and timed until the resulting PROCESSING
+ * status appears on the package-status topic.
+ *
+ * <p>Latency is measured between the Kafka timestamps of the order record and of its first
+ * PROCESSING package-status record. The run fails when throughput or latency regress beyond
+ * the tolerance against {@code load/baseline.properties}.
+ *
+ * <p>Excluded from the default build; run with {@code ./mvnw test -Pload-test}. Tunables are
+ * system properties: {@code load.orders-per-second}, {@code load.duration-seconds},
+ * {@code load.cancellation-ratio}, {@code load.query-ratio}, {@code load.tolerance},
+ * {@code load.seed} and {@code load.update-baseline}.
+ */
+@Slf4j
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@DirtiesContext
+@EmbeddedKafka(
+    partitions = 3,
+    topics = { "orders", "order-cancellations", "test-package-status", "test-warehouse-events" },
+    bootstrapServersProperty = "spring.kafka.bootstrap-servers"
+)
+@TestPropertySource(properties = {
+    "wms.mock.enabled=true",
+    "wms.legacy.port=9999",
+    "logging.level.com.swiftlogistics.wms=WARN",
+    "logging.level.org.hibernate.SQL=WARN",
+    "spring.jpa.show-sql=false"
+})
+public class AdapterLoadTest {
+
+    private static final String ORDERS_TOPIC = "orders";
+    private static final String CANCELLATIONS_TOPIC = "order-cancellations";
+    private static final String PACKAGE_STATUS_TOPIC = "test-package-status";
+    private static final Path REPORT_FILE = Path.of("target", "load-test", "report.properties");
+    private static final Path BASELINE_FILE = Path.of("src", "test", "resources", "load", "baseline.properties");
+
+    @Autowired
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafka;
+
+    @Autowired
+    private PackageTrackingService packageTrackingService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<String, Long> orderTimestamps = new ConcurrentHashMap<>();
+    private final Map<String, Long> processedTimestamps = new ConcurrentHashMap<>();
+
+    @Test
+    public void sustainedOrderLoad() throws Exception {
+        LoadProfile profile = LoadProfile.fromSystemProperties();
+        log.warn("Starting load run: {}", profile);
+
+        AtomicBoolean consuming = new AtomicBoolean(true);
+        Consumer<String, String> statusConsumer = createStatusConsumer();
+        Thread consumerThread = new Thread(() -> consumeStatuses(statusConsumer, consuming), "load-status-consumer");
+        consumerThread.start();
+
+        ExecutorService queryExecutor = Executors.newFixedThreadPool(4);
+        AtomicLong queryFailures = new AtomicLong();
+        Random random = new Random(profile.seed());
+        List<String> sent = new ArrayList<>();
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / profile.ordersPerSecond();
+        long totalOrders = (long) profile.ordersPerSecond() * profile.durationSeconds();
+        long start = System.nanoTime();
+
+        for (long i = 0; i < totalOrders; i++) {
+            long due = start + i * intervalNanos;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+
+            String trackingId = "LOAD-TRK-" + i;
+            publishOrder(trackingId, "LOAD-ORD-" + i);
+            sent.add(trackingId);
+
+            if (random.nextDouble() < profile.cancellationRatio()) {
+                String target = sent.get(random.nextInt(sent.size()));
+                kafkaTemplate.send(CANCELLATIONS_TOPIC, target, target + ":Load test cancellation");
+            }
+            if (random.nextDouble() < profile.queryRatio()) {
+                String target = sent.get(random.nextInt(sent.size()));
+                queryExecutor.submit(() -> {
+                    try {
+                        packageTrackingService.queryPackageStatus(target);
+                    } catch (Exception e) {
+                        queryFailures.incrementAndGet();
+                    }
+                });
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(profile.drainSeconds());
+        while (processedTimestamps.size() < totalOrders && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        consuming.set(false);
+        consumerThread.join();
+        queryExecutor.shutdownNow();
+
+        LoadResult result = LoadResult.from(profile, totalOrders, elapsedNanos, latencies(), queryFailures.get());
+        log.warn("Load run finished: {}", result);
+        writeProperties(REPORT_FILE, result.toProperties());
+
+        assertTrue(result.completionRatio() >= 0.99,
+                "Only " + result.completed() + " of " + totalOrders + " orders reached PROCESSING");
+
+        if (Boolean.getBoolean("load.update-baseline")) {
+            writeProperties(BASELINE_FILE, result.toProperties());
+            log.warn("Baseline updated at {}", BASELINE_FILE);
+        } else {
+            assertNoRegression(result, profile.tolerance());
+        }
+    }
+
+    private void publishOrder(String trackingId, String orderId) {
+        OrderDto order = OrderDto.builder()
+                .orderId(orderId)
+                .trackingId(trackingId)
+                .customerId("LOAD-CUSTOMER")
+                .origin("WAREHOUSE-A")
+                .destination("Load Test Address")
+                .weight(1.5)
+                .dimensions("30x20x15")
+                .priority("STANDARD")
+                .expectedDeliveryDate(LocalDateTime.now().plusDays(2))
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        kafkaTemplate.send(ORDERS_TOPIC, trackingId, order)
+                .thenAccept(result -> orderTimestamps.put(trackingId, result.getRecordMetadata().timestamp()));
+    }
+
+    private Consumer<String, String> createStatusConsumer() {
+        Map<String, Object> props = KafkaTestUtils.consumerProps("load-test-observer", "false", embeddedKafka);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        Consumer<String, String> consumer = new DefaultKafkaConsumerFactory<>(props,
+                new StringDeserializer(), new StringDeserializer()).createConsumer();
+        embeddedKafka.consumeFromAnEmbeddedTopic(consumer, PACKAGE_STATUS_TOPIC);
+        return consumer;
+    }
+
+    private void consumeStatuses(Consumer<String, String> consumer, AtomicBoolean consuming) {
+        try (consumer) {
+            while (consuming.get()) {
+                for (ConsumerRecord<String, String> record : consumer.poll(Duration.ofMillis(200))) {
+                    if (record.key() != null && isProcessing(record.value())) {
+                        processedTimestamps.putIfAbsent(record.key(), record.timestamp());
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean isProcessing(String statusJson) {
+        try {
+            JsonNode node = objectMapper.readTree(statusJson);
+            return "PROCESSING".equals(node.path("status").asText());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private long[] latencies() {
+        return processedTimestamps.entrySet().stream()
+                .filter(entry -> orderTimestamps.containsKey(entry.getKey()))
+                .mapToLong(entry -> Math.max(0, entry.getValue() - orderTimestamps.get(entry.getKey())))
+                .sorted()
+                .toArray();
+    }
+
+    private void assertNoRegression(LoadResult result, double tolerance) throws IOException {
+        Properties baseline = new Properties();
+        try (InputStream in = getClass().getResourceAsStream("/load/baseline.properties")) {
+            if (in == null) {
+                log.warn("No load baseline found, skipping regression check");
+                return;
+            }
+            baseline.load(in);
+        }
+
+        if (!result.profile().matches(baseline)) {
+            log.warn("Load profile differs from baseline, skipping regression check");
+            return;
+        }
+
+        double baselineThroughput = Double.parseDouble(baseline.getProperty("throughput"));
+        assertTrue(result.throughput() >= baselineThroughput * (1 - tolerance),
+                String.format("Throughput regressed: %.1f/s vs baseline %.1f/s", result.throughput(), baselineThroughput));
+
+        for (String percentile : List.of("p50", "p99", "p999")) {
+            long baselineLatency = Long.parseLong(baseline.getProperty("latency." + percentile + ".ms"));
+            long latency = Long.parseLong(result.toProperties().getProperty("latency." + percentile + ".ms"));
+            // Allow a small absolute slack so millisecond-level baselines are not flaky
+            assertTrue(latency <= baselineLatency * (1 + tolerance) + 50,
+                    String.format("Latency %s regressed: %dms vs baseline %dms", percentile, latency, baselineLatency));
+        }
+    }
+
+    private static void writeProperties(Path file, Properties properties) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (OutputStream out = Files.newOutputStream(file)) {
+            properties.store(out, "WMS adapter load test result");
+        }
+    }
+
+    /**
+     * Parameters of a load run, read from system properties.
+     */
+    record LoadProfile(int ordersPerSecond, int durationSeconds, int drainSeconds, double cancellationRatio,
+                       double queryRatio, double tolerance, long seed) {
+
+        static LoadProfile fromSystemProperties() {
+            return new LoadProfile(
+                    Integer.getInteger("load.orders-per-second", 15),
+                    Integer.getInteger("load.duration-seconds", 20),
+                    Integer.getInteger("load.drain-seconds", 60),
+                    Double.parseDouble(System.getProperty("load.cancellation-ratio", "0.05")),
+                    Double.parseDouble(System.getProperty("load.query-ratio", "0.2")),
+                    Double.parseDouble(System.getProperty("load.tolerance", "0.25")),
+                    Long.getLong("load.seed", 42L));
+        }
+
+        boolean matches(Properties baseline) {
+            return String.valueOf(ordersPerSecond).equals(baseline.getProperty("profile.orders-per-second"))
+                    && String.valueOf(durationSeconds).equals(baseline.getProperty("profile.duration-seconds"))
+                    && String.valueOf(cancellationRatio).equals(baseline.getProperty("profile.cancellation-ratio"))
+                    && String.valueOf(queryRatio).equals(baseline.getProperty("profile.query-ratio"));
+        }
+    }
+
+    /**
+     * Outcome of a load run.
+     */
+    record LoadResult(LoadProfile profile, long sent, long completed, double throughput,
+                      long p50, long p99, long p999, long max, long queryFailures) {
+
+        static LoadResult from(LoadProfile profile, long sent, long elapsedNanos, long[] latencies, long queryFailures) {
+            double seconds = elapsedNanos / 1_000_000_000.0;
+            return new LoadResult(profile, sent, latencies.length, latencies.length / seconds,
+                    percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999),
+                    latencies.length == 0 ? 0 : latencies[latencies.length - 1], queryFailures);
+        }
+
+        double completionRatio() {
+            return sent == 0 ? 1.0 : (double) completed / sent;
+        }
+
+        Properties toProperties() {
+            Properties properties = new Properties();
+            properties.setProperty("profile.orders-per-second", String.valueOf(profile.ordersPerSecond()));
+            properties.setProperty("profile.duration-seconds", String.valueOf(profile.durationSeconds()));
+            properties.setProperty("profile.cancellation-ratio", String.valueOf(profile.cancellationRatio()));
+            properties.setProperty("profile.query-ratio", String.valueOf(profile.queryRatio()));
+            properties.setProperty("orders.sent", String.valueOf(sent));
+            properties.setProperty("orders.completed", String.valueOf(completed));
+            properties.setProperty("throughput", String.format("%.2f", throughput));
+            properties.setProperty("latency.p50.ms", String.valueOf(p50));
+            properties.setProperty("latency.p99.ms", String.valueOf(p99));
+            properties.setProperty("latency.p999.ms", String.valueOf(p999));
+            properties.setProperty("latency.max.ms", String.valueOf(max));
+            properties.setProperty("queries.failed", String.valueOf(queryFailures));
+            return properties;
+        }
+
+        private static long percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+    }
+}
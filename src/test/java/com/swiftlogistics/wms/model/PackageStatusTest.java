@@ -0,0 +1,31 @@
+package com.swiftlogistics.wms.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The transition table agrees with {@link PackageStatus#isTerminal()}: terminal statuses accept no
+ * transition, and every other status can still move on.
+ */
+public class PackageStatusTest {
+
+    @Test
+    public void deliveredPackageCannotBeReturned() {
+        assertFalse(PackageStatus.DELIVERED.canTransitionTo(PackageStatus.RETURNED));
+        assertTrue(PackageStatus.SHIPPED.canTransitionTo(PackageStatus.RETURNED));
+    }
+
+    @Test
+    public void onlyTerminalStatusesAreFinal() {
+        for (PackageStatus from : PackageStatus.values()) {
+            boolean canMove = false;
+            for (PackageStatus to : PackageStatus.values()) {
+                canMove |= from.canTransitionTo(to);
+            }
+            assertEquals(!from.isTerminal(), canMove, from.name());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.swiftlogistics.wms.protocol;
+
+import com.swiftlogistics.wms.dto.WmsTcpMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Non-blocking exchanges complete with the response, fail with a TimeoutException when the
+ * WMS does not answer in time, and fail with an IOException when it cannot be reached or hangs up.
+ */
+public class AsyncWmsTransportTest {
+
+    private AsyncWmsTransport transport;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        transport = new AsyncWmsTransport(1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        transport.close();
+    }
+
+    @Test
+    public void exchangeCompletesWithResponse() throws Exception {
+        try (ScriptedWmsServer server = ScriptedWmsServer.acking()) {
+            WmsTcpMessage response = transport.exchange(server.getAddress(), WmsFraming.TEXT, query("TRK-1"), 2000)
+                    .get(5, TimeUnit.SECONDS);
+
+            assertEquals("ACK", response.getMessageType());
+            assertEquals("TRK-1", response.getTrackingId());
+        }
+    }
+
+    @Test
+    public void exchangeTimesOutWithoutResponse() throws Exception {
+        try (ScriptedWmsServer server = new ScriptedWmsServer((request, connection) -> ScriptedWmsServer.SILENT)) {
+            long started = System.nanoTime();
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> transport
+                    .exchange(server.getAddress(), WmsFraming.TEXT, query("TRK-1"), 200)
+                    .get(5, TimeUnit.SECONDS));
+
+            assertInstanceOf(TimeoutException.class, failure.getCause());
+            assertEquals(0, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started));
+        }
+    }
+
+    @Test
+    public void exchangeFailsWhenConnectionIsClosedWithoutResponse() throws Exception {
+        try (ScriptedWmsServer server = new ScriptedWmsServer((request, connection) -> null)) {
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> transport
+                    .exchange(server.getAddress(), WmsFraming.TEXT, query("TRK-1"), 2000)
+                    .get(5, TimeUnit.SECONDS));
+
+            assertInstanceOf(IOException.class, failure.getCause());
+        }
+    }
+
+    @Test
+    public void exchangeFailsWhenConnectionIsRefused() throws Exception {
+        InetSocketAddress unused;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            unused = new InetSocketAddress("localhost", socket.getLocalPort());
+        }
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> transport
+                .exchange(unused, WmsFraming.TEXT, query("TRK-1"), 2000)
+                .get(5, TimeUnit.SECONDS));
+
+        assertInstanceOf(IOException.class, failure.getCause());
+    }
+
+    private static WmsTcpMessage query(String trackingId) {
+        return WmsTcpMessage.builder()
+                .messageType("QUERY")
+                .sequenceNumber("1")
+                .trackingId(trackingId)
+                .operation("STATUS")
+                .timestamp("2026-03-01T09:30:00")
+                .build();
+    }
+}
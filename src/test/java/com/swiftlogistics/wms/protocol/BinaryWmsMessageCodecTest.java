@@ -0,0 +1,143 @@
+package com.swiftlogistics.wms.protocol;
+
+import com.swiftlogistics.wms.dto.WmsTcpMessage;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Messages round-trip through binary frames with null, empty, non-ASCII and maximum-length
+ * fields kept as written, and malformed frames are rejected.
+ */
+public class BinaryWmsMessageCodecTest {
+
+    private final BinaryWmsMessageCodec codec = BinaryWmsMessageCodec.INSTANCE;
+
+    @Test
+    public void messageWithCodedHeadersRoundTrips() throws IOException {
+        WmsTcpMessage message = WmsTcpMessage.builder()
+                .messageType("STATUS").sequenceNumber("42").operation("PUSH").status("SHIPPED")
+                .trackingId("TRK-1").orderId("ORD-1").location("Dock 4").timestamp("2026-03-01T09:30:15")
+                .data("{\"weight\":2.5}|line\nbreak")
+                .build();
+
+        assertEquals(message, roundTrip(message));
+    }
+
+    @Test
+    public void nullFieldsStayNull() throws IOException {
+        WmsTcpMessage message = WmsTcpMessage.builder().messageType("PING").build();
+
+        WmsTcpMessage decoded = roundTrip(message);
+
+        assertEquals(message, decoded);
+        assertNull(decoded.getTrackingId());
+        assertNull(decoded.getData());
+        assertNull(decoded.getSequenceNumber());
+    }
+
+    @Test
+    public void emptyFieldsStayEmpty() throws IOException {
+        WmsTcpMessage message = WmsTcpMessage.builder()
+                .messageType("").sequenceNumber("").operation("").status("")
+                .trackingId("").orderId("").location("").timestamp("").data("")
+                .build();
+
+        assertEquals(message, roundTrip(message));
+    }
+
+    @Test
+    public void literalHeadersRoundTrip() throws IOException {
+        WmsTcpMessage message = WmsTcpMessage.builder()
+                .messageType("INVENTORY").sequenceNumber("007").operation("RECOUNT").status("ON_HOLD")
+                .trackingId("TRK-1")
+                .build();
+
+        assertEquals(message, roundTrip(message));
+    }
+
+    @Test
+    public void nonAsciiFieldsRoundTrip() throws IOException {
+        WmsTcpMessage message = WmsTcpMessage.builder()
+                .messageType("STATUS").status("ÜBERGEBEN").trackingId("TRK-ß-1")
+                .location("Lager Köln 倉庫 🚚").data("{\"note\":\"zerbrechlich — 易碎\"}")
+                .build();
+
+        assertEquals(message, roundTrip(message));
+    }
+
+    @Test
+    public void maximumLengthFieldRoundTrips() throws IOException {
+        WmsTcpMessage message = WmsTcpMessage.builder()
+                .messageType("STATUS").location("x".repeat(0xFFFE))
+                .build();
+
+        assertEquals(message, roundTrip(message));
+    }
+
+    @Test
+    public void overlongFieldIsRejected() {
+        WmsTcpMessage message = WmsTcpMessage.builder()
+                .messageType("STATUS").location("x".repeat(0xFFFF))
+                .build();
+
+        assertThrows(ProtocolException.class, () -> codec.write(new ByteArrayOutputStream(), message));
+    }
+
+    @Test
+    public void frameLengthMatchesEncodedFrame() throws IOException {
+        byte[] frame = encode(WmsTcpMessage.builder().messageType("ACK").trackingId("TRK-1").build());
+
+        assertEquals(frame.length, codec.frameLength(frame, frame.length));
+        assertEquals(-1, codec.frameLength(frame, frame.length - 1));
+    }
+
+    @Test
+    public void truncatedFrameIsRejected() throws IOException {
+        byte[] frame = encode(WmsTcpMessage.builder().messageType("ACK").trackingId("TRK-1").data("payload").build());
+        // Shrink the declared body so the payload length points past its end
+        frame[5] -= 3;
+        byte[] truncated = Arrays.copyOf(frame, frame.length - 3);
+
+        assertThrows(ProtocolException.class, () -> codec.read(new ByteArrayInputStream(truncated)));
+    }
+
+    @Test
+    public void unknownVersionIsRejected() throws IOException {
+        byte[] frame = encode(WmsTcpMessage.builder().messageType("ACK").build());
+        frame[1] = 1;
+
+        assertThrows(ProtocolException.class, () -> codec.read(new ByteArrayInputStream(frame)));
+    }
+
+    @Test
+    public void emptyStreamReadsAsEnd() throws IOException {
+        assertNull(codec.read(new ByteArrayInputStream(new byte[0])));
+    }
+
+    @Test
+    public void encodingIsStable() throws IOException {
+        WmsTcpMessage message = WmsTcpMessage.builder().messageType("ACK").trackingId("TRK-1").build();
+
+        assertArrayEquals(encode(message), encode(roundTrip(message)));
+    }
+
+    private WmsTcpMessage roundTrip(WmsTcpMessage message) throws IOException {
+        return codec.read(new ByteArrayInputStream(encode(message)));
+    }
+
+    private byte[] encode(WmsTcpMessage message) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.write(out, message);
+        return out.toByteArray();
+    }
+}
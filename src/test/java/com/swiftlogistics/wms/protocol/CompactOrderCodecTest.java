@@ -0,0 +1,113 @@
+package com.swiftlogistics.wms.protocol;
+
+import com.swiftlogistics.wms.dto.OrderDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Orders round-trip through the compact payload field for field, and payloads that are not
+ * well-formed compact orders are rejected with an IllegalArgumentException.
+ */
+public class CompactOrderCodecTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 9, 30, 15, 123456789);
+
+    @Test
+    public void fullOrderRoundTrips() {
+        OrderDto order = OrderDto.builder()
+                .orderId("ORD-1").trackingId("TRK-1").customerId("CUST-1")
+                .origin("Köln Lager 3").destination("東京都 1-2-3").weight(2.5).dimensions("30x20x10")
+                .priority("HIGH").serviceType("EXPRESS").expectedDeliveryDate(NOW.plusDays(2))
+                .specialInstructions("Fragile | keep upright\nno stacking").createdAt(NOW)
+                .metadata("{\"gift\":true}")
+                .build();
+
+        String payload = CompactOrderCodec.encode(order);
+
+        assertTrue(CompactOrderCodec.isCompact(payload));
+        assertEquals(order, CompactOrderCodec.decode(payload));
+    }
+
+    @Test
+    public void absentAndEmptyFieldsRoundTrip() {
+        OrderDto order = OrderDto.builder().orderId("ORD-1").customerId("").weight(0.0).build();
+
+        assertEquals(order, CompactOrderCodec.decode(CompactOrderCodec.encode(order)));
+    }
+
+    @Test
+    public void extremeValuesRoundTrip() {
+        OrderDto order = OrderDto.builder()
+                .orderId("x".repeat(100_000)).weight(-Double.MAX_VALUE)
+                .expectedDeliveryDate(LocalDateTime.of(1901, 1, 1, 0, 0, 0, 999999999))
+                .createdAt(LocalDateTime.of(9999, 12, 31, 23, 59, 59))
+                .build();
+
+        assertEquals(order, CompactOrderCodec.decode(CompactOrderCodec.encode(order)));
+    }
+
+    @Test
+    public void jsonIsNotCompact() {
+        assertFalse(CompactOrderCodec.isCompact("{\"orderId\":\"ORD-1\"}"));
+        assertFalse(CompactOrderCodec.isCompact(null));
+        assertThrows(IllegalArgumentException.class, () -> CompactOrderCodec.decode("{\"orderId\":\"ORD-1\"}"));
+    }
+
+    @Test
+    public void invalidBase64IsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> CompactOrderCodec.decode(CompactOrderCodec.PREFIX + "not base64!"));
+    }
+
+    @Test
+    public void truncatedPayloadIsRejected() {
+        byte[] payload = bytes(OrderDto.builder().orderId("ORD-1").createdAt(NOW).build());
+
+        for (int length = 0; length < payload.length; length++) {
+            String truncated = compact(Arrays.copyOf(payload, length));
+            assertThrows(IllegalArgumentException.class, () -> CompactOrderCodec.decode(truncated));
+        }
+    }
+
+    @Test
+    public void trailingBytesAreRejected() {
+        byte[] payload = bytes(OrderDto.builder().orderId("ORD-1").build());
+
+        String padded = compact(Arrays.copyOf(payload, payload.length + 1));
+
+        assertThrows(IllegalArgumentException.class, () -> CompactOrderCodec.decode(padded));
+    }
+
+    @Test
+    public void overlongVarintIsRejected() {
+        byte[] payload = new byte[2 + 11];
+        // Only orderId present; its length varint never terminates
+        payload[1] = 1;
+        Arrays.fill(payload, 2, payload.length, (byte) 0xFF);
+
+        assertThrows(IllegalArgumentException.class, () -> CompactOrderCodec.decode(compact(payload)));
+    }
+
+    @Test
+    public void negativeStringLengthIsRejected() {
+        // Only orderId present, with zigzag length -1
+        byte[] payload = {0, 1, 1};
+
+        assertThrows(IllegalArgumentException.class, () -> CompactOrderCodec.decode(compact(payload)));
+    }
+
+    private static byte[] bytes(OrderDto order) {
+        return Base64.getDecoder().decode(CompactOrderCodec.encode(order).substring(CompactOrderCodec.PREFIX.length()));
+    }
+
+    private static String compact(byte[] payload) {
+        return CompactOrderCodec.PREFIX + Base64.getEncoder().withoutPadding().encodeToString(payload);
+    }
+}
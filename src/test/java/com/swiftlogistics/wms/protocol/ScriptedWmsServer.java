@@ -0,0 +1,115 @@
+package com.swiftlogistics.wms.protocol;
+
+import com.swiftlogistics.wms.dto.WmsTcpMessage;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Text-framed WMS stand-in for tests. Each request is answered by a responder given the request
+ * and the 1-based number of the connection it arrived on; a null answer closes the connection
+ * without a response, and {@link #SILENT} keeps it open without answering.
+ */
+public class ScriptedWmsServer implements Closeable {
+
+    public static final WmsTcpMessage SILENT = WmsTcpMessage.builder().messageType("SILENT").build();
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+    private final BiFunction<WmsTcpMessage, Integer, WmsTcpMessage> responder;
+
+    public ScriptedWmsServer(BiFunction<WmsTcpMessage, Integer, WmsTcpMessage> responder) throws IOException {
+        this.responder = responder;
+        this.serverSocket = new ServerSocket(0);
+        executor.submit(this::accept);
+    }
+
+    /**
+     * Server answering every request with an ACK of its type.
+     */
+    public static ScriptedWmsServer acking() throws IOException {
+        return new ScriptedWmsServer((request, connection) -> ack(request));
+    }
+
+    public static WmsTcpMessage ack(WmsTcpMessage request) {
+        return WmsTcpMessage.builder()
+                .messageType("ACK")
+                .sequenceNumber(request.getSequenceNumber())
+                .trackingId(request.getTrackingId())
+                .operation(request.getOperation())
+                .status("OK")
+                .build();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public InetSocketAddress getAddress() {
+        return new InetSocketAddress("localhost", getPort());
+    }
+
+    /**
+     * Connections accepted so far.
+     */
+    public int getConnections() {
+        return connections.get();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                sockets.add(socket);
+                int connection = connections.incrementAndGet();
+                executor.submit(() -> serve(socket, connection));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket, int connection) {
+        WmsMessageCodec codec = WmsMessageCodec.forFraming(WmsFraming.TEXT);
+        try (socket) {
+            BufferedInputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = socket.getOutputStream();
+            WmsTcpMessage request;
+            while ((request = codec.read(in)) != null) {
+                WmsTcpMessage response = responder.apply(request, connection);
+                if (response == SILENT) {
+                    continue;
+                }
+                if (response == null) {
+                    return;
+                }
+                codec.write(out, response);
+                out.flush();
+            }
+        } catch (IOException ignored) {
+            // connection closed by the client or the server shutting down
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+        executor.shutdownNow();
+    }
+}
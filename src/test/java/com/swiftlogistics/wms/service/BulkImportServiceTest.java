@@ -0,0 +1,86 @@
+package com.swiftlogistics.wms.service;
+
+import com.swiftlogistics.wms.model.Package;
+import com.swiftlogistics.wms.model.PackageStatus;
+import com.swiftlogistics.wms.repository.PackageRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Imported events move packages only along the transition table, and never behind a newer live update.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration",
+    "mock-wms.enabled=false"
+})
+public class BulkImportServiceTest {
+
+    private static final LocalDateTime HISTORY = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Autowired
+    private PackageRepository packageRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private KafkaProducerService kafkaProducerService;
+
+    @Test
+    public void importedEventsRespectTheTransitionTableAndLiveUpdates() throws Exception {
+        savePackage("TRK-IMPORT-FORWARD", PackageStatus.RECEIVED, HISTORY.minusDays(1));
+        savePackage("TRK-IMPORT-BACKWARD", PackageStatus.SHIPPED, HISTORY.minusDays(1));
+        savePackage("TRK-IMPORT-STALE", PackageStatus.PICKED, HISTORY.plusDays(1));
+
+        String events = String.join("\n",
+                event("TRK-IMPORT-FORWARD", PackageStatus.PACKED, "DOCK-1"),
+                event("TRK-IMPORT-BACKWARD", PackageStatus.PICKED, "DOCK-2"),
+                event("TRK-IMPORT-STALE", PackageStatus.PICKED, "DOCK-3"));
+        bulkImportService.importEvents("job-transitions",
+                new ByteArrayInputStream(events.getBytes(StandardCharsets.UTF_8)));
+
+        Package forward = packageRepository.findByTrackingId("TRK-IMPORT-FORWARD").orElseThrow();
+        assertEquals(PackageStatus.PACKED, forward.getStatus());
+        assertEquals("DOCK-1", forward.getCurrentLocation());
+
+        Package backward = packageRepository.findByTrackingId("TRK-IMPORT-BACKWARD").orElseThrow();
+        assertEquals(PackageStatus.SHIPPED, backward.getStatus());
+        assertEquals("WAREHOUSE-A", backward.getCurrentLocation());
+
+        Package stale = packageRepository.findByTrackingId("TRK-IMPORT-STALE").orElseThrow();
+        assertEquals(PackageStatus.PICKED, stale.getStatus());
+        assertEquals("WAREHOUSE-A", stale.getCurrentLocation());
+    }
+
+    private void savePackage(String trackingId, PackageStatus status, LocalDateTime updatedAt) {
+        packageRepository.save(Package.builder()
+                .trackingId(trackingId)
+                .orderId("ORD-" + trackingId)
+                .status(status)
+                .origin("WAREHOUSE-A")
+                .currentLocation("WAREHOUSE-A")
+                .build());
+        jdbcTemplate.update("UPDATE packages SET updated_at = ? WHERE tracking_id = ?", updatedAt, trackingId);
+    }
+
+    private static String event(String trackingId, PackageStatus status, String location) {
+        return "{\"event_type\":\"PACKAGE_STATUS_CHANGED\",\"tracking_id\":\"" + trackingId + "\",\"new_status\":\""
+                + status + "\",\"location\":\"" + location + "\",\"timestamp\":\"" + HISTORY + "\"}";
+    }
+}
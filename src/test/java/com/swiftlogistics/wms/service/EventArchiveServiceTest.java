@@ -0,0 +1,87 @@
+package com.swiftlogistics.wms.service;
+
+import com.swiftlogistics.wms.model.Package;
+import com.swiftlogistics.wms.model.PackageStatus;
+import com.swiftlogistics.wms.model.WarehouseEvent;
+import com.swiftlogistics.wms.repository.PackageRepository;
+import com.swiftlogistics.wms.repository.WarehouseEventRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Archival moves the events of terminal packages out of the table, and history lookups still
+ * return them.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration",
+    "mock-wms.enabled=false",
+    "wms.archive.enabled=true",
+    "wms.archive.retention=0",
+    "wms.archive.batch-size=2"
+})
+public class EventArchiveServiceTest {
+
+    @TempDir
+    static Path archiveDirectory;
+
+    @DynamicPropertySource
+    static void archiveProperties(DynamicPropertyRegistry registry) {
+        registry.add("wms.archive.directory", archiveDirectory::toString);
+    }
+
+    @Autowired
+    private EventArchiveService eventArchiveService;
+
+    @Autowired
+    private PackageTrackingService packageTrackingService;
+
+    @Autowired
+    private PackageRepository packageRepository;
+
+    @Autowired
+    private WarehouseEventRepository eventRepository;
+
+    @MockitoBean
+    private KafkaProducerService kafkaProducerService;
+
+    @Test
+    public void archivedEventsStayInHistory() throws Exception {
+        for (String trackingId : List.of("TRK-ARCHIVE-DONE", "TRK-ARCHIVE-OPEN")) {
+            packageRepository.save(Package.builder()
+                    .trackingId(trackingId)
+                    .orderId("ORD-" + trackingId)
+                    .status(PackageStatus.RECEIVED)
+                    .origin("WAREHOUSE-A")
+                    .currentLocation("WAREHOUSE-A")
+                    .build());
+            packageTrackingService.updatePackageStatus(trackingId, PackageStatus.PROCESSING, "DOCK-1", null);
+            packageTrackingService.updatePackageStatus(trackingId, PackageStatus.SHIPPED, "TRUCK-7", null);
+        }
+        packageTrackingService.updatePackageStatus("TRK-ARCHIVE-DONE", PackageStatus.DELIVERED, "CUSTOMER", null);
+        List<WarehouseEvent> history = packageTrackingService.getPackageHistory("TRK-ARCHIVE-DONE");
+        Thread.sleep(10);
+
+        eventArchiveService.archiveExpiredEvents();
+
+        // Only the terminal package is archived, across several batches
+        assertTrue(eventRepository.findByTrackingId("TRK-ARCHIVE-DONE").isEmpty());
+        assertEquals(2, eventRepository.findByTrackingId("TRK-ARCHIVE-OPEN").size());
+        assertEquals(history.stream().map(WarehouseEvent::getId).toList(),
+                packageTrackingService.getPackageHistory("TRK-ARCHIVE-DONE").stream().map(WarehouseEvent::getId).toList());
+    }
+}
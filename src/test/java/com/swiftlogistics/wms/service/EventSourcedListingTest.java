@@ -0,0 +1,96 @@
+package com.swiftlogistics.wms.service;
+
+import com.swiftlogistics.wms.dto.WmsTcpMessage;
+import com.swiftlogistics.wms.model.Package;
+import com.swiftlogistics.wms.model.PackageStatus;
+import com.swiftlogistics.wms.repository.PackageRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * In event-sourced mode, listings and counts by status follow the event log even while the
+ * package rows still trail it.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration",
+    "mock-wms.enabled=false",
+    "wms.event-sourcing.enabled=true",
+    "wms.event-sourcing.snapshot-interval=3600000"
+})
+public class EventSourcedListingTest {
+
+    @Autowired
+    private PackageTrackingService packageTrackingService;
+
+    @Autowired
+    private PackageEventStore eventStore;
+
+    @Autowired
+    private PackageRepository packageRepository;
+
+    @MockitoBean
+    private KafkaProducerService kafkaProducerService;
+
+    @Test
+    public void listingsFollowEventsNotYetSnapshotted() {
+        for (String trackingId : List.of("TRK-ES-1", "TRK-ES-2")) {
+            packageRepository.save(Package.builder()
+                    .trackingId(trackingId)
+                    .orderId("ORD-" + trackingId)
+                    .status(PackageStatus.RECEIVED)
+                    .origin("WAREHOUSE-A")
+                    .currentLocation("WAREHOUSE-A")
+                    .build());
+        }
+        Map<PackageStatus, Long> before = counts();
+
+        assertEquals(1, packageTrackingService.applyStatusUpdates(List.of(push("TRK-ES-1", "DOCK-1"))));
+
+        // The row still says RECEIVED until the next snapshot
+        assertEquals(PackageStatus.RECEIVED, packageRepository.findByTrackingId("TRK-ES-1").orElseThrow().getStatus());
+        assertTrue(trackingIds(PackageStatus.PROCESSING).contains("TRK-ES-1"));
+        assertFalse(trackingIds(PackageStatus.RECEIVED).contains("TRK-ES-1"));
+        assertTrue(trackingIds(PackageStatus.RECEIVED).contains("TRK-ES-2"));
+        assertEquals("DOCK-1", packageTrackingService.listPackages(PackageStatus.PROCESSING, null, null).stream()
+                .filter(p -> p.getTrackingId().equals("TRK-ES-1")).findFirst().orElseThrow().getCurrentLocation());
+
+        Map<PackageStatus, Long> after = counts();
+        assertEquals(before.getOrDefault(PackageStatus.RECEIVED, 0L) - 1, after.getOrDefault(PackageStatus.RECEIVED, 0L));
+        assertEquals(before.getOrDefault(PackageStatus.PROCESSING, 0L) + 1, after.get(PackageStatus.PROCESSING));
+    }
+
+    private List<String> trackingIds(PackageStatus status) {
+        return packageTrackingService.listPackages(status, null, null).stream().map(Package::getTrackingId).toList();
+    }
+
+    private Map<PackageStatus, Long> counts() {
+        Map<PackageStatus, Long> counts = new HashMap<>();
+        for (Object[] row : eventStore.countGroupedByStatus()) {
+            counts.merge((PackageStatus) row[0], (Long) row[1], Long::sum);
+        }
+        return counts;
+    }
+
+    private static WmsTcpMessage push(String trackingId, String location) {
+        return WmsTcpMessage.builder()
+                .messageType("STATUS")
+                .trackingId(trackingId)
+                .status("PROCESSING")
+                .location(location)
+                .build();
+    }
+}
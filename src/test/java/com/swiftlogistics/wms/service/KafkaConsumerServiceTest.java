@@ -0,0 +1,58 @@
+package com.swiftlogistics.wms.service;
+
+import com.swiftlogistics.wms.config.WmsProperties;
+import com.swiftlogistics.wms.dto.OrderDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The orders listener waits once {@code max-in-flight-orders} orders are being processed and
+ * continues as soon as one of them completes.
+ */
+public class KafkaConsumerServiceTest {
+
+    @Test
+    public void listenerWaitsWhileTooManyOrdersAreInFlight() throws Exception {
+        WmsProperties properties = new WmsProperties();
+        properties.getIngestion().setMaxInFlightOrders(2);
+        PackageTrackingService trackingService = mock(PackageTrackingService.class);
+        OrderDeduplicationService deduplicationService = mock(OrderDeduplicationService.class);
+        when(deduplicationService.claim(any())).thenReturn(true);
+        List<CompletableFuture<Void>> orders = List.of(new CompletableFuture<>(), new CompletableFuture<>(),
+                new CompletableFuture<>());
+        when(trackingService.processNewOrder(any())).thenReturn(orders.get(0), orders.get(1), orders.get(2));
+        KafkaConsumerService consumer = new KafkaConsumerService(trackingService, deduplicationService, properties);
+
+        consume(consumer, "ORD-1");
+        consume(consumer, "ORD-2");
+        Thread listener = new Thread(() -> consume(consumer, "ORD-3"));
+        listener.start();
+
+        listener.join(300);
+        assertTrue(listener.isAlive());
+        verify(trackingService, times(2)).processNewOrder(any());
+
+        orders.get(0).complete(null);
+        listener.join(TimeUnit.SECONDS.toMillis(5));
+        assertFalse(listener.isAlive());
+        verify(trackingService, timeout(1000).times(3)).processNewOrder(any());
+    }
+
+    private static void consume(KafkaConsumerService consumer, String orderId) {
+        OrderDto order = OrderDto.builder().orderId(orderId).trackingId("TRK-" + orderId).build();
+        consumer.consumeOrder(order, "orders", 0, 0L, mock(Acknowledgment.class));
+    }
+}
@@ -0,0 +1,161 @@
+package com.swiftlogistics.wms.service;
+
+import com.swiftlogistics.wms.config.WmsProperties;
+import com.swiftlogistics.wms.dto.OrderDto;
+import com.swiftlogistics.wms.repository.PackageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Redelivered orders are rejected, a released or orphaned claim lets a redelivery through, and
+ * filter hits for orders the database does not know fall through to the Redis claim.
+ */
+public class OrderDeduplicationServiceTest {
+
+    private final PackageRepository packageRepository = mock(PackageRepository.class);
+    private final Set<String> ingested = new HashSet<>();
+    private final Set<String> redisKeys = new HashSet<>();
+    private final Set<String> checkedInDatabase = new HashSet<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private WmsProperties properties;
+    private ValueOperations<String, String> redisValues;
+    private ObjectProvider<StringRedisTemplate> redisProvider;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        properties = new WmsProperties();
+        properties.getIngestion().getDedup().setExpectedOrders(1000);
+
+        when(packageRepository.existsByTrackingIdAndOrderId(anyString(), anyString())).thenAnswer(invocation -> {
+            checkedInDatabase.add(invocation.getArgument(1));
+            return ingested.contains(invocation.getArgument(1));
+        });
+
+        redisValues = mock(ValueOperations.class);
+        when(redisValues.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenAnswer(invocation -> redisKeys.add(invocation.getArgument(0)));
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.opsForValue()).thenReturn(redisValues);
+        when(redisTemplate.delete(anyString())).thenAnswer(invocation -> redisKeys.remove(invocation.<String>getArgument(0)));
+        redisProvider = mock(ObjectProvider.class);
+        when(redisProvider.getObject()).thenReturn(redisTemplate);
+    }
+
+    @Test
+    public void duplicateOfIngestedOrderIsRejected() {
+        OrderDeduplicationService dedup = service();
+        OrderDto order = order("ORD-1");
+
+        assertTrue(dedup.claim(order));
+        ingested.add("ORD-1");
+
+        assertFalse(dedup.claim(order));
+        assertEquals(1.0, duplicates("database"));
+    }
+
+    @Test
+    public void duplicateClaimedInRedisIsRejected() {
+        properties.getIngestion().getDedup().setRedisEnabled(true);
+        OrderDto order = order("ORD-1");
+
+        assertTrue(service().claim(order));
+        ingested.add("ORD-1");
+
+        // Redelivered to another instance, whose filter has never seen the order
+        assertFalse(service().claim(order));
+        assertEquals(1.0, duplicates("redis"));
+    }
+
+    @Test
+    public void claimOfCrashedInstanceDoesNotDropRedelivery() {
+        properties.getIngestion().getDedup().setRedisEnabled(true);
+        OrderDto order = order("ORD-1");
+
+        // The first instance claims the order and dies before its package commits
+        assertTrue(service().claim(order));
+
+        assertTrue(service().claim(order));
+        assertEquals(0.0, duplicates("database") + duplicates("redis"));
+    }
+
+    @Test
+    public void releasedClaimAllowsReprocessing() {
+        properties.getIngestion().getDedup().setRedisEnabled(true);
+        OrderDeduplicationService dedup = service();
+        OrderDto order = order("ORD-1");
+
+        assertTrue(dedup.claim(order));
+        dedup.release(order);
+
+        assertTrue(redisKeys.isEmpty());
+        assertTrue(dedup.claim(order));
+        assertEquals(0.0, duplicates("database") + duplicates("redis"));
+    }
+
+    @Test
+    public void filterFalsePositivesFallThroughToRedis() {
+        properties.getIngestion().getDedup().setRedisEnabled(true);
+        properties.getIngestion().getDedup().setFalsePositiveRate(0.5);
+        OrderDeduplicationService dedup = service();
+        for (int i = 0; i < 1000; i++) {
+            dedup.markIngested(order("ORD-OLD-" + i));
+        }
+
+        for (int i = 0; i < 500; i++) {
+            assertTrue(dedup.claim(order("ORD-NEW-" + i)));
+        }
+
+        // Some new orders hit the saturated filter, were cleared by the database and still claimed in Redis
+        assertFalse(checkedInDatabase.isEmpty());
+        for (String orderId : checkedInDatabase) {
+            verify(redisValues).setIfAbsent(eq("wms:order-seen:" + orderId + ":TRK-" + orderId), eq("1"), any(Duration.class));
+        }
+        assertEquals(500, redisKeys.size());
+    }
+
+    @Test
+    public void disabledDedupClaimsEverything() {
+        properties.getIngestion().getDedup().setEnabled(false);
+        OrderDeduplicationService dedup = service();
+        ingested.add("ORD-1");
+
+        assertTrue(dedup.claim(order("ORD-1")));
+        assertTrue(dedup.claim(order("ORD-1")));
+        verify(packageRepository, never()).existsByTrackingIdAndOrderId(anyString(), anyString());
+    }
+
+    private OrderDeduplicationService service() {
+        OrderDeduplicationService dedup = new OrderDeduplicationService(packageRepository, properties, meterRegistry, redisProvider);
+        dedup.init();
+        return dedup;
+    }
+
+    private double duplicates(String detectedBy) {
+        var counter = meterRegistry.find("wms.orders.duplicates").tag("detected_by", detectedBy).counter();
+        return counter == null ? 0.0 : counter.count();
+    }
+
+    private static OrderDto order(String orderId) {
+        return OrderDto.builder().orderId(orderId).trackingId("TRK-" + orderId).build();
+    }
+}
@@ -0,0 +1,98 @@
+package com.swiftlogistics.wms.service;
+
+import com.swiftlogistics.wms.config.WmsProperties;
+import com.swiftlogistics.wms.dto.PackageStatusDto;
+import com.swiftlogistics.wms.model.Package;
+import com.swiftlogistics.wms.model.PackageStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The read model serves nothing until its replay has reached the end offsets seen at assignment,
+ * and evicts terminal packages so that they are served from the database.
+ */
+public class PackageProjectionServiceTest {
+
+    private static final TopicPartition ORDERS = new TopicPartition("orders", 0);
+    private static final TopicPartition STATUS = new TopicPartition("package-status", 0);
+    private static final TopicPartition EVENTS = new TopicPartition("warehouse-events", 0);
+
+    private final Consumer<?, ?> listenerConsumer = mock(Consumer.class);
+    private WmsProperties properties;
+    private PackageProjectionService projection;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        properties = new WmsProperties();
+        properties.getProjection().setTerminalTtl(60000);
+
+        // Only package-status holds records, two of them
+        Consumer<String, Object> replayConsumer = mock(Consumer.class);
+        when(replayConsumer.beginningOffsets(anyCollection())).thenReturn(Map.of(ORDERS, 0L, STATUS, 0L, EVENTS, 0L));
+        when(replayConsumer.endOffsets(anyCollection())).thenReturn(Map.of(ORDERS, 0L, STATUS, 2L, EVENTS, 0L));
+        ConsumerFactory<String, Object> consumerFactory = mock(ConsumerFactory.class);
+        when(consumerFactory.createConsumer(anyString(), anyString())).thenReturn(replayConsumer);
+        when(listenerConsumer.position(any(TopicPartition.class))).thenReturn(0L);
+
+        projection = new PackageProjectionService(properties, new SimpleMeterRegistry(), consumerFactory);
+        projection.onPartitionsAssigned(Map.of(ORDERS, 0L, STATUS, 0L, EVENTS, 0L), mock(ConsumerSeekCallback.class));
+    }
+
+    @Test
+    public void nothingIsServedBeforeTheReplayHasCaughtUp() {
+        projection.onPackageStatus(record(0, "TRK-1", PackageStatus.PROCESSING, LocalDateTime.now()), listenerConsumer);
+
+        assertFalse(projection.isCaughtUp());
+        assertTrue(projection.findPackage("TRK-1").isEmpty());
+        assertTrue(projection.findRevision("TRK-1").isEmpty());
+        assertTrue(projection.findByStatus(PackageStatus.PROCESSING).isEmpty());
+
+        projection.onPackageStatus(record(1, "TRK-2", PackageStatus.PROCESSING, LocalDateTime.now()), listenerConsumer);
+
+        assertTrue(projection.isCaughtUp());
+        assertEquals(PackageStatus.PROCESSING, projection.findPackage("TRK-1").orElseThrow().getStatus());
+        assertTrue(projection.findRevision("TRK-1").orElseThrow().getTag().startsWith("p"));
+        assertEquals(List.of("TRK-1", "TRK-2"), projection.findByStatus(PackageStatus.PROCESSING).orElseThrow().stream()
+                .map(Package::getTrackingId).sorted().toList());
+    }
+
+    @Test
+    public void terminalPackagesAreEvictedAfterTheirTtl() {
+        LocalDateTime longAgo = LocalDateTime.now().minusHours(2);
+        projection.onPackageStatus(record(0, "TRK-DELIVERED", PackageStatus.DELIVERED, longAgo), listenerConsumer);
+        projection.onPackageStatus(record(1, "TRK-ACTIVE", PackageStatus.SHIPPED, longAgo), listenerConsumer);
+
+        projection.evict();
+
+        assertTrue(projection.findPackage("TRK-DELIVERED").isEmpty());
+        assertTrue(projection.findPackage("TRK-ACTIVE").isPresent());
+        assertTrue(projection.findByStatus(PackageStatus.DELIVERED).isEmpty());
+        assertEquals(1, projection.findByStatus(PackageStatus.SHIPPED).orElseThrow().size());
+    }
+
+    private static ConsumerRecord<String, Object> record(long offset, String trackingId, PackageStatus status,
+                                                         LocalDateTime timestamp) {
+        PackageStatusDto dto = PackageStatusDto.builder().trackingId(trackingId).status(status).timestamp(timestamp).build();
+        return new ConsumerRecord<>(STATUS.topic(), STATUS.partition(), offset, trackingId, dto);
+    }
+}
@@ -0,0 +1,164 @@
+package com.swiftlogistics.wms.service;
+
+import com.swiftlogistics.wms.config.WmsProperties;
+import com.swiftlogistics.wms.dto.WmsTcpMessage;
+import com.swiftlogistics.wms.model.Package;
+import com.swiftlogistics.wms.model.PackageStatus;
+import com.swiftlogistics.wms.model.ProcessingCheckpoint;
+import com.swiftlogistics.wms.repository.PackageRepository;
+import com.swiftlogistics.wms.repository.ProcessingCheckpointRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * A pass resumes after the stored checkpoint, walks the open packages page by page, applies
+ * only the statuses the WMS reports differently, and spaces its queries at the configured rate.
+ */
+public class PackageReconciliationServiceTest {
+
+    private final PackageRepository packageRepository = mock(PackageRepository.class);
+    private final ProcessingCheckpointRepository checkpointRepository = mock(ProcessingCheckpointRepository.class);
+    private final WmsTcpClientService tcpClientService = mock(WmsTcpClientService.class);
+    private final PackageTrackingService trackingService = mock(PackageTrackingService.class);
+    private final List<Long> savedPositions = new ArrayList<>();
+    private final List<String> queried = new CopyOnWriteArrayList<>();
+    private final List<List<String>> applied = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final WmsProperties properties = new WmsProperties();
+    private PackageReconciliationService reconciliation;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        properties.getReconciliation().setPageSize(2);
+        properties.getReconciliation().setParallelism(2);
+        properties.getReconciliation().setMaxRequestsPerSecond(0);
+
+        List<Package> open = List.of(
+                open(1, PackageStatus.RECEIVED), open(2, PackageStatus.RECEIVED), open(3, PackageStatus.PICKED),
+                open(4, PackageStatus.PACKED), open(5, PackageStatus.PROCESSING), open(6, PackageStatus.SHIPPED));
+        when(packageRepository.findByStatusInAndIdGreaterThanOrderByIdAsc(any(), anyLong(), any(Limit.class)))
+                .thenAnswer(invocation -> {
+                    long after = invocation.getArgument(1);
+                    int limit = invocation.<Limit>getArgument(2).max();
+                    return open.stream().filter(p -> p.getId() > after).limit(limit).toList();
+                });
+        when(checkpointRepository.save(any(ProcessingCheckpoint.class))).thenAnswer(invocation -> {
+            savedPositions.add(invocation.<ProcessingCheckpoint>getArgument(0).getPosition());
+            return invocation.getArgument(0);
+        });
+
+        // The WMS has moved TRK-4 and TRK-6 on; everything else matches
+        Map<String, String> wmsStatuses = Map.of(
+                "TRK-1", "RECEIVED", "TRK-2", "RECEIVED", "TRK-3", "PICKED",
+                "TRK-4", "SHIPPED", "TRK-5", "processing", "TRK-6", "DELIVERED");
+        when(tcpClientService.queryPackageStatus(anyString(), anyString())).thenAnswer(invocation -> {
+            String trackingId = invocation.getArgument(0);
+            queried.add(trackingId);
+            return WmsTcpMessage.builder().messageType("STATUS").trackingId(trackingId)
+                    .status(wmsStatuses.get(trackingId)).build();
+        });
+        when(trackingService.applyStatusUpdates(anyList())).thenAnswer(invocation -> {
+            List<WmsTcpMessage> changes = invocation.getArgument(0);
+            applied.add(changes.stream().map(WmsTcpMessage::getTrackingId).toList());
+            return changes.size();
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (reconciliation != null) {
+            reconciliation.shutdown();
+        }
+    }
+
+    @Test
+    public void passResumesFromCheckpointAndAppliesOnlyChanges() {
+        when(checkpointRepository.findById(PackageReconciliationService.CHECKPOINT_NAME)).thenReturn(Optional.of(
+                ProcessingCheckpoint.builder().name(PackageReconciliationService.CHECKPOINT_NAME).position(2L).build()));
+
+        service().reconcile();
+
+        // Packages up to the checkpoint were reconciled by the interrupted pass
+        assertEquals(List.of("TRK-3", "TRK-4", "TRK-5", "TRK-6"), queried.stream().sorted().toList());
+        assertEquals(List.of(List.of("TRK-4"), List.of("TRK-6")), applied);
+        // Checkpointed after each page, then reset for the next pass
+        assertEquals(List.of(4L, 6L, 0L), savedPositions);
+        assertEquals(2.0, meterRegistry.counter("wms.reconciliation.packages.updated").count());
+    }
+
+    @Test
+    public void pageWithoutChangesAppliesNothing() {
+        when(checkpointRepository.findById(PackageReconciliationService.CHECKPOINT_NAME)).thenReturn(Optional.empty());
+        properties.getReconciliation().setPageSize(3);
+
+        service().reconcile();
+
+        assertEquals(6, queried.size());
+        // The first page (TRK-1..3) matches the WMS, so only the second is applied
+        assertEquals(List.of(List.of("TRK-4", "TRK-6")), applied);
+        assertEquals(List.of(3L, 6L, 0L), savedPositions);
+    }
+
+    @Test
+    public void queriesAreSpacedAtTheConfiguredRate() {
+        when(checkpointRepository.findById(PackageReconciliationService.CHECKPOINT_NAME)).thenReturn(Optional.empty());
+        properties.getReconciliation().setMaxRequestsPerSecond(20);
+
+        long start = System.nanoTime();
+        service().reconcile();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Six permits 50ms apart, the first one immediate
+        assertEquals(6, queried.size());
+        assertTrue(elapsedMillis >= 240, "Reconciliation took only " + elapsedMillis + "ms");
+    }
+
+    @Test
+    public void checkpointPastLastPackageStartsOver() {
+        when(checkpointRepository.findById(PackageReconciliationService.CHECKPOINT_NAME)).thenReturn(Optional.of(
+                ProcessingCheckpoint.builder().name(PackageReconciliationService.CHECKPOINT_NAME).position(6L).build()));
+
+        service().reconcile();
+
+        assertTrue(queried.isEmpty());
+        verify(trackingService, never()).applyStatusUpdates(anyList());
+        verify(checkpointRepository).save(any(ProcessingCheckpoint.class));
+        assertEquals(List.of(0L), savedPositions);
+    }
+
+    private PackageReconciliationService service() {
+        reconciliation = new PackageReconciliationService(packageRepository, checkpointRepository, tcpClientService,
+                trackingService, properties, meterRegistry);
+        reconciliation.init();
+        return reconciliation;
+    }
+
+    private static Package open(long id, PackageStatus status) {
+        Package packageEntity = new Package();
+        packageEntity.setId(id);
+        packageEntity.setTrackingId("TRK-" + id);
+        packageEntity.setOrigin("WH-1");
+        packageEntity.setStatus(status);
+        return packageEntity;
+    }
+}
@@ -0,0 +1,70 @@
+package com.swiftlogistics.wms.service;
+
+import com.swiftlogistics.wms.config.WmsProperties;
+import com.swiftlogistics.wms.model.EventType;
+import com.swiftlogistics.wms.model.Package;
+import com.swiftlogistics.wms.model.PackageStatus;
+import com.swiftlogistics.wms.repository.PackageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * With the write queue full, a package with nothing pending leaves the store for the database path,
+ * and transitions of packages with queued writes wait for room and then fail.
+ */
+public class PackageStateStoreCapacityTest {
+
+    private PackageStateStore store;
+
+    @BeforeEach
+    public void setUp() {
+        WmsProperties properties = new WmsProperties();
+        properties.getStateStore().setMaxPendingWrites(2);
+        properties.getStateStore().setWaitTimeout(50);
+        store = new PackageStateStore(mock(PackageRepository.class), mock(PackageEventStore.class),
+                mock(PackageStatisticsService.class), mock(TransactionTemplate.class), properties, new SimpleMeterRegistry());
+        store.track(held("TRK-BUSY"));
+        store.track(held("TRK-IDLE"));
+    }
+
+    @Test
+    public void fullQueueSendsIdlePackagesToTheDatabase() throws Exception {
+        assertTrue(transition("TRK-BUSY", PackageStatus.PROCESSING));
+        assertTrue(transition("TRK-BUSY", PackageStatus.PICKED));
+
+        assertFalse(transition("TRK-IDLE", PackageStatus.PROCESSING));
+        assertTrue(store.find("TRK-IDLE").isEmpty());
+        assertThrows(TransientDataAccessResourceException.class, () -> transition("TRK-BUSY", PackageStatus.PACKED));
+
+        List<PackageStateStore.PendingTransition> batch = store.drain(10);
+        assertEquals(2, batch.size());
+        store.written(batch);
+        assertTrue(transition("TRK-BUSY", PackageStatus.PACKED));
+    }
+
+    private boolean transition(String trackingId, PackageStatus status) throws Exception {
+        return store.transition(trackingId, status, null, null, EventType.PACKAGE_STATUS_CHANGED,
+                "Package status updated to " + status, LocalDateTime.now()).isPresent();
+    }
+
+    private static Package held(String trackingId) {
+        return Package.builder()
+                .trackingId(trackingId)
+                .orderId("ORD-" + trackingId)
+                .status(PackageStatus.RECEIVED)
+                .currentLocation("WAREHOUSE-A")
+                .build();
+    }
+}
@@ -0,0 +1,190 @@
+package com.swiftlogistics.wms.service;
+
+import com.swiftlogistics.wms.exception.IllegalStatusTransitionException;
+import com.swiftlogistics.wms.model.EventType;
+import com.swiftlogistics.wms.model.Package;
+import com.swiftlogistics.wms.model.PackageStatus;
+import com.swiftlogistics.wms.model.WarehouseEvent;
+import com.swiftlogistics.wms.repository.PackageRepository;
+import com.swiftlogistics.wms.repository.WarehouseEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Concurrent status updates on a package held in the state store: transitions are applied in memory,
+ * and once written behind the event log forms the same unbroken chain as with direct writes.
+ * Transitions of a rolled back transaction are undone, and one that cannot be written does not hold
+ * up the rest.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration",
+    "mock-wms.enabled=false",
+    "wms.state-store.enabled=true",
+    "wms.state-store.batch-size=50"
+})
+public class PackageStateStoreTest {
+
+    private static final int THREADS = 16;
+    private static final int UPDATES_PER_THREAD = 25;
+    private static final PackageStatus[] CYCLE =
+            { PackageStatus.PROCESSING, PackageStatus.PICKED, PackageStatus.PACKED, PackageStatus.SHIPPED };
+
+    @Autowired
+    private PackageTrackingService packageTrackingService;
+
+    @Autowired
+    private PackageStateStore stateStore;
+
+    @Autowired
+    private PackageStateWriteBehind writeBehind;
+
+    @Autowired
+    private PackageRepository packageRepository;
+
+    @Autowired
+    private WarehouseEventRepository eventRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockitoBean
+    private KafkaProducerService kafkaProducerService;
+
+    @Test
+    public void transitionsAreWrittenBehindInOrder() throws Exception {
+        stateStore.track(packageRepository.save(Package.builder()
+                .trackingId("TRK-STORE")
+                .orderId("ORD-STORE")
+                .status(PackageStatus.RECEIVED)
+                .origin("WAREHOUSE-A")
+                .currentLocation("WAREHOUSE-A")
+                .build()));
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            results.add(executor.submit(() -> {
+                start.await();
+                int applied = 0;
+                for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                    try {
+                        packageTrackingService.updatePackageStatus("TRK-STORE",
+                                CYCLE[(thread + i) % CYCLE.length], "LOCATION-" + thread, null);
+                        applied++;
+                    } catch (IllegalStatusTransitionException e) {
+                        // The package has already moved past this status
+                    }
+                }
+                return applied;
+            }));
+        }
+        start.countDown();
+        int applied = 0;
+        for (Future<Integer> result : results) {
+            applied += result.get();
+        }
+        executor.shutdown();
+
+        PackageStatus held = stateStore.find("TRK-STORE").orElseThrow().getStatus();
+        packageTrackingService.updatePackageStatus("TRK-STORE", PackageStatus.DELIVERED, "CUSTOMER", "Signed");
+        writeBehind.flush();
+
+        List<WarehouseEvent> transitions = eventRepository.findByTrackingId("TRK-STORE").stream()
+                .filter(event -> event.getEventType() == EventType.PACKAGE_STATUS_CHANGED)
+                .sorted(Comparator.comparing(WarehouseEvent::getId))
+                .toList();
+        assertEquals(applied + 1, transitions.size());
+
+        PackageStatus expectedPrevious = PackageStatus.RECEIVED;
+        for (WarehouseEvent transition : transitions) {
+            assertEquals(expectedPrevious, transition.getPreviousStatus(), "Broken chain at event " + transition.getId());
+            assertTrue(expectedPrevious.canTransitionTo(transition.getNewStatus()), "Illegal transition at event " + transition.getId());
+            expectedPrevious = transition.getNewStatus();
+        }
+        assertEquals(held, transitions.get(transitions.size() - 1).getPreviousStatus());
+
+        // Written through to the row, and no longer held once delivered
+        Package finalState = packageRepository.findByTrackingId("TRK-STORE").orElseThrow();
+        assertEquals(PackageStatus.DELIVERED, finalState.getStatus());
+        assertEquals("CUSTOMER", finalState.getCurrentLocation());
+        assertEquals("Signed", finalState.getNotes());
+        assertFalse(stateStore.find("TRK-STORE").isPresent());
+    }
+
+    @Test
+    public void rolledBackTransitionIsUndone() throws Exception {
+        trackPackage("TRK-STORE-ROLLBACK");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                packageTrackingService.updatePackageStatus("TRK-STORE-ROLLBACK", PackageStatus.PROCESSING, "DOCK-1", null);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            status.setRollbackOnly();
+        });
+        writeBehind.flush();
+
+        Package held = stateStore.find("TRK-STORE-ROLLBACK").orElseThrow();
+        assertEquals(PackageStatus.RECEIVED, held.getStatus());
+        assertEquals("WAREHOUSE-A", held.getCurrentLocation());
+        assertTrue(eventRepository.findByTrackingId("TRK-STORE-ROLLBACK").stream()
+                .noneMatch(event -> event.getEventType() == EventType.PACKAGE_STATUS_CHANGED));
+
+        // The package is not left locked
+        packageTrackingService.updatePackageStatus("TRK-STORE-ROLLBACK", PackageStatus.PROCESSING, "DOCK-2", null);
+        assertEquals(PackageStatus.PROCESSING, stateStore.find("TRK-STORE-ROLLBACK").orElseThrow().getStatus());
+    }
+
+    @Test
+    public void unwritableTransitionIsDeadLettered() throws Exception {
+        trackPackage("TRK-STORE-POISON");
+
+        // Longer than the location column
+        packageTrackingService.updatePackageStatus("TRK-STORE-POISON", PackageStatus.PROCESSING, "X".repeat(300), null);
+        packageTrackingService.updatePackageStatus("TRK-STORE-POISON", PackageStatus.PICKED, "DOCK-1", null);
+        writeBehind.flush();
+
+        assertEquals(0, stateStore.getPendingCount());
+        List<WarehouseEvent> transitions = eventRepository.findByTrackingId("TRK-STORE-POISON").stream()
+                .filter(event -> event.getEventType() == EventType.PACKAGE_STATUS_CHANGED)
+                .toList();
+        assertEquals(1, transitions.size());
+        assertEquals(PackageStatus.PICKED, transitions.get(0).getNewStatus());
+
+        Package row = packageRepository.findByTrackingId("TRK-STORE-POISON").orElseThrow();
+        assertEquals(PackageStatus.PICKED, row.getStatus());
+        assertEquals("DOCK-1", row.getCurrentLocation());
+    }
+
+    private void trackPackage(String trackingId) {
+        stateStore.track(packageRepository.save(Package.builder()
+                .trackingId(trackingId)
+                .orderId("ORD-" + trackingId)
+                .status(PackageStatus.RECEIVED)
+                .origin("WAREHOUSE-A")
+                .currentLocation("WAREHOUSE-A")
+                .build()));
+    }
+}
@@ -0,0 +1,104 @@
+package com.swiftlogistics.wms.service;
+
+import com.swiftlogistics.wms.config.WmsProperties;
+import com.swiftlogistics.wms.model.Package;
+import com.swiftlogistics.wms.model.PackageStatus;
+import com.swiftlogistics.wms.repository.PackageRepository;
+import com.swiftlogistics.wms.repository.WarehouseEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A rebuild keeps updates committed while its queries run, and locations beyond the tag limit
+ * share the OTHER bucket.
+ */
+public class PackageStatisticsServiceTest {
+
+    private final PackageRepository packageRepository = mock(PackageRepository.class);
+    private final WarehouseEventRepository eventRepository = mock(WarehouseEventRepository.class);
+    private final PackageEventStore eventStore = mock(PackageEventStore.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PackageStatisticsService statistics;
+
+    @BeforeEach
+    public void setUp() {
+        WmsProperties properties = new WmsProperties();
+        properties.getStats().setMaxLocationTags(2);
+        statistics = new PackageStatisticsService(packageRepository, eventRepository, eventStore, meterRegistry,
+                properties);
+        when(eventRepository.countGroupedByEventType()).thenReturn(List.of());
+        when(packageRepository.countGroupedByCarrierId()).thenReturn(List.of());
+        when(eventStore.countGroupedByStatus()).thenReturn(rows(PackageStatus.RECEIVED, 5L));
+        when(eventStore.countGroupedByCurrentLocation()).thenReturn(rows("DOCK-A", 5L));
+        statistics.initialize();
+    }
+
+    @Test
+    public void updatesCommittedDuringRebuildAreKept() {
+        when(eventStore.countGroupedByStatus()).thenAnswer(invocation -> {
+            // Committed after the query's snapshot, so not part of its result
+            statistics.recordPackageCreated(packageAt(PackageStatus.RECEIVED, "DOCK-A"));
+            return rows(PackageStatus.RECEIVED, 7L);
+        });
+        when(eventStore.countGroupedByCurrentLocation()).thenAnswer(invocation -> {
+            statistics.recordStatusChange(PackageStatus.RECEIVED, PackageStatus.PROCESSING, "DOCK-A", "DOCK-B");
+            return rows("DOCK-A", 8L);
+        });
+
+        statistics.rebuild();
+
+        assertEquals(7, statistics.getStatusCount(PackageStatus.RECEIVED));
+        assertEquals(1, statistics.getStatusCount(PackageStatus.PROCESSING));
+        assertEquals(7, statistics.getLocationCount("DOCK-A"));
+        assertEquals(1, statistics.getLocationCount("DOCK-B"));
+
+        // Once the rebuild is done, updates are no longer replayed into the next one
+        when(eventStore.countGroupedByStatus()).thenReturn(rows(PackageStatus.RECEIVED, 6L));
+        when(eventStore.countGroupedByCurrentLocation()).thenReturn(rows("DOCK-A", 6L));
+        statistics.rebuild();
+        assertEquals(6, statistics.getStatusCount(PackageStatus.RECEIVED));
+    }
+
+    @Test
+    public void locationsBeyondTheLimitShareOneGauge() {
+        statistics.recordPackageCreated(packageAt(PackageStatus.RECEIVED, "DOCK-B"));
+        statistics.recordPackageCreated(packageAt(PackageStatus.RECEIVED, "DOCK-C"));
+        statistics.recordPackageCreated(packageAt(PackageStatus.RECEIVED, "DOCK-D"));
+        statistics.recordStatusChange(PackageStatus.RECEIVED, PackageStatus.PICKED, "DOCK-D", "DOCK-C");
+
+        assertEquals(1, statistics.getLocationCount("DOCK-B"));
+        assertEquals(2, statistics.getLocationCount(PackageStatisticsService.OTHER_LOCATION));
+        assertEquals(3, meterRegistry.find("wms.packages.by.location").gauges().size());
+
+        when(eventStore.countGroupedByCurrentLocation())
+                .thenReturn(rows("DOCK-A", 4L, "DOCK-E", 9L, "DOCK-F", 2L, null, 3L));
+        statistics.rebuild();
+
+        assertEquals(Map.of("DOCK-A", 4L, "OTHER", 14L), statistics.getSnapshot().get("packages_by_location"));
+        assertEquals(3, meterRegistry.find("wms.packages.by.location").gauges().size());
+    }
+
+    private static Package packageAt(PackageStatus status, String location) {
+        Package packageEntity = new Package();
+        packageEntity.setStatus(status);
+        packageEntity.setCurrentLocation(location);
+        return packageEntity;
+    }
+
+    private static List<Object[]> rows(Object... keysAndCounts) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < keysAndCounts.length; i += 2) {
+            rows.add(new Object[] {keysAndCounts[i], keysAndCounts[i + 1]});
+        }
+        return rows;
+    }
+}
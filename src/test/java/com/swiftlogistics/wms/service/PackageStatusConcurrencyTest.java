@@ -0,0 +1,113 @@
+package com.swiftlogistics.wms.service;
+
+import com.swiftlogistics.wms.exception.IllegalStatusTransitionException;
+import com.swiftlogistics.wms.model.EventType;
+import com.swiftlogistics.wms.model.Package;
+import com.swiftlogistics.wms.model.PackageStatus;
+import com.swiftlogistics.wms.model.WarehouseEvent;
+import com.swiftlogistics.wms.repository.PackageRepository;
+import com.swiftlogistics.wms.repository.WarehouseEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stress test for concurrent status updates on a single package: every update must either be applied
+ * exactly once or rejected by the transition table, and the event log must form an unbroken chain of
+ * legal transitions.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration",
+    "mock-wms.enabled=false"
+})
+public class PackageStatusConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int UPDATES_PER_THREAD = 25;
+    private static final PackageStatus[] CYCLE =
+            { PackageStatus.PROCESSING, PackageStatus.PICKED, PackageStatus.PACKED, PackageStatus.SHIPPED };
+
+    @Autowired
+    private PackageTrackingService packageTrackingService;
+
+    @Autowired
+    private PackageRepository packageRepository;
+
+    @Autowired
+    private WarehouseEventRepository eventRepository;
+
+    @MockitoBean
+    private KafkaProducerService kafkaProducerService;
+
+    @Test
+    public void concurrentUpdatesAreNotLost() throws Exception {
+        packageRepository.save(Package.builder()
+                .trackingId("TRK-CONCURRENT")
+                .orderId("ORD-CONCURRENT")
+                .status(PackageStatus.RECEIVED)
+                .origin("WAREHOUSE-A")
+                .currentLocation("WAREHOUSE-A")
+                .build());
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            results.add(executor.submit(() -> {
+                start.await();
+                int applied = 0;
+                for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                    try {
+                        packageTrackingService.updatePackageStatus("TRK-CONCURRENT",
+                                CYCLE[(thread + i) % CYCLE.length], "LOCATION-" + thread, null);
+                        applied++;
+                    } catch (IllegalStatusTransitionException e) {
+                        // The package has already moved past this status
+                    }
+                }
+                return applied;
+            }));
+        }
+        start.countDown();
+        int applied = 0;
+        for (Future<Integer> result : results) {
+            applied += result.get();
+        }
+        executor.shutdown();
+
+        List<WarehouseEvent> transitions = eventRepository.findByTrackingId("TRK-CONCURRENT").stream()
+                .filter(event -> event.getEventType() == EventType.PACKAGE_STATUS_CHANGED)
+                .sorted(Comparator.comparing(WarehouseEvent::getId))
+                .toList();
+        assertEquals(applied, transitions.size());
+
+        // Each transition starts from the status the previous one left behind, and is allowed from it
+        PackageStatus expectedPrevious = PackageStatus.RECEIVED;
+        for (WarehouseEvent transition : transitions) {
+            assertEquals(expectedPrevious, transition.getPreviousStatus(), "Broken chain at event " + transition.getId());
+            assertTrue(expectedPrevious.canTransitionTo(transition.getNewStatus()), "Illegal transition at event " + transition.getId());
+            expectedPrevious = transition.getNewStatus();
+        }
+
+        Package finalState = packageRepository.findByTrackingId("TRK-CONCURRENT").orElseThrow();
+        assertEquals(expectedPrevious, finalState.getStatus());
+        assertEquals(applied, finalState.getVersion());
+    }
+}
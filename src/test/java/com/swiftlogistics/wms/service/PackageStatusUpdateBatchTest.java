@@ -0,0 +1,74 @@
+package com.swiftlogistics.wms.service;
+
+import com.swiftlogistics.wms.dto.WmsTcpMessage;
+import com.swiftlogistics.wms.model.Package;
+import com.swiftlogistics.wms.model.PackageStatus;
+import com.swiftlogistics.wms.repository.PackageRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A status push that cannot be written only loses itself; the rest of its batch is still applied.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration",
+    "mock-wms.enabled=false"
+})
+public class PackageStatusUpdateBatchTest {
+
+    @Autowired
+    private PackageTrackingService packageTrackingService;
+
+    @Autowired
+    private PackageRepository packageRepository;
+
+    @MockitoBean
+    private KafkaProducerService kafkaProducerService;
+
+    @Test
+    public void failingPushDoesNotRollBackItsBatch() {
+        for (String trackingId : List.of("TRK-BATCH-1", "TRK-BATCH-2", "TRK-BATCH-3")) {
+            packageRepository.save(Package.builder()
+                    .trackingId(trackingId)
+                    .orderId("ORD-" + trackingId)
+                    .status(PackageStatus.RECEIVED)
+                    .origin("WAREHOUSE-A")
+                    .currentLocation("WAREHOUSE-A")
+                    .build());
+        }
+
+        int applied = packageTrackingService.applyStatusUpdates(List.of(
+                push("TRK-BATCH-1", "DOCK-1"),
+                // Longer than the location column
+                push("TRK-BATCH-2", "X".repeat(300)),
+                push("TRK-BATCH-3", "DOCK-3")));
+
+        assertEquals(2, applied);
+        assertEquals(PackageStatus.PROCESSING, status("TRK-BATCH-1"));
+        assertEquals(PackageStatus.RECEIVED, status("TRK-BATCH-2"));
+        assertEquals(PackageStatus.PROCESSING, status("TRK-BATCH-3"));
+    }
+
+    private PackageStatus status(String trackingId) {
+        return packageRepository.findByTrackingId(trackingId).orElseThrow().getStatus();
+    }
+
+    private static WmsTcpMessage push(String trackingId, String location) {
+        return WmsTcpMessage.builder()
+                .messageType("STATUS")
+                .trackingId(trackingId)
+                .status("PROCESSING")
+                .location(location)
+                .build();
+    }
+}
@@ -0,0 +1,121 @@
+package com.swiftlogistics.wms.service;
+
+import com.swiftlogistics.wms.model.EventType;
+import com.swiftlogistics.wms.model.Package;
+import com.swiftlogistics.wms.model.PackageStatus;
+import com.swiftlogistics.wms.model.WarehouseEvent;
+import com.swiftlogistics.wms.repository.PackageRepository;
+import com.swiftlogistics.wms.repository.WarehouseEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Group-commit event writes: once a status update returns, its warehouse event is in the database,
+ * even though it was written by the event writer in a batch shared with other callers. An event
+ * that cannot be written fails only its own caller and does not stop the writer.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration",
+    "mock-wms.enabled=false",
+    "wms.event-writes.mode=GROUP_COMMIT"
+})
+public class WarehouseEventWriterTest {
+
+    private static final int PACKAGES = 32;
+    private static final PackageStatus[] LIFECYCLE = { PackageStatus.PROCESSING, PackageStatus.PICKED,
+            PackageStatus.PACKED, PackageStatus.SHIPPED, PackageStatus.DELIVERED };
+
+    @Autowired
+    private PackageTrackingService packageTrackingService;
+
+    @Autowired
+    private PackageRepository packageRepository;
+
+    @Autowired
+    private WarehouseEventRepository eventRepository;
+
+    @Autowired
+    private WarehouseEventWriter eventWriter;
+
+    @MockitoBean
+    private KafkaProducerService kafkaProducerService;
+
+    @Test
+    public void eventsAreWrittenWhenUpdatesReturn() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<String>> results = new ArrayList<>();
+        for (int p = 0; p < PACKAGES; p++) {
+            String trackingId = "TRK-GROUP-" + p;
+            packageRepository.save(Package.builder()
+                    .trackingId(trackingId)
+                    .orderId("ORD-GROUP-" + p)
+                    .status(PackageStatus.RECEIVED)
+                    .origin("WAREHOUSE-A")
+                    .currentLocation("WAREHOUSE-A")
+                    .build());
+            results.add(executor.submit(() -> {
+                for (PackageStatus status : LIFECYCLE) {
+                    packageTrackingService.updatePackageStatus(trackingId, status, "DOCK-1", null);
+                }
+                return trackingId;
+            }));
+        }
+
+        for (Future<String> result : results) {
+            String trackingId = result.get();
+            List<WarehouseEvent> events = eventRepository.findByTrackingId(trackingId).stream()
+                    .filter(event -> event.getEventType() == EventType.PACKAGE_STATUS_CHANGED)
+                    .toList();
+            assertEquals(LIFECYCLE.length, events.size(), "Events of " + trackingId);
+            events.forEach(event -> assertNotNull(event.getCreatedAt()));
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void unwritableEventFailsOnlyItsCaller() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        // Longer than the varchar(255) source column
+        Future<?> bad = executor.submit(() -> eventWriter.write(event("TRK-BAD", "x".repeat(300))));
+        Future<?> good = executor.submit(() -> eventWriter.write(event("TRK-GOOD", "test")));
+
+        Exception failure = assertThrows(Exception.class, bad::get);
+        assertInstanceOf(DataAccessException.class, failure.getCause());
+        good.get();
+        eventWriter.write(event("TRK-AFTER", "test"));
+        executor.shutdown();
+
+        assertEquals(0, eventRepository.findByTrackingId("TRK-BAD").size());
+        assertEquals(1, eventRepository.findByTrackingId("TRK-GOOD").size());
+        assertEquals(1, eventRepository.findByTrackingId("TRK-AFTER").size());
+    }
+
+    private static WarehouseEvent event(String trackingId, String source) {
+        return WarehouseEvent.builder()
+                .eventType(EventType.LOCATION_UPDATED)
+                .trackingId(trackingId)
+                .location("DOCK-1")
+                .source(source)
+                .eventTimestamp(LocalDateTime.now())
+                .build();
+    }
+}
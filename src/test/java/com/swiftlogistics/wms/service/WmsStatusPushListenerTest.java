@@ -0,0 +1,115 @@
+package com.swiftlogistics.wms.service;
+
+import com.swiftlogistics.wms.config.WmsProperties;
+import com.swiftlogistics.wms.dto.WmsTcpMessage;
+import com.swiftlogistics.wms.exception.WmsCommunicationException;
+import com.swiftlogistics.wms.protocol.WmsConnection;
+import com.swiftlogistics.wms.protocol.WmsEndpoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Queued WMS status pushes are applied in batches of wms.legacy.push.batch-size, and a batch that
+ * fails does not hold up the ones after it.
+ */
+public class WmsStatusPushListenerTest {
+
+    private WmsStatusPushListener listener;
+
+    @AfterEach
+    public void tearDown() {
+        if (listener != null) {
+            listener.stop();
+        }
+    }
+
+    @Test
+    public void pushesAreAppliedInBatches() throws Exception {
+        List<List<String>> batches = new CopyOnWriteArrayList<>();
+        PackageTrackingService trackingService = mock(PackageTrackingService.class);
+        when(trackingService.applyStatusUpdates(anyList())).thenAnswer(invocation -> {
+            batches.add(trackingIds(invocation.getArgument(0)));
+            return 0;
+        });
+
+        listener = listener(trackingService, 2, push("TRK-1"), push("TRK-2"), push("TRK-3"));
+        awaitPending(3);
+        listener.flushPendingPushes();
+
+        assertEquals(List.of(List.of("TRK-1", "TRK-2"), List.of("TRK-3")), batches);
+        assertEquals(0, listener.getPendingCount());
+    }
+
+    @Test
+    public void failedBatchDoesNotStopLaterBatches() throws Exception {
+        List<List<String>> batches = new CopyOnWriteArrayList<>();
+        PackageTrackingService trackingService = mock(PackageTrackingService.class);
+        when(trackingService.applyStatusUpdates(anyList())).thenAnswer(invocation -> {
+            List<String> batch = trackingIds(invocation.getArgument(0));
+            batches.add(batch);
+            if (batch.contains("TRK-1")) {
+                throw new IllegalStateException("database unavailable");
+            }
+            return batch.size();
+        });
+
+        listener = listener(trackingService, 1, push("TRK-1"), push("TRK-2"));
+        awaitPending(2);
+        listener.flushPendingPushes();
+
+        assertEquals(List.of(List.of("TRK-1"), List.of("TRK-2")), batches);
+    }
+
+    /**
+     * Listener subscribed to a single node that delivers the given pushes and then hangs up.
+     */
+    private static WmsStatusPushListener listener(PackageTrackingService trackingService, int batchSize,
+                                                  WmsTcpMessage... pushes) throws Exception {
+        WmsProperties properties = new WmsProperties();
+        properties.getLegacy().getPush().setBatchSize(batchSize);
+        properties.getLegacy().getPush().setReconnectDelay(60000);
+
+        WmsConnection connection = mock(WmsConnection.class);
+        List<WmsTcpMessage> received = new ArrayList<>(List.of(pushes));
+        received.add(null);
+        when(connection.receive()).thenReturn(received.get(0), received.subList(1, received.size()).toArray(WmsTcpMessage[]::new));
+
+        WmsTcpClientService tcpClientService = mock(WmsTcpClientService.class);
+        when(tcpClientService.getEndpoints()).thenReturn(List.of(new WmsEndpoint("localhost", 8889, Set.of())));
+        when(tcpClientService.openStatusSubscription(any()))
+                .thenReturn(connection)
+                .thenThrow(new WmsCommunicationException("node gone"));
+
+        WmsStatusPushListener listener = new WmsStatusPushListener(tcpClientService, trackingService, properties);
+        listener.start();
+        return listener;
+    }
+
+    private void awaitPending(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (listener.getPendingCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(listener.getPendingCount() >= count, "pushes were not queued");
+    }
+
+    private static WmsTcpMessage push(String trackingId) {
+        return WmsTcpMessage.builder().messageType("STATUS").trackingId(trackingId).status("SHIPPED").build();
+    }
+
+    private static List<String> trackingIds(List<WmsTcpMessage> batch) {
+        return batch.stream().map(WmsTcpMessage::getTrackingId).toList();
+    }
+}
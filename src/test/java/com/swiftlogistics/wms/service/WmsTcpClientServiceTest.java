@@ -0,0 +1,116 @@
+package com.swiftlogistics.wms.service;
+
+import com.swiftlogistics.wms.config.WmsProperties;
+import com.swiftlogistics.wms.dto.WmsTcpMessage;
+import com.swiftlogistics.wms.exception.WmsCommunicationException;
+import com.swiftlogistics.wms.protocol.ScriptedWmsServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Failed WMS round trips, blocking or not, are retried up to wms.legacy.max-retries attempts
+ * before the caller sees a WmsCommunicationException, and a retry can move to another node.
+ */
+public class WmsTcpClientServiceTest {
+
+    private WmsTcpClientService client;
+
+    @AfterEach
+    public void tearDown() {
+        if (client != null) {
+            client.stop();
+        }
+    }
+
+    @Test
+    public void asyncSendRetriesFailedAttempt() throws Exception {
+        try (ScriptedWmsServer server = new ScriptedWmsServer(
+                (request, connection) -> connection == 1 ? null : ScriptedWmsServer.ack(request))) {
+            client = client(server.getPort(), 3);
+
+            WmsTcpMessage response = client.queryPackageStatusAsync("TRK-1").get(5, TimeUnit.SECONDS);
+
+            assertEquals("ACK", response.getMessageType());
+            assertEquals(2, server.getConnections());
+        }
+    }
+
+    @Test
+    public void asyncSendFailsAfterMaxRetries() throws Exception {
+        try (ScriptedWmsServer server = new ScriptedWmsServer((request, connection) -> null)) {
+            client = client(server.getPort(), 2);
+
+            ExecutionException failure = assertThrows(ExecutionException.class,
+                    () -> client.queryPackageStatusAsync("TRK-1").get(5, TimeUnit.SECONDS));
+
+            assertInstanceOf(WmsCommunicationException.class, failure.getCause());
+            assertEquals(2, server.getConnections());
+        }
+    }
+
+    @Test
+    public void blockingSendRetriesFailedAttempt() throws Exception {
+        try (ScriptedWmsServer server = new ScriptedWmsServer(
+                (request, connection) -> connection == 1 ? null : ScriptedWmsServer.ack(request))) {
+            client = client(server.getPort(), 3);
+
+            WmsTcpMessage response = client.queryPackageStatus("TRK-1");
+
+            assertEquals("ACK", response.getMessageType());
+            assertEquals(2, server.getConnections());
+        }
+    }
+
+    @Test
+    public void blockingSendRetriesOnAnotherNode() throws Exception {
+        int deadPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            deadPort = socket.getLocalPort();
+        }
+        try (ScriptedWmsServer live = ScriptedWmsServer.acking()) {
+            WmsProperties properties = properties(live.getPort(), 2);
+            properties.getLegacy().setEndpoints(List.of(endpoint(deadPort), endpoint(live.getPort())));
+            // The retry after a refused connection must not pick the dead node again
+            properties.getLegacy().getLoadBalancing().setEjectAfterFailures(1);
+            client = new WmsTcpClientService(properties);
+            client.start();
+
+            for (int i = 0; i < 4; i++) {
+                assertEquals("ACK", client.cancelOrder("TRK-" + i, "ORD-" + i).getMessageType());
+            }
+        }
+    }
+
+    private static WmsProperties.Legacy.Endpoint endpoint(int port) {
+        WmsProperties.Legacy.Endpoint endpoint = new WmsProperties.Legacy.Endpoint();
+        endpoint.setHost("localhost");
+        endpoint.setPort(port);
+        return endpoint;
+    }
+
+    private static WmsTcpClientService client(int port, int maxRetries) throws Exception {
+        WmsTcpClientService client = new WmsTcpClientService(properties(port, maxRetries));
+        client.start();
+        return client;
+    }
+
+    private static WmsProperties properties(int port, int maxRetries) {
+        WmsProperties properties = new WmsProperties();
+        properties.getLegacy().setHost("localhost");
+        properties.getLegacy().setPort(port);
+        properties.getLegacy().setConnectionTimeout(500);
+        properties.getLegacy().setReadTimeout(500);
+        properties.getLegacy().setMaxRetries(maxRetries);
+        properties.getLegacy().setRetryDelay(10);
+        return properties;
+    }
+}